@@ -0,0 +1,17 @@
+-- Migración de TASKS_SEQ a asignación de IDs por bloques (pooled-lo).
+--
+-- Con allocationSize = 50 en la entidad Task, Hibernate llama a NEXTVAL una vez
+-- cada 50 inserciones y usa el valor devuelto como límite inferior del bloque
+-- [NEXTVAL, NEXTVAL + 49]. Cada nodo de la aplicación obtiene bloques disjuntos
+-- porque todos los reparte la misma secuencia.
+--
+-- Es seguro sobre una tabla con datos: el siguiente NEXTVAL tras el ALTER es
+-- el último valor entregado + 50, por encima de cualquier ID ya asignado.
+--
+-- Desplegar la nueva versión de la aplicación justo después de ejecutar este
+-- script: una versión antigua (allocationSize = 1) seguiría funcionando, pero
+-- dejaría huecos de 50 en los IDs.
+
+ALTER SEQUENCE TASKS_SEQ
+    INCREMENT BY 50
+    CACHE 20;
@@ -0,0 +1,25 @@
+-- Momento en que se completó cada tarea (Task.completedAt).
+--
+-- El archivo de tareas (TaskArchiver) mueve a TASKS_ARCHIVE las que llevan
+-- completadas más de un número de días, y para eso necesita saber cuándo se
+-- completaron; CREATED_AT no sirve, porque una tarea antigua puede
+-- completarse hoy. La aplicación rellena la columna al marcar una tarea
+-- como completada y la vacía al volver a marcarla como pendiente.
+--
+-- Añadir una columna que admite nulos solo modifica el diccionario. Las
+-- tareas ya completadas no tienen fecha: se les asigna la del momento de la
+-- migración, así que empiezan a contar desde hoy y no se archivan todas de
+-- golpe en la primera ejecución. El UPDATE puede afectar a muchas filas;
+-- en tablas grandes conviene lanzarlo fuera de horas de uso.
+--
+-- Ejecutar junto con CREATE_TABLE_TASKS_ARCHIVE.sql antes de desplegar la
+-- nueva versión de la aplicación.
+
+ALTER TABLE TASKS ADD (COMPLETED_AT TIMESTAMP);
+
+UPDATE TASKS SET COMPLETED_AT = SYSTIMESTAMP WHERE COMPLETED = 1 AND COMPLETED_AT IS NULL;
+
+COMMIT;
+
+-- Archivo de completadas (COMPLETED = 1 AND COMPLETED_AT < :limite)
+CREATE INDEX IDX_TASKS_COMPLETED_AT ON TASKS(COMPLETED, COMPLETED_AT);
@@ -0,0 +1,16 @@
+-- Columna de versión para el control de concurrencia optimista (@Version en Task).
+--
+-- Cada UPDATE de la aplicación incrementa VERSION, y las ediciones solo se
+-- aplican si la fila conserva la versión que se leyó (WHERE ID = ? AND VERSION = ?).
+-- Así dos usuarios que editan la misma tarea no se pisan y no se mantiene
+-- ningún bloqueo de fila mientras el formulario está abierto.
+--
+-- En Oracle 11g o superior, añadir una columna NOT NULL con DEFAULT solo
+-- modifica el diccionario: no reescribe las filas existentes ni bloquea la
+-- tabla más allá del instante del ALTER. Las filas actuales quedan en la versión 0.
+--
+-- Ejecutar antes de desplegar la nueva versión de la aplicación: una versión
+-- antigua sigue funcionando con la columna añadida, pero sus escrituras no
+-- incrementan la versión.
+
+ALTER TABLE TASKS ADD (VERSION NUMBER(19) DEFAULT 0 NOT NULL);
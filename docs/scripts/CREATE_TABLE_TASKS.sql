@@ -1,7 +1,8 @@
+-- INCREMENT BY debe coincidir con Task.ID_ALLOCATION_SIZE (optimizador pooled-lo)
 CREATE SEQUENCE TASKS_SEQ
     START WITH 1
-    INCREMENT BY 1
-    NOCACHE
+    INCREMENT BY 50
+    CACHE 20
     NOCYCLE;
 
 
@@ -11,12 +12,43 @@ CREATE TABLE TASKS (
     DESCRIPTION VARCHAR2(500),
     DUE_DATE DATE,
     COMPLETED NUMBER(1) DEFAULT 0,
-    CREATED_AT TIMESTAMP DEFAULT SYSTIMESTAMP
+    CREATED_AT TIMESTAMP DEFAULT SYSTIMESTAMP,
+    COMPLETED_AT TIMESTAMP,
+    VERSION NUMBER(19) DEFAULT 0 NOT NULL
 );
 
-CREATE INDEX IDX_TASKS_COMPLETED ON TASKS(COMPLETED);
+-- Índices secundarios. Cada uno sirve consultas que ningún otro resuelve:
+-- no se crean índices que sean prefijo de otro (IDX_TASKS_PENDING_ORDER ya
+-- sirve COMPLETED = ?, IDX_TASKS_CREATED_ID ya sirve los rangos de CREATED_AT).
+-- En una base de datos existente, DROP_INDEX_TASKS_REDUNDANTES.sql deja este
+-- mismo conjunto.
 
-CREATE INDEX IDX_TASKS_CREATED_AT ON TASKS(CREATED_AT);
+-- Listado general y paginación por cursor (ORDER BY CREATED_AT DESC, ID DESC,
+-- buscarDespuesDe), orden por fecha de creación y filtro por rango de creación
+-- de la tabla
+CREATE INDEX IDX_TASKS_CREATED_ID ON TASKS(CREATED_AT DESC, ID DESC);
 
+-- Filtro por rango de vencimiento y orden por fecha límite de la tabla
 CREATE INDEX IDX_TASKS_DUE_DATE ON TASKS(DUE_DATE);
 
+-- Tareas pendientes y su paginación por cursor (COMPLETED = 0 ORDER BY
+-- DUE_DATE ASC, CREATED_AT DESC, ID DESC), filtro por estado de la tabla y
+-- recuento por estado (GROUP BY COMPLETED, sin leer la tabla)
+CREATE INDEX IDX_TASKS_PENDING_ORDER ON TASKS(COMPLETED, DUE_DATE, CREATED_AT DESC, ID DESC);
+
+-- Purga (COMPLETED = 1 AND CREATED_AT < :limite) y tareas completadas por
+-- antigüedad (COMPLETED = 1 ORDER BY CREATED_AT DESC, buscarCompletadasDespuesDe)
+CREATE INDEX IDX_TASKS_COMPLETED_CREATED ON TASKS(COMPLETED, CREATED_AT);
+
+-- Archivo de completadas (COMPLETED = 1 AND COMPLETED_AT < :limite)
+CREATE INDEX IDX_TASKS_COMPLETED_AT ON TASKS(COMPLETED, COMPLETED_AT);
+
+-- Filtro por prefijo del título sin distinguir mayúsculas (UPPER(TITLE) LIKE 'ABC%')
+-- y orden por título de la tabla (ORDER BY UPPER(TITLE), ID DESC)
+CREATE INDEX IDX_TASKS_TITLE_UPPER ON TASKS(UPPER(TITLE), ID DESC);
+
+-- Filtro por estado y prefijo del título (COMPLETED = ? AND UPPER(TITLE) LIKE 'ABC%')
+CREATE INDEX IDX_TASKS_COMPLETED_TITLE ON TASKS(COMPLETED, UPPER(TITLE));
+
+
+-- La tabla de archivo TASKS_ARCHIVE se crea con CREATE_TABLE_TASKS_ARCHIVE.sql
@@ -0,0 +1,23 @@
+-- Tabla fría de tareas completadas (ArchivedTask).
+--
+-- TaskArchiver mueve aquí por bloques, con INSERT ... SELECT y DELETE en la
+-- misma transacción, las tareas completadas hace más de los días indicados en
+-- el parámetro de contexto ARCHIVO_DIAS. Las filas conservan el ID y la
+-- versión que tenían en TASKS y no se modifican después.
+--
+-- Las consultas normales de la aplicación solo leen TASKS; esta tabla solo
+-- la consultan las búsquedas "incluyendo archivo". Por eso solo tiene el
+-- índice de la ordenación de esas búsquedas.
+
+CREATE TABLE TASKS_ARCHIVE (
+    ID NUMBER PRIMARY KEY,
+    TITLE VARCHAR2(100) NOT NULL,
+    DESCRIPTION VARCHAR2(500),
+    DUE_DATE DATE,
+    CREATED_AT TIMESTAMP,
+    COMPLETED_AT TIMESTAMP,
+    VERSION NUMBER(19) NOT NULL,
+    ARCHIVED_AT TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IDX_TASKS_ARCHIVE_CREATED_ID ON TASKS_ARCHIVE(CREATED_AT DESC, ID DESC);
@@ -0,0 +1,27 @@
+-- Elimina los índices de TASKS que otro índice ya cubre y deja el conjunto
+-- de CREATE_TABLE_TASKS.sql, donde se indica qué consultas sirve cada uno.
+--
+-- - IDX_TASKS_COMPLETED (COMPLETED) es prefijo de IDX_TASKS_PENDING_ORDER,
+--   IDX_TASKS_COMPLETED_CREATED e IDX_TASKS_COMPLETED_AT.
+-- - IDX_TASKS_CREATED_AT (CREATED_AT) lo cubre IDX_TASKS_CREATED_ID
+--   (CREATED_AT DESC, ID DESC), que también sirve los rangos de creación.
+-- - IDX_TASKS_TITLE_ID (TITLE, ID DESC) solo servía el orden por título. La
+--   aplicación ordena ahora por UPPER(TITLE), así que ese orden lo sirve
+--   IDX_TASKS_TITLE_UPPER, que se recrea como (UPPER(TITLE), ID DESC) para
+--   cubrir también el desempate por ID.
+--
+-- Cada índice de menos es una entrada menos que mantener en cada INSERT,
+-- UPDATE de estado y DELETE. Ejecutar después de desplegar la versión de la
+-- aplicación que ordena por UPPER(TITLE). Para comprobar antes los planes sin
+-- perder los índices, se pueden marcar como invisibles
+-- (ALTER INDEX ... INVISIBLE) durante un tiempo y eliminarlos después.
+
+DROP INDEX IDX_TASKS_COMPLETED;
+
+DROP INDEX IDX_TASKS_CREATED_AT;
+
+DROP INDEX IDX_TASKS_TITLE_ID;
+
+DROP INDEX IDX_TASKS_TITLE_UPPER;
+
+CREATE INDEX IDX_TASKS_TITLE_UPPER ON TASKS(UPPER(TITLE), ID DESC) ONLINE;
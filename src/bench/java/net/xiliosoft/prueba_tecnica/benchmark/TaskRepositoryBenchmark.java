@@ -0,0 +1,227 @@
+package net.xiliosoft.prueba_tecnica.benchmark;
+
+import net.xiliosoft.prueba_tecnica.H2TestSupport;
+import net.xiliosoft.prueba_tecnica.model.Task;
+import net.xiliosoft.prueba_tecnica.model.TaskFilter;
+import net.xiliosoft.prueba_tecnica.model.TaskStatusCounts;
+import net.xiliosoft.prueba_tecnica.model.TaskSummary;
+import net.xiliosoft.prueba_tecnica.repository.TaskRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks de {@link TaskRepository} contra H2 en memoria en modo Oracle,
+ * con el dialecto de Oracle de producción, para varios tamaños de tabla.
+ *
+ * Cada operación se ejecuta en su propia transacción y con el contexto de
+ * persistencia vacío, como en una petición. Las escrituras hacen crecer la
+ * tabla durante la medida; con los tamaños usados la diferencia es pequeña.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskRepositoryBenchmark {
+
+    private static final int TAMANO_LOTE_CARGA = 1000;
+    private static final int ENTIDADES_CONTEXTO = 10_000;
+
+    @Param({"1000", "10000", "100000"})
+    private int tareas;
+
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private TaskRepository repository;
+    private long primerId;
+    private long ultimoId;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        Map<String, Object> propiedades = new HashMap<>();
+        propiedades.put("javax.persistence.jdbc.url",
+                "jdbc:h2:mem:benchmark" + tareas + ";MODE=Oracle;DB_CLOSE_DELAY=-1");
+        propiedades.put("hibernate.dialect", "org.hibernate.dialect.Oracle12cDialect");
+        propiedades.put("hibernate.hbm2ddl.auto", "create-only");
+        // Como en producción: sin leer metadatos de Oracle (ALL_SEQUENCES) que H2 no tiene
+        propiedades.put("hibernate.temp.use_jdbc_metadata_defaults", "false");
+        propiedades.put("hibernate.jdbc.batch_size", "50");
+        propiedades.put("hibernate.order_inserts", "true");
+        emf = Persistence.createEntityManagerFactory(H2TestSupport.PRINCIPAL, propiedades);
+        em = emf.createEntityManager();
+
+        repository = H2TestSupport.crearRepositorio(em);
+
+        for (int cargadas = 0; cargadas < tareas; cargadas += TAMANO_LOTE_CARGA) {
+            List<Task> lote = new ArrayList<>();
+            for (int i = cargadas; i < Math.min(tareas, cargadas + TAMANO_LOTE_CARGA); i++) {
+                lote.add(tarea("Tarea " + i, i % 3 == 0 ? 1 : 0));
+            }
+            enTransaccion(() -> {
+                repository.crearLote(lote);
+                return null;
+            });
+        }
+        primerId = em.createQuery("SELECT MIN(t.id) FROM Task t", Long.class).getSingleResult();
+        ultimoId = em.createQuery("SELECT MAX(t.id) FROM Task t", Long.class).getSingleResult();
+        em.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        em.close();
+        emf.close();
+    }
+
+    @Benchmark
+    public Task crear() {
+        return enTransaccion(() -> repository.crear(tarea("Nueva tarea", 0)));
+    }
+
+    @Benchmark
+    public Task buscarPorId() {
+        em.clear();
+        return repository.buscarPorId(idAleatorio());
+    }
+
+    @Benchmark
+    public List<TaskSummary> buscarTodas() {
+        return repository.buscarTodas();
+    }
+
+    @Benchmark
+    public List<TaskSummary> buscarCompletadas() {
+        return repository.buscarCompletadas();
+    }
+
+    @Benchmark
+    public List<TaskSummary> buscarPendientes() {
+        return repository.buscarPendientes();
+    }
+
+    @Benchmark
+    public List<TaskSummary> buscarPrimeraPagina() {
+        return repository.buscarPagina(new TaskFilter(), 0, 25, "title", true);
+    }
+
+    @Benchmark
+    public TaskStatusCounts contarPorEstado() {
+        return repository.contarPorEstado(new Date());
+    }
+
+    @Benchmark
+    public int cambiarEstado() {
+        int estado = ThreadLocalRandom.current().nextInt(2);
+        return enTransaccion(() -> repository.actualizarEstado(Collections.singletonList(idAleatorio()), estado));
+    }
+
+    @Benchmark
+    public boolean eliminar(TareaParaEliminar tarea) {
+        return enTransaccion(() -> repository.eliminar(tarea.id));
+    }
+
+    /**
+     * Flush de un contexto de persistencia con muchas entidades gestionadas y
+     * una sola modificada; con el seguimiento de cambios en línea no se compara
+     * cada entidad con su copia.
+     */
+    @Benchmark
+    public void flushContextoGrande(ContextoGrande contexto) {
+        contexto.tareas.get(0).setTitle("Modificada " + System.nanoTime());
+        em.flush();
+    }
+
+    /**
+     * Transacción abierta con hasta {@value #ENTIDADES_CONTEXTO} tareas cargadas,
+     * preparada fuera de la medida y deshecha después de cada llamada.
+     */
+    @State(Scope.Thread)
+    public static class ContextoGrande {
+
+        private List<Task> tareas;
+
+        @Setup(Level.Invocation)
+        public void cargar(TaskRepositoryBenchmark benchmark) {
+            benchmark.em.getTransaction().begin();
+            tareas = benchmark.em.createQuery("SELECT t FROM Task t", Task.class)
+                    .setMaxResults(ENTIDADES_CONTEXTO)
+                    .getResultList();
+        }
+
+        @TearDown(Level.Invocation)
+        public void deshacer(TaskRepositoryBenchmark benchmark) {
+            benchmark.em.getTransaction().rollback();
+            benchmark.em.clear();
+        }
+    }
+
+    /**
+     * Tarea nueva para cada llamada a {@link #eliminar(TareaParaEliminar)}, creada fuera de la medida.
+     */
+    @State(Scope.Thread)
+    public static class TareaParaEliminar {
+
+        private Long id;
+
+        @Setup(Level.Invocation)
+        public void crear(TaskRepositoryBenchmark benchmark) {
+            id = benchmark.enTransaccion(() -> benchmark.repository.crear(tarea("Para eliminar", 1))).getId();
+        }
+    }
+
+    private <T> T enTransaccion(Supplier<T> operacion) {
+        em.getTransaction().begin();
+        try {
+            T resultado = operacion.get();
+            em.getTransaction().commit();
+            return resultado;
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.clear();
+        }
+    }
+
+    private long idAleatorio() {
+        return ThreadLocalRandom.current().nextLong(primerId, ultimoId + 1);
+    }
+
+    private static Task tarea(String titulo, int completada) {
+        Task task = new Task();
+        task.setTitle(titulo);
+        task.setDescription("Descripción de " + titulo);
+        task.setDueDate(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(7)));
+        task.setCompleted(completada);
+        task.setCreatedAt(new Date());
+        return task;
+    }
+}
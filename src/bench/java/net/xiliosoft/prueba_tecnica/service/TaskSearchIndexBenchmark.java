@@ -0,0 +1,71 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import net.xiliosoft.prueba_tecnica.model.TaskSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de la búsqueda en memoria que usa {@link TaskService#buscar(String, int)}
+ * en lugar de consultar la base de datos, para varios tamaños de tabla.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskSearchIndexBenchmark {
+
+    private static final String[] PALABRAS = {"informe", "reunión", "presupuesto", "cliente", "revisar",
+        "llamar", "enviar", "factura", "proyecto", "equipo", "entrega", "pedido"};
+
+    @Param({"1000", "10000", "100000"})
+    private int tareas;
+
+    private TaskSearchIndex indice;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        List<TaskSummary> origen = new ArrayList<>();
+        for (int i = 0; i < tareas; i++) {
+            String titulo = PALABRAS[i % PALABRAS.length] + " " + PALABRAS[(i / 7) % PALABRAS.length] + " " + i;
+            String descripcion = "Pendiente de " + PALABRAS[(i / 3) % PALABRAS.length];
+            origen.add(new TaskSummary((long) i + 1, titulo, descripcion, null, i % 2, new Date(i)));
+        }
+        indice = new TaskSearchIndex();
+        indice.reconstruir(consumidor -> origen.forEach(consumidor));
+    }
+
+    @Benchmark
+    public List<Long> buscarUnTermino() {
+        return indice.buscar("presupuesto", 20);
+    }
+
+    @Benchmark
+    public List<Long> buscarPrefijo() {
+        return indice.buscar("re", 20);
+    }
+
+    @Benchmark
+    public List<Long> buscarVariosTerminos() {
+        return indice.buscar("informe cliente", 20);
+    }
+}
@@ -1,13 +0,0 @@
-package net.xiliosoft.prueba_tecnica;
-
-/**
- * Hello world!
- *
- */
-public class App 
-{
-    public static void main( String[] args )
-    {
-        System.out.println( "Hello World!" );
-    }
-}
@@ -1,31 +1,39 @@
 package net.xiliosoft.prueba_tecnica.controller;
 
-import javax.annotation.PostConstruct;
+import net.xiliosoft.prueba_tecnica.service.DatabaseHealth;
+import net.xiliosoft.prueba_tecnica.service.DatabaseHealthMonitor;
+
 import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
 import javax.inject.Named;
-import javax.persistence.EntityManager;
-import javax.persistence.PersistenceContext;
 
+/**
+ * Estado de la conexión a la base de datos para la pantalla de inicio.
+ * Muestra el resultado de la última comprobación de {@link DatabaseHealthMonitor};
+ * no consulta la base de datos.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
 @Named
 @RequestScoped
 public class DatabaseStatusBean {
 
-    @PersistenceContext(unitName = "prueba-tecnica")
-    private EntityManager em;
-
-    private String statusMessage;
+    @Inject
+    private DatabaseHealthMonitor monitor;
 
-    @PostConstruct
-    public void init() {
-        try {
-            em.createNativeQuery("SELECT 1 FROM DUAL").getSingleResult();
-            statusMessage = "✅ Conexión a la base de datos: EXITOSA";
-        } catch (RuntimeException e) {
-            statusMessage = "❌ Error de conexión a la base de datos: " + e.getMessage();
+    public String getStatusMessage() {
+        DatabaseHealth.Estado estado = monitor.getPrincipal();
+        if (!estado.isComprobada()) {
+            return "⏳ Comprobando la conexión a la base de datos...";
         }
+        if (estado.isDisponible()) {
+            return "✅ Conexión a la base de datos: EXITOSA";
+        }
+        return "❌ Error de conexión a la base de datos: " + estado.getUltimoError();
     }
 
-    public String getStatusMessage() {
-        return statusMessage;
+    public DatabaseHealth.Estado getPrincipal() {
+        return monitor.getPrincipal();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,59 @@
+package net.xiliosoft.prueba_tecnica.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import net.xiliosoft.prueba_tecnica.service.DatabaseHealthMonitor;
+
+import javax.inject.Inject;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Comprobaciones de salud para el balanceador o el orquestador. Responden con
+ * el último resultado de {@link DatabaseHealthMonitor}, sin acceder a la base de datos.
+ *
+ * <ul>
+ *   <li>GET /health/live: 200 mientras la aplicación responde.</li>
+ *   <li>GET /health/ready: 200 si la base de datos principal responde, 503 si no;
+ *       el cuerpo incluye el estado de la principal y de la réplica.</li>
+ * </ul>
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@WebServlet(urlPatterns = {"/health/live", "/health/ready"})
+public class HealthServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ObjectMapper JSON = new ObjectMapper()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Inject
+    private DatabaseHealthMonitor monitor;
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader("Cache-Control", "no-store");
+        response.setCharacterEncoding("UTF-8");
+        if ("/health/live".equals(request.getServletPath())) {
+            response.setContentType("text/plain");
+            response.getWriter().write("UP");
+            return;
+        }
+
+        boolean lista = monitor.isLista();
+        Map<String, Object> cuerpo = new LinkedHashMap<>();
+        cuerpo.put("estado", lista ? "UP" : "DOWN");
+        cuerpo.put("principal", monitor.getPrincipal());
+        cuerpo.put("replica", monitor.getReplica());
+        response.setStatus(lista ? HttpServletResponse.SC_OK : HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setContentType("application/json");
+        JSON.writeValue(response.getOutputStream(), cuerpo);
+    }
+}
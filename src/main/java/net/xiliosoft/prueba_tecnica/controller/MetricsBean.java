@@ -0,0 +1,66 @@
+package net.xiliosoft.prueba_tecnica.controller;
+
+import net.xiliosoft.prueba_tecnica.repository.HibernateMetrics;
+import net.xiliosoft.prueba_tecnica.service.DatabaseHealth;
+import net.xiliosoft.prueba_tecnica.service.DatabaseHealthMonitor;
+import net.xiliosoft.prueba_tecnica.service.LatencyHistogram;
+import net.xiliosoft.prueba_tecnica.service.LatencyMetrics;
+import net.xiliosoft.prueba_tecnica.service.TaskStatusWriteBehind;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Datos de la página de métricas (metrics.xhtml): latencias por operación,
+ * estadísticas de Hibernate, salud de las bases de datos y estado de la
+ * escritura diferida. Los mismos
+ * valores se publican para Prometheus en /metrics.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@Named
+@RequestScoped
+public class MetricsBean {
+
+    @Inject
+    private LatencyMetrics latencias;
+
+    @Inject
+    private HibernateMetrics hibernate;
+
+    @Inject
+    private TaskStatusWriteBehind escrituraDiferida;
+
+    @Inject
+    private DatabaseHealthMonitor salud;
+
+    private List<LatencyHistogram.Snapshot> operaciones;
+    private List<HibernateMetrics.Resumen> unidades;
+
+    @PostConstruct
+    public void init() {
+        operaciones = latencias.instantaneas();
+        unidades = hibernate.resumenes();
+    }
+
+    public List<LatencyHistogram.Snapshot> getOperaciones() {
+        return operaciones;
+    }
+
+    public List<HibernateMetrics.Resumen> getUnidades() {
+        return unidades;
+    }
+
+    public List<DatabaseHealth.Estado> getBasesDeDatos() {
+        return Arrays.asList(salud.getPrincipal(), salud.getReplica());
+    }
+
+    public TaskStatusWriteBehind getEscrituraDiferida() {
+        return escrituraDiferida;
+    }
+}
@@ -0,0 +1,147 @@
+package net.xiliosoft.prueba_tecnica.controller;
+
+import net.xiliosoft.prueba_tecnica.repository.HibernateMetrics;
+import net.xiliosoft.prueba_tecnica.service.DatabaseHealth;
+import net.xiliosoft.prueba_tecnica.service.DatabaseHealthMonitor;
+import net.xiliosoft.prueba_tecnica.service.LatencyHistogram;
+import net.xiliosoft.prueba_tecnica.service.LatencyMetrics;
+import net.xiliosoft.prueba_tecnica.service.TaskStatusWriteBehind;
+
+import javax.inject.Inject;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Métricas de la aplicación en el formato de texto de Prometheus.
+ *
+ * Uso: GET /metrics
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@WebServlet(urlPatterns = "/metrics")
+public class MetricsServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String PREFIJO = "prueba_tecnica_";
+
+    @Inject
+    private LatencyMetrics latencias;
+
+    @Inject
+    private HibernateMetrics hibernate;
+
+    @Inject
+    private TaskStatusWriteBehind escrituraDiferida;
+
+    @Inject
+    private DatabaseHealthMonitor salud;
+
+    @Inject
+    private ViewWarmup precalentamiento;
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType("text/plain; version=0.0.4");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        PrintWriter salida = response.getWriter();
+
+        List<LatencyHistogram.Snapshot> operaciones = latencias.instantaneas();
+        cabecera(salida, "operacion_segundos", "summary", "Duración de las operaciones de servicio y repositorio");
+        for (LatencyHistogram.Snapshot operacion : operaciones) {
+            String etiqueta = "operacion=\"" + escapar(operacion.getOperacion()) + "\"";
+            muestra(salida, "operacion_segundos", etiqueta + ",quantile=\"0.5\"", operacion.getP50() / 1000);
+            muestra(salida, "operacion_segundos", etiqueta + ",quantile=\"0.99\"", operacion.getP99() / 1000);
+            muestra(salida, "operacion_segundos", etiqueta + ",quantile=\"0.999\"", operacion.getP999() / 1000);
+            muestra(salida, "operacion_segundos_sum", etiqueta, operacion.getTotalNanos() / 1e9);
+            muestra(salida, "operacion_segundos_count", etiqueta, operacion.getLlamadas());
+        }
+        cabecera(salida, "operacion_errores_total", "counter", "Operaciones terminadas con excepción");
+        for (LatencyHistogram.Snapshot operacion : operaciones) {
+            muestra(salida, "operacion_errores_total",
+                    "operacion=\"" + escapar(operacion.getOperacion()) + "\"", operacion.getErrores());
+        }
+
+        List<HibernateMetrics.Resumen> unidades = hibernate.resumenes();
+        contador(salida, unidades, "hibernate_consultas_total", "Consultas ejecutadas por Hibernate",
+                HibernateMetrics.Resumen::getConsultas);
+        contador(salida, unidades, "hibernate_sentencias_total", "Sentencias JDBC preparadas",
+                HibernateMetrics.Resumen::getSentencias);
+        contador(salida, unidades, "hibernate_entidades_cargadas_total", "Entidades cargadas",
+                HibernateMetrics.Resumen::getEntidadesCargadas);
+        contador(salida, unidades, "hibernate_cache_aciertos_total", "Aciertos de la caché de segundo nivel",
+                HibernateMetrics.Resumen::getAciertosCache);
+        contador(salida, unidades, "hibernate_cache_fallos_total", "Fallos de la caché de segundo nivel",
+                HibernateMetrics.Resumen::getFallosCache);
+
+        List<DatabaseHealth.Estado> bases = Arrays.asList(salud.getPrincipal(), salud.getReplica());
+        cabecera(salida, "bd_disponible", "gauge", "1 si la última comprobación de la base de datos fue correcta");
+        for (DatabaseHealth.Estado base : bases) {
+            muestra(salida, "bd_disponible", "unidad=\"" + base.getNombre() + "\"", base.isDisponible() ? 1 : 0);
+        }
+        cabecera(salida, "bd_comprobacion_segundos", "gauge", "Duración de la última comprobación");
+        for (DatabaseHealth.Estado base : bases) {
+            muestra(salida, "bd_comprobacion_segundos", "unidad=\"" + base.getNombre() + "\"",
+                    base.getLatencia() / 1000);
+        }
+        cabecera(salida, "bd_conexiones_en_uso", "gauge", "Conexiones del pool prestadas");
+        for (DatabaseHealth.Estado base : bases) {
+            if (base.getPool() != null) {
+                muestra(salida, "bd_conexiones_en_uso", "unidad=\"" + base.getNombre() + "\"",
+                        base.getPool().getEnUso());
+            }
+        }
+
+        if (precalentamiento.getPrimeraPaginaMilisegundos() >= 0) {
+            cabecera(salida, "arranque_primera_pagina_segundos", "gauge",
+                    "Tiempo desde el inicio de la JVM hasta la primera página servida");
+            muestra(salida, "arranque_primera_pagina_segundos", null,
+                    precalentamiento.getPrimeraPaginaMilisegundos() / 1000.0);
+        }
+
+        cabecera(salida, "escritura_diferida_cola", "gauge", "Cambios de estado pendientes de escribir");
+        muestra(salida, "escritura_diferida_cola", null, escrituraDiferida.getProfundidadCola());
+        cabecera(salida, "escritura_diferida_escritos_total", "counter", "Cambios de estado escritos");
+        muestra(salida, "escritura_diferida_escritos_total", null, escrituraDiferida.getCambiosEscritos());
+        cabecera(salida, "escritura_diferida_combinados_total", "counter", "Cambios absorbidos por otro posterior");
+        muestra(salida, "escritura_diferida_combinados_total", null, escrituraDiferida.getCambiosCombinados());
+        cabecera(salida, "escritura_diferida_fallos_total", "counter", "Vaciados fallidos");
+        muestra(salida, "escritura_diferida_fallos_total", null, escrituraDiferida.getVaciadosFallidos());
+        salida.flush();
+    }
+
+    private static void contador(PrintWriter salida, List<HibernateMetrics.Resumen> unidades, String nombre,
+                                 String ayuda, ToLongFunction<HibernateMetrics.Resumen> valor) {
+        cabecera(salida, nombre, "counter", ayuda);
+        for (HibernateMetrics.Resumen unidad : unidades) {
+            muestra(salida, nombre, "unidad=\"" + unidad.getUnidad() + "\"", valor.applyAsLong(unidad));
+        }
+    }
+
+    private static void cabecera(PrintWriter salida, String nombre, String tipo, String ayuda) {
+        salida.append("# HELP ").append(PREFIJO).append(nombre).append(' ').append(ayuda).append('\n');
+        salida.append("# TYPE ").append(PREFIJO).append(nombre).append(' ').append(tipo).append('\n');
+    }
+
+    private static void muestra(PrintWriter salida, String nombre, String etiquetas, double valor) {
+        salida.append(PREFIJO).append(nombre);
+        if (etiquetas != null) {
+            salida.append('{').append(etiquetas).append('}');
+        }
+        salida.append(' ').append(valor == Math.rint(valor) ? Long.toString((long) valor) : Double.toString(valor))
+                .append('\n');
+    }
+
+    private static String escapar(String valor) {
+        return valor.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
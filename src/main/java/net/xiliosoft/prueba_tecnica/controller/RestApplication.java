@@ -0,0 +1,42 @@
+package net.xiliosoft.prueba_tecnica.controller;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+import com.fasterxml.jackson.jaxrs.json.JacksonJsonProvider;
+
+import javax.ws.rs.ApplicationPath;
+import javax.ws.rs.core.Application;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Configuración de la API REST, publicada bajo /api.
+ *
+ * Registra un proveedor JSON con el Jackson de la aplicación para que las
+ * fechas se escriban en ISO-8601, igual que en la exportación.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@ApplicationPath("api")
+public class RestApplication extends Application {
+
+    @Override
+    public Set<Class<?>> getClasses() {
+        return Collections.<Class<?>>singleton(TaskResource.class);
+    }
+
+    @Override
+    public Set<Object> getSingletons() {
+        return Collections.<Object>singleton(new JacksonJsonProvider(configurar(new ObjectMapper())));
+    }
+
+    private static ObjectMapper configurar(ObjectMapper mapper) {
+        mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        mapper.setDateFormat(new StdDateFormat().withColonInTimeZone(true));
+        return mapper;
+    }
+}
@@ -1,8 +1,15 @@
 package net.xiliosoft.prueba_tecnica.controller;
 
 import net.xiliosoft.prueba_tecnica.model.Task;
+import net.xiliosoft.prueba_tecnica.model.TaskFilter;
+import net.xiliosoft.prueba_tecnica.model.TaskSummary;
+import net.xiliosoft.prueba_tecnica.model.TaskStatusCounts;
+import net.xiliosoft.prueba_tecnica.service.TaskConflictException;
+import net.xiliosoft.prueba_tecnica.service.TaskConflictRetry;
 import net.xiliosoft.prueba_tecnica.service.TaskService;
-import org.apache.log4j.Logger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.primefaces.model.LazyDataModel;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.RequestScoped;
@@ -10,7 +17,9 @@ import javax.faces.application.FacesMessage;
 import javax.faces.context.FacesContext;
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Managed Bean JSF para la gestión de tareas.
@@ -23,13 +32,23 @@ import java.util.List;
 @RequestScoped
 public class TaskBean {
 
-    private static final Logger logger = Logger.getLogger(TaskBean.class);
+    private static final Logger logger = LoggerFactory.getLogger(TaskBean.class);
+
+    /**
+     * Número de resultados mostrados en la búsqueda.
+     */
+    private static final int LIMITE_BUSQUEDA = 20;
 
     @Inject
     private TaskService taskService;
 
     private Task task;
-    private List<Task> tasks;
+    private LazyDataModel<TaskSummary> tasks;
+    private List<TaskSummary> seleccionadas = new ArrayList<>();
+    private TaskStatusCounts resumen;
+    private TaskFilter filtro = new TaskFilter();
+    private String textoBusqueda;
+    private List<TaskSummary> resultadosBusqueda = new ArrayList<>();
 
     /**
      * Inicializa el bean después de la construcción.
@@ -43,8 +62,8 @@ public class TaskBean {
             nuevaTarea();
         } catch (Exception e) {
             logger.error("Error al inicializar TaskBean", e);
-            // Inicializar lista vacía para evitar NullPointerException
-            tasks = new java.util.ArrayList<>();
+            // Inicializar el modelo para evitar NullPointerException
+            tasks = new TaskLazyDataModel(taskService, filtro);
             nuevaTarea();
             agregarMensaje("Error al cargar las tareas: " + e.getMessage(), FacesMessage.SEVERITY_ERROR);
         }
@@ -60,12 +79,13 @@ public class TaskBean {
     }
 
     /**
-     * Carga todas las tareas del sistema.
+     * Prepara el modelo perezoso de la tabla de tareas.
+     * Las filas se consultan página a página cuando la tabla se renderiza.
      */
     public void cargarTareas() {
-        logger.debug("Cargando lista de tareas");
-        tasks = taskService.buscarTodasLasTareas();
-        logger.debug("Tareas cargadas: " + (tasks != null ? tasks.size() : 0));
+        logger.debug("Preparando modelo paginado de tareas");
+        tasks = new TaskLazyDataModel(taskService, filtro);
+        resumen = null;
     }
 
     /**
@@ -75,7 +95,7 @@ public class TaskBean {
      */
     public String guardar() {
         try {
-            logger.info("Guardando tarea: " + task.getTitle());
+            logger.debug("Guardando tarea: {}", task.getTitle());
             
             // Validaciones
             if (task.getTitle() == null || task.getTitle().trim().isEmpty()) {
@@ -87,19 +107,32 @@ public class TaskBean {
             if (task.getId() == null) {
                 taskService.crearTarea(task);
                 agregarMensaje("Tarea creada exitosamente", FacesMessage.SEVERITY_INFO);
-                logger.info("Tarea creada exitosamente");
+                logger.debug("Tarea creada exitosamente");
             } else {
                 taskService.actualizarTarea(task);
                 agregarMensaje("Tarea actualizada exitosamente", FacesMessage.SEVERITY_INFO);
-                logger.info("Tarea actualizada exitosamente");
+                logger.debug("Tarea actualizada exitosamente");
             }
 
             cargarTareas();
             nuevaTarea();
             // Retornar null para quedarse en la misma página (el update del botón maneja la actualización)
             return null;
+        } catch (TaskConflictException e) {
+            logger.warn(e.getMessage());
+            cargarTareas();
+            if (e.isEliminada()) {
+                nuevaTarea();
+                agregarMensaje("Otro usuario ha eliminado la tarea mientras la editabas", FacesMessage.SEVERITY_WARN);
+            } else {
+                cargarTarea(e.getId());
+                agregarMensaje("Otro usuario ha modificado la tarea mientras la editabas. "
+                        + "Se han cargado los datos actuales; repite los cambios y guarda de nuevo",
+                        FacesMessage.SEVERITY_WARN);
+            }
+            return null;
         } catch (Exception e) {
-            logger.error("Error al guardar tarea: " + task.getTitle(), e);
+            logger.error("Error al guardar tarea: {}", task.getTitle(), e);
             agregarMensaje("Error al guardar: " + e.getMessage(), FacesMessage.SEVERITY_ERROR);
             return null;
         }
@@ -112,62 +145,138 @@ public class TaskBean {
      */
     public void eliminar(Long id) {
         try {
-            logger.info("Eliminando tarea con ID: " + id);
-            taskService.eliminarTarea(id);
-            agregarMensaje("Tarea eliminada exitosamente", FacesMessage.SEVERITY_INFO);
+            logger.debug("Eliminando tarea con ID: {}", id);
+            if (taskService.eliminarTarea(id)) {
+                agregarMensaje("Tarea eliminada exitosamente", FacesMessage.SEVERITY_INFO);
+                logger.debug("Tarea eliminada exitosamente");
+            } else {
+                agregarMensaje("La tarea ya no existe", FacesMessage.SEVERITY_WARN);
+            }
             cargarTareas();
-            logger.info("Tarea eliminada exitosamente");
         } catch (Exception e) {
-            logger.error("Error al eliminar tarea con ID: " + id, e);
+            logger.error("Error al eliminar tarea con ID: {}", id, e);
             agregarMensaje("Error al eliminar: " + e.getMessage(), FacesMessage.SEVERITY_ERROR);
         }
     }
 
     /**
      * Marca una tarea como completada.
+     * Con la escritura diferida activa el cambio se encola y se escribe en segundo plano.
      * 
      * @param id El ID de la tarea a marcar como completada
      */
     public void marcarCompletada(Long id) {
         try {
-            logger.info("Marcando tarea como completada, ID: " + id);
-            taskService.marcarComoCompletada(id);
-            agregarMensaje("Tarea marcada como completada", FacesMessage.SEVERITY_INFO);
+            logger.debug("Marcando tarea como completada, ID: {}", id);
+            if (taskService.encolarCambioDeEstado(id, 1)
+                    || TaskConflictRetry.reintentar(() -> taskService.marcarComoCompletada(id))) {
+                agregarMensaje("Tarea marcada como completada", FacesMessage.SEVERITY_INFO);
+            } else {
+                agregarMensaje("La tarea ya estaba completada o no existe", FacesMessage.SEVERITY_WARN);
+            }
             cargarTareas();
         } catch (Exception e) {
-            logger.error("Error al marcar tarea como completada, ID: " + id, e);
+            logger.error("Error al marcar tarea como completada, ID: {}", id, e);
             agregarMensaje("Error al marcar como completada: " + e.getMessage(), FacesMessage.SEVERITY_ERROR);
         }
     }
 
     /**
      * Marca una tarea como pendiente.
+     * Con la escritura diferida activa el cambio se encola y se escribe en segundo plano.
      * 
      * @param id El ID de la tarea a marcar como pendiente
      */
     public void marcarPendiente(Long id) {
         try {
-            logger.info("Marcando tarea como pendiente, ID: " + id);
-            taskService.marcarComoPendiente(id);
-            agregarMensaje("Tarea marcada como pendiente", FacesMessage.SEVERITY_INFO);
+            logger.debug("Marcando tarea como pendiente, ID: {}", id);
+            if (taskService.encolarCambioDeEstado(id, 0)
+                    || TaskConflictRetry.reintentar(() -> taskService.marcarComoPendiente(id))) {
+                agregarMensaje("Tarea marcada como pendiente", FacesMessage.SEVERITY_INFO);
+            } else {
+                agregarMensaje("La tarea ya estaba pendiente o no existe", FacesMessage.SEVERITY_WARN);
+            }
             cargarTareas();
         } catch (Exception e) {
-            logger.error("Error al marcar tarea como pendiente, ID: " + id, e);
+            logger.error("Error al marcar tarea como pendiente, ID: {}", id, e);
             agregarMensaje("Error al marcar como pendiente: " + e.getMessage(), FacesMessage.SEVERITY_ERROR);
         }
     }
 
+    /**
+     * Marca como completadas las tareas seleccionadas en la tabla.
+     */
+    public void completarSeleccionadas() {
+        try {
+            List<Long> ids = idsSeleccionados();
+            logger.debug("Marcando {} tareas seleccionadas como completadas", ids.size());
+            int modificadas = TaskConflictRetry.reintentar(() -> taskService.marcarVariasComoCompletadas(ids));
+            agregarMensaje(modificadas + " tareas marcadas como completadas", FacesMessage.SEVERITY_INFO);
+            seleccionadas = new ArrayList<>();
+            cargarTareas();
+        } catch (Exception e) {
+            logger.error("Error al marcar las tareas seleccionadas como completadas", e);
+            agregarMensaje("Error al marcar como completadas: " + e.getMessage(), FacesMessage.SEVERITY_ERROR);
+        }
+    }
+
+    /**
+     * Marca como pendientes las tareas seleccionadas en la tabla.
+     */
+    public void marcarSeleccionadasPendientes() {
+        try {
+            List<Long> ids = idsSeleccionados();
+            logger.debug("Marcando {} tareas seleccionadas como pendientes", ids.size());
+            int modificadas = TaskConflictRetry.reintentar(() -> taskService.marcarVariasComoPendientes(ids));
+            agregarMensaje(modificadas + " tareas marcadas como pendientes", FacesMessage.SEVERITY_INFO);
+            seleccionadas = new ArrayList<>();
+            cargarTareas();
+        } catch (Exception e) {
+            logger.error("Error al marcar las tareas seleccionadas como pendientes", e);
+            agregarMensaje("Error al marcar como pendientes: " + e.getMessage(), FacesMessage.SEVERITY_ERROR);
+        }
+    }
+
+    /**
+     * Quita los filtros de fechas de la tabla.
+     */
+    public void limpiarFiltros() {
+        filtro = new TaskFilter();
+        cargarTareas();
+    }
+
+    /**
+     * Busca tareas por el texto introducido en la caja de búsqueda.
+     */
+    public void buscar() {
+        try {
+            resultadosBusqueda = taskService.buscar(textoBusqueda, LIMITE_BUSQUEDA);
+        } catch (Exception e) {
+            logger.error("Error al buscar tareas: {}", textoBusqueda, e);
+            resultadosBusqueda = new ArrayList<>();
+            agregarMensaje("Error al buscar: " + e.getMessage(), FacesMessage.SEVERITY_ERROR);
+        }
+    }
+
+    private List<Long> idsSeleccionados() {
+        return seleccionadas == null ? new ArrayList<>()
+                : seleccionadas.stream().map(TaskSummary::getId).collect(Collectors.toList());
+    }
+
     /**
      * Carga una tarea específica para edición.
+     * Se lee de la base de datos principal; su versión viaja en el formulario
+     * y se comprueba al guardar.
      * 
      * @param id El ID de la tarea a cargar
      */
     public void cargarTarea(Long id) {
-        logger.debug("Cargando tarea con ID: " + id);
-        task = taskService.buscarTareaPorId(id);
+        logger.debug("Cargando tarea con ID: {}", id);
+        task = taskService.buscarTareaParaEditar(id);
         if (task == null) {
-            logger.warn("No se encontró la tarea con ID: " + id);
-            task = new Task();
+            logger.warn("No se encontró la tarea con ID: {}", id);
+            agregarMensaje("La tarea ya no existe", FacesMessage.SEVERITY_WARN);
+            nuevaTarea();
         }
     }
 
@@ -193,6 +302,22 @@ public class TaskBean {
     }
 
 
+    /**
+     * Obtiene los contadores del resumen, una sola vez por petición.
+     * 
+     * @return Contadores por estado o null si no se pudieron obtener
+     */
+    public TaskStatusCounts getResumen() {
+        if (resumen == null) {
+            try {
+                resumen = taskService.obtenerResumen();
+            } catch (Exception e) {
+                logger.error("Error al obtener el resumen de tareas", e);
+            }
+        }
+        return resumen;
+    }
+
     public Task getTask() {
         return task;
     }
@@ -201,12 +326,35 @@ public class TaskBean {
         this.task = task;
     }
 
-    public List<Task> getTasks() {
+    public LazyDataModel<TaskSummary> getTasks() {
         return tasks;
     }
 
-    public void setTasks(List<Task> tasks) {
+    public void setTasks(LazyDataModel<TaskSummary> tasks) {
         this.tasks = tasks;
     }
-}
 
+    public List<TaskSummary> getSeleccionadas() {
+        return seleccionadas;
+    }
+
+    public void setSeleccionadas(List<TaskSummary> seleccionadas) {
+        this.seleccionadas = seleccionadas;
+    }
+
+    public String getTextoBusqueda() {
+        return textoBusqueda;
+    }
+
+    public void setTextoBusqueda(String textoBusqueda) {
+        this.textoBusqueda = textoBusqueda;
+    }
+
+    public List<TaskSummary> getResultadosBusqueda() {
+        return resultadosBusqueda;
+    }
+
+    public TaskFilter getFiltro() {
+        return filtro;
+    }
+}
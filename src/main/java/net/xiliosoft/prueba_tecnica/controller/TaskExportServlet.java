@@ -0,0 +1,86 @@
+package net.xiliosoft.prueba_tecnica.controller;
+
+import net.xiliosoft.prueba_tecnica.service.TaskImportReader;
+import net.xiliosoft.prueba_tecnica.service.TaskService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Servlet de exportación de la tabla de tareas para informes.
+ * Escribe las tareas directamente en la respuesta a medida que se leen de la
+ * base de datos, con compresión gzip si el cliente la acepta.
+ *
+ * Uso: GET /export/tasks?format=json|csv[&amp;gzip=true]
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@WebServlet(urlPatterns = "/export/tasks")
+public class TaskExportServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskExportServlet.class);
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    @Inject
+    private TaskService taskService;
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        TaskImportReader.Formato formato;
+        try {
+            String parametro = request.getParameter("format");
+            formato = parametro == null ? TaskImportReader.Formato.JSON
+                    : TaskImportReader.Formato.valueOf(parametro.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Formato no soportado (json, csv)");
+            return;
+        }
+
+        // gzip=true descarga un fichero .gz; sin el parámetro se comprime en el transporte si el cliente lo acepta
+        String parametroGzip = request.getParameter("gzip");
+        boolean ficheroGzip = "true".equalsIgnoreCase(parametroGzip);
+        boolean transporteGzip = parametroGzip == null && aceptaGzip(request.getHeader("Accept-Encoding"));
+
+        String extension = formato == TaskImportReader.Formato.CSV ? "csv" : "json";
+        response.setContentType(ficheroGzip ? "application/gzip"
+                : formato == TaskImportReader.Formato.CSV ? "text/csv" : "application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition",
+                "attachment; filename=\"tasks." + extension + (ficheroGzip ? ".gz\"" : "\""));
+        response.setHeader("Vary", "Accept-Encoding");
+        if (transporteGzip) {
+            response.setHeader("Content-Encoding", "gzip");
+        }
+
+        OutputStream salida = new BufferedOutputStream(response.getOutputStream(), TAMANO_BUFFER);
+        if (ficheroGzip || transporteGzip) {
+            salida = new GZIPOutputStream(salida, TAMANO_BUFFER);
+        }
+        try {
+            taskService.exportarTareas(salida, formato);
+        } catch (IOException | RuntimeException e) {
+            // Con la respuesta ya comprometida solo se puede cortar la descarga
+            logger.error("Error durante la exportación de tareas", e);
+            throw e;
+        } finally {
+            salida.close();
+        }
+    }
+
+    private static boolean aceptaGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+}
@@ -0,0 +1,98 @@
+package net.xiliosoft.prueba_tecnica.controller;
+
+import net.xiliosoft.prueba_tecnica.model.TaskFilter;
+import net.xiliosoft.prueba_tecnica.model.TaskSummary;
+import net.xiliosoft.prueba_tecnica.service.TaskService;
+import org.primefaces.model.LazyDataModel;
+import org.primefaces.model.SortOrder;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Modelo de datos perezoso para la tabla de tareas.
+ * En cada render solo consulta a la base de datos la página visible
+ * y el total de filas, en lugar de cargar la tabla completa en memoria.
+ * Las filas son proyecciones {@link TaskSummary} de solo lectura. El filtrado
+ * y la ordenación se resuelven en la base de datos.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskLazyDataModel extends LazyDataModel<TaskSummary> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient TaskService taskService;
+
+    private final TaskFilter filtro;
+
+    private List<TaskSummary> paginaActual = Collections.emptyList();
+
+    /**
+     * Crea el modelo sobre el servicio de tareas.
+     *
+     * @param taskService Servicio usado para consultar las páginas
+     * @param filtro Filtros de la vista ajenos a las columnas (rangos de fechas);
+     *               se leen en cada carga
+     */
+    public TaskLazyDataModel(TaskService taskService, TaskFilter filtro) {
+        this.taskService = taskService;
+        this.filtro = filtro != null ? filtro : new TaskFilter();
+    }
+
+    /**
+     * Carga la página solicitada por la tabla.
+     *
+     * @param first Posición de la primera fila
+     * @param pageSize Tamaño de la página
+     * @param sortField Campo de ordenación indicado por la tabla
+     * @param sortOrder Sentido de la ordenación
+     * @param filters Filtros de columna de la tabla (título y estado)
+     * @return Tareas de la página
+     */
+    @Override
+    public List<TaskSummary> load(int first, int pageSize, String sortField, SortOrder sortOrder,
+                           Map<String, Object> filters) {
+        TaskFilter efectivo = filtro.conFiltrosDeTabla(filters);
+        long total = taskService.contarTareas(efectivo);
+        setRowCount((int) Math.min(total, Integer.MAX_VALUE));
+        if (total == 0) {
+            paginaActual = Collections.emptyList();
+            return paginaActual;
+        }
+        if (first >= total) {
+            // La página pedida ya no existe (p. ej. tras eliminar filas): volver a la última
+            first = (int) ((total - 1) / pageSize) * pageSize;
+        }
+        paginaActual = taskService.buscarTareasPaginadas(efectivo, first, pageSize, sortField,
+                sortOrder == SortOrder.ASCENDING);
+        return paginaActual;
+    }
+
+    @Override
+    public Object getRowKey(TaskSummary task) {
+        return task.getId();
+    }
+
+    /**
+     * Resuelve una fila seleccionada a partir de su clave.
+     * En un postback el modelo es nuevo y la página aún no se ha cargado; como
+     * la selección solo se usa para obtener IDs, se devuelve una proyección con el
+     * ID en lugar de consultarla a la base de datos.
+     */
+    @Override
+    public TaskSummary getRowData(String rowKey) {
+        for (TaskSummary task : paginaActual) {
+            if (String.valueOf(task.getId()).equals(rowKey)) {
+                return task;
+            }
+        }
+        try {
+            return new TaskSummary(Long.valueOf(rowKey), null, null, null, null, null);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package net.xiliosoft.prueba_tecnica.controller;
+
+import net.xiliosoft.prueba_tecnica.model.Task;
+import net.xiliosoft.prueba_tecnica.model.TaskSlice;
+import net.xiliosoft.prueba_tecnica.model.TaskSummary;
+import net.xiliosoft.prueba_tecnica.service.TaskConflictException;
+import net.xiliosoft.prueba_tecnica.service.TaskConflictRetry;
+import net.xiliosoft.prueba_tecnica.service.TaskService;
+import net.xiliosoft.prueba_tecnica.service.TaskVersionTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+/**
+ * API REST de tareas en JSON.
+ *
+ * Las respuestas de lectura llevan ETag y Last-Modified calculados con
+ * {@link TaskVersionTracker}; una petición con If-None-Match o
+ * If-Modified-Since vigentes recibe 304 sin consultar la base de datos.
+ * Esas versiones están en memoria y son de cada instancia: solo reflejan los
+ * cambios hechos a través de ella. Con varias instancias detrás de un
+ * balanceador, o con escrituras directas en la base de datos, una instancia
+ * puede responder 304 a una petición condicional aunque los datos hayan
+ * cambiado en otra; en ese despliegue los clientes no deben enviar
+ * If-None-Match ni If-Modified-Since.
+ * Las modificaciones aceptan If-Match para no pisar cambios ajenos (412); una
+ * edición que choca con otra concurrente en la base de datos devuelve 409.
+ *
+ * <ul>
+ *   <li>GET /api/tasks?limit=N[&amp;cursor=...][&amp;completed=0|1] (página de tareas, sin la descripción)</li>
+ *   <li>GET, PUT, DELETE /api/tasks/{id}</li>
+ *   <li>POST /api/tasks</li>
+ *   <li>PUT /api/tasks/{id}/completed (cuerpo 0 o 1)</li>
+ * </ul>
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@Path("tasks")
+@RequestScoped
+@Produces(MediaType.APPLICATION_JSON)
+public class TaskResource {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskResource.class);
+
+    @Inject
+    private TaskService taskService;
+
+    @Inject
+    private TaskVersionTracker versiones;
+
+    @Context
+    private Request request;
+
+    @Context
+    private UriInfo uriInfo;
+
+    /**
+     * Lista una página de tareas, todas o filtradas por estado, paginando por
+     * cursor (keyset): el coste de cada página no depende de su profundidad.
+     * Las tareas se devuelven por fecha de creación descendente, salvo las
+     * pendientes, que van por fecha límite. Si hay más tareas la respuesta
+     * incluye el cursor de la siguiente página y una cabecera Link rel="next".
+     *
+     * @param completed 0 para pendientes, 1 para completadas, vacío para todas
+     * @param limit Tamaño de la página, obligatorio (de 1 a {@link TaskService#MAX_TAREAS_POR_PAGINA})
+     * @param cursor Cursor devuelto en la página anterior, vacío para la primera
+     * @return 200 con la página, 304 si no ha cambiado o 400 si algún parámetro no es válido
+     */
+    @GET
+    public Response listar(@QueryParam("completed") String completed, @QueryParam("limit") Integer limit,
+                           @QueryParam("cursor") String cursor) {
+        if (completed != null && !completed.isEmpty() && !"0".equals(completed) && !"1".equals(completed)) {
+            return error(Response.Status.BAD_REQUEST, "completed debe ser 0 o 1");
+        }
+        if (limit == null || limit < 1 || limit > TaskService.MAX_TAREAS_POR_PAGINA) {
+            return error(Response.Status.BAD_REQUEST,
+                    "limit es obligatorio y debe estar entre 1 y " + TaskService.MAX_TAREAS_POR_PAGINA);
+        }
+        String posicion = cursor == null || cursor.isEmpty() ? null : cursor;
+        // La versión se toma antes de leer: si cambia durante la consulta, el siguiente GET no será 304
+        TaskVersionTracker.Version version = versiones.deTabla();
+        EntityTag etag = new EntityTag(version + "-" + (completed == null ? "" : completed) + "-" + limit
+                + (posicion == null ? "" : "-" + posicion));
+        Response.ResponseBuilder noModificada = request.evaluatePreconditions(version.getModificada(), etag);
+        if (noModificada != null) {
+            return noModificada.cacheControl(revalidar()).build();
+        }
+
+        TaskSlice pagina;
+        try {
+            if ("0".equals(completed)) {
+                pagina = taskService.buscarPendientesPorCursor(posicion, limit);
+            } else if ("1".equals(completed)) {
+                pagina = taskService.buscarCompletadasPorCursor(posicion, limit);
+            } else {
+                pagina = taskService.buscarTareasPorCursor(posicion, limit);
+            }
+        } catch (IllegalArgumentException e) {
+            return error(Response.Status.BAD_REQUEST, e.getMessage());
+        }
+        Response.ResponseBuilder respuesta = Response.ok(pagina).tag(etag).lastModified(version.getModificada())
+                .cacheControl(revalidar());
+        if (pagina.isHayMas()) {
+            respuesta.link(uriInfo.getRequestUriBuilder().replaceQueryParam("cursor", pagina.getSiguienteCursor())
+                    .build(), "next");
+        }
+        return respuesta.build();
+    }
+
+    /**
+     * Obtiene una tarea.
+     *
+     * @param id ID de la tarea
+     * @return 200 con la tarea, 304 si no ha cambiado o 404 si no existe
+     */
+    @GET
+    @Path("{id}")
+    public Response obtener(@PathParam("id") Long id) {
+        TaskVersionTracker.Version version = versiones.deTarea(id);
+        EntityTag etag = etagDe(id, version);
+        Response.ResponseBuilder noModificada = request.evaluatePreconditions(version.getModificada(), etag);
+        if (noModificada != null) {
+            return noModificada.cacheControl(revalidar()).build();
+        }
+
+        Task task = taskService.buscarTareaPorId(id);
+        if (task == null) {
+            return error(Response.Status.NOT_FOUND, "No existe la tarea " + id);
+        }
+        return Response.ok(TaskSummary.de(task)).tag(etag).lastModified(version.getModificada())
+                .cacheControl(revalidar()).build();
+    }
+
+    /**
+     * Crea una tarea. Se ignoran el ID, la versión y la fecha de creación recibidos.
+     *
+     * @param task Datos de la tarea
+     * @return 201 con la tarea creada y su URI, o 400 si los datos no son válidos
+     */
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response crear(Task task) {
+        String invalida = validar(task);
+        if (invalida != null) {
+            return error(Response.Status.BAD_REQUEST, invalida);
+        }
+        task.setId(null);
+        task.setVersion(null);
+        task.setCreatedAt(null);
+        if (task.getCompleted() == null) {
+            task.setCompleted(0);
+        }
+        Task creada = taskService.crearTarea(task);
+        logger.debug("Tarea creada desde la API REST, ID: {}", creada.getId());
+        return Response.created(uriInfo.getAbsolutePathBuilder().path(String.valueOf(creada.getId())).build())
+                .entity(TaskSummary.de(creada))
+                .tag(etagDe(creada.getId(), versiones.deTarea(creada.getId())))
+                .build();
+    }
+
+    /**
+     * Sustituye los datos de una tarea. La fecha de creación no se modifica.
+     * Si el cuerpo incluye "version", la edición solo se aplica sobre esa versión;
+     * sin ella se usa la actual (conviene enviar If-Match).
+     *
+     * @param id ID de la tarea
+     * @param task Nuevos datos
+     * @return 200 con la tarea, 400 si los datos no son válidos, 404 si no existe,
+     *         409 si cambió durante la edición o 412 si If-Match no coincide con la versión actual
+     */
+    @PUT
+    @Path("{id}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response actualizar(@PathParam("id") Long id, Task task) {
+        String invalida = validar(task);
+        if (invalida != null) {
+            return error(Response.Status.BAD_REQUEST, invalida);
+        }
+        Response.ResponseBuilder conflicto = request.evaluatePreconditions(etagDe(id, versiones.deTarea(id)));
+        if (conflicto != null) {
+            return conflicto.build();
+        }
+        Task actual = taskService.buscarTareaParaEditar(id);
+        if (actual == null) {
+            return error(Response.Status.NOT_FOUND, "No existe la tarea " + id);
+        }
+        task.setId(id);
+        if (task.getVersion() == null) {
+            task.setVersion(actual.getVersion());
+        }
+        Task actualizada;
+        try {
+            actualizada = taskService.actualizarTarea(task);
+            if (task.getCompleted() != null && !task.getCompleted().equals(actualizada.getCompleted())) {
+                boolean completada = task.getCompleted() == 1;
+                TaskConflictRetry.reintentar(() -> completada
+                        ? taskService.marcarComoCompletada(id) : taskService.marcarComoPendiente(id));
+                actualizada = taskService.buscarTareaParaEditar(id);
+            }
+        } catch (TaskConflictException e) {
+            return error(e.isEliminada() ? Response.Status.NOT_FOUND : Response.Status.CONFLICT, e.getMessage());
+        }
+        return Response.ok(TaskSummary.de(actualizada)).tag(etagDe(id, versiones.deTarea(id))).build();
+    }
+
+    /**
+     * Cambia el estado de una tarea.
+     *
+     * @param id ID de la tarea
+     * @param completed 1 para completada, 0 para pendiente
+     * @return 204, 400 si el estado no es válido, 404 si no existe
+     *         o 412 si If-Match no coincide con la versión actual
+     */
+    @PUT
+    @Path("{id}/completed")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response cambiarEstado(@PathParam("id") Long id, Integer completed) {
+        if (completed == null || (completed != 0 && completed != 1)) {
+            return error(Response.Status.BAD_REQUEST, "completed debe ser 0 o 1");
+        }
+        Response.ResponseBuilder conflicto = request.evaluatePreconditions(etagDe(id, versiones.deTarea(id)));
+        if (conflicto != null) {
+            return conflicto.build();
+        }
+        boolean modificada = TaskConflictRetry.reintentar(() -> completed == 1
+                ? taskService.marcarComoCompletada(id) : taskService.marcarComoPendiente(id));
+        // Sin cambios puede ser que ya tuviera ese estado o que no exista
+        if (!modificada && taskService.buscarTareaPorId(id) == null) {
+            return error(Response.Status.NOT_FOUND, "No existe la tarea " + id);
+        }
+        return Response.noContent().tag(etagDe(id, versiones.deTarea(id))).build();
+    }
+
+    /**
+     * Elimina una tarea.
+     *
+     * @param id ID de la tarea
+     * @return 204, 404 si no existe o 412 si If-Match no coincide con la versión actual
+     */
+    @DELETE
+    @Path("{id}")
+    public Response eliminar(@PathParam("id") Long id) {
+        Response.ResponseBuilder conflicto = request.evaluatePreconditions(etagDe(id, versiones.deTarea(id)));
+        if (conflicto != null) {
+            return conflicto.build();
+        }
+        if (!taskService.eliminarTarea(id)) {
+            return error(Response.Status.NOT_FOUND, "No existe la tarea " + id);
+        }
+        return Response.noContent().build();
+    }
+
+    /**
+     * Los clientes pueden guardar la respuesta, pero deben revalidarla antes de usarla.
+     */
+    private static CacheControl revalidar() {
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setNoCache(true);
+        return cacheControl;
+    }
+
+    private static EntityTag etagDe(Long id, TaskVersionTracker.Version version) {
+        return new EntityTag(id + "-" + version);
+    }
+
+    private static String validar(Task task) {
+        if (task == null || task.getTitle() == null || task.getTitle().trim().isEmpty()) {
+            return "El título es obligatorio";
+        }
+        if (task.getTitle().length() > 100) {
+            return "El título no puede superar los 100 caracteres";
+        }
+        if (task.getDescription() != null && task.getDescription().length() > 500) {
+            return "La descripción no puede superar los 500 caracteres";
+        }
+        if (task.getCompleted() != null && task.getCompleted() != 0 && task.getCompleted() != 1) {
+            return "completed debe ser 0 o 1";
+        }
+        return null;
+    }
+
+    private static Response error(Response.Status estado, String mensaje) {
+        return Response.status(estado).entity(mensaje).type(MediaType.TEXT_PLAIN_TYPE).build();
+    }
+}
@@ -0,0 +1,214 @@
+package net.xiliosoft.prueba_tecnica.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.servlet.ServletContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Precalienta las vistas al arrancar: en cuanto el servidor acepta
+ * peticiones, pide cada página una vez desde el propio servidor. Así la
+ * compilación de los facelets, los planes de las consultas de Hibernate y la
+ * caché de segundo nivel están listos antes de la primera petición de un
+ * usuario.
+ *
+ * La dirección del servidor se toma de su configuración: el socket binding
+ * http de WildFly/JBoss (dirección y puerto en los que escucha, vía JMX). Con
+ * otro servidor, o detrás de un proxy, se indica con la propiedad del sistema
+ * {@value #PROPIEDAD_URL_BASE}.
+ *
+ * Mide también el arranque en frío: el tiempo desde el inicio de la JVM hasta
+ * que se sirve la primera página, que se registra en el log y se publica en
+ * /metrics. Si supera {@link #ARRANQUE_MAXIMO_MILISEGUNDOS} se avisa en el log.
+ *
+ * Está desactivado por defecto (parámetro de contexto {@value #PARAMETRO_ACTIVACION}
+ * en web.xml); el servidor embebido lo activa con la propiedad del sistema del
+ * mismo nombre (src/main/wildfly/configurar.cli).
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@ApplicationScoped
+public class ViewWarmup {
+
+    private static final Logger logger = LoggerFactory.getLogger(ViewWarmup.class);
+
+    /**
+     * Parámetro de contexto (true/false) que activa el precalentamiento.
+     */
+    public static final String PARAMETRO_ACTIVACION = "net.xiliosoft.prueba_tecnica.PRECALENTAR_VISTAS";
+
+    /**
+     * Propiedad del sistema con la URL base de la aplicación (por ejemplo
+     * http://localhost:8080/prueba-tecnica/), si no se puede obtener del servidor.
+     */
+    public static final String PROPIEDAD_URL_BASE = "net.xiliosoft.prueba_tecnica.URL_BASE";
+
+    /**
+     * Presupuesto del arranque en frío hasta la primera página servida; se
+     * cambia con la propiedad del sistema {@value #PROPIEDAD_ARRANQUE_MAXIMO}.
+     */
+    public static final long ARRANQUE_MAXIMO_MILISEGUNDOS = 10_000L;
+
+    /**
+     * Propiedad del sistema con el presupuesto del arranque en milisegundos.
+     */
+    public static final String PROPIEDAD_ARRANQUE_MAXIMO = "net.xiliosoft.prueba_tecnica.ARRANQUE_MAXIMO_MS";
+
+    /**
+     * Socket binding del listener HTTP de WildFly/JBoss en JMX.
+     */
+    static final String SOCKET_BINDING_HTTP = "jboss.as:socket-binding-group=standard-sockets,socket-binding=http";
+
+    /**
+     * Páginas que se piden al arrancar, empezando por la de bienvenida.
+     */
+    static final String[] VISTAS = {"tasks.xhtml", "index.xhtml", "metrics.xhtml"};
+
+    /**
+     * Tiempo máximo de espera a que el servidor acepte peticiones.
+     */
+    public static final long ESPERA_MAXIMA_MILISEGUNDOS = 120_000L;
+
+    private static final long REINTENTO_MILISEGUNDOS = 100L;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    private volatile long primeraPaginaMilisegundos = -1;
+
+    /**
+     * Lanza el precalentamiento en segundo plano; el despliegue no espera por él.
+     */
+    void alIniciar(@Observes @Initialized(ApplicationScoped.class) Object inicio) {
+        if (!(inicio instanceof ServletContext)) {
+            return;
+        }
+        ServletContext contexto = (ServletContext) inicio;
+        String activacion = System.getProperty(PARAMETRO_ACTIVACION, contexto.getInitParameter(PARAMETRO_ACTIVACION));
+        if (!Boolean.parseBoolean(activacion)) {
+            return;
+        }
+        String rutaContexto = contexto.getContextPath();
+        executor.execute(() -> precalentar(rutaContexto));
+    }
+
+    private void precalentar(String rutaContexto) {
+        long limite = System.currentTimeMillis() + ESPERA_MAXIMA_MILISEGUNDOS;
+        String base = urlBase(ManagementFactory.getPlatformMBeanServer(), rutaContexto);
+        try {
+            // La primera vista se reintenta hasta que el listener HTTP está activo,
+            // el despliegue termina y el servidor responde
+            while (base == null || !pedir(base + VISTAS[0])) {
+                if (System.currentTimeMillis() > limite) {
+                    logger.warn("No se pudieron precalentar las vistas: {}",
+                            base == null ? "no se conoce la dirección del servidor (" + PROPIEDAD_URL_BASE + ")"
+                                    : base + " no responde");
+                    return;
+                }
+                TimeUnit.MILLISECONDS.sleep(REINTENTO_MILISEGUNDOS);
+                if (base == null) {
+                    base = urlBase(ManagementFactory.getPlatformMBeanServer(), rutaContexto);
+                }
+            }
+            primeraPaginaMilisegundos = System.currentTimeMillis()
+                    - ManagementFactory.getRuntimeMXBean().getStartTime();
+            long inicio = System.nanoTime();
+            for (int i = 1; i < VISTAS.length; i++) {
+                pedir(base + VISTAS[i]);
+            }
+            logger.info("Primera página servida {} ms después de arrancar la JVM; resto de vistas en {} ms",
+                    primeraPaginaMilisegundos, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+            long presupuesto = Long.getLong(PROPIEDAD_ARRANQUE_MAXIMO, ARRANQUE_MAXIMO_MILISEGUNDOS);
+            if (primeraPaginaMilisegundos > presupuesto) {
+                logger.warn("Arranque en frío por encima del presupuesto: {} ms (máximo {} ms)",
+                        primeraPaginaMilisegundos, presupuesto);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * URL base de la aplicación: la propiedad {@value #PROPIEDAD_URL_BASE} o,
+     * si no está, la dirección y el puerto del socket binding http del servidor.
+     * Si el servidor escucha en todas las interfaces se usa la de loopback.
+     *
+     * @param servidor Servidor JMX donde WildFly/JBoss publica su configuración
+     * @param rutaContexto Ruta de contexto de la aplicación
+     * @return URL base terminada en /, o null si todavía no se conoce
+     */
+    static String urlBase(MBeanServer servidor, String rutaContexto) {
+        String configurada = System.getProperty(PROPIEDAD_URL_BASE);
+        if (configurada != null && !configurada.isEmpty()) {
+            return configurada.endsWith("/") ? configurada : configurada + "/";
+        }
+        try {
+            ObjectName http = new ObjectName(SOCKET_BINDING_HTTP);
+            if (!servidor.isRegistered(http)) {
+                return null;
+            }
+            Object direccion = servidor.getAttribute(http, "boundAddress");
+            Object puerto = servidor.getAttribute(http, "boundPort");
+            if (direccion == null || puerto == null) {
+                // El listener aún no está activo
+                return null;
+            }
+            InetAddress host = InetAddress.getByName(direccion.toString());
+            if (host.isAnyLocalAddress()) {
+                host = InetAddress.getLoopbackAddress();
+            }
+            String nombre = host instanceof Inet6Address ? "[" + host.getHostAddress() + "]" : host.getHostAddress();
+            return "http://" + nombre + ":" + puerto + rutaContexto + "/";
+        } catch (JMException | IOException e) {
+            logger.debug("No se pudo leer el socket binding http: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return true si la página respondió 200
+     */
+    private static boolean pedir(String url) {
+        try {
+            HttpURLConnection conexion = (HttpURLConnection) new URL(url).openConnection();
+            conexion.setConnectTimeout(1000);
+            conexion.setReadTimeout(30_000);
+            try (InputStream entrada = conexion.getInputStream()) {
+                byte[] bufer = new byte[8192];
+                while (entrada.read(bufer) >= 0) {
+                    // Se lee la respuesta completa para que la vista se renderice entera
+                }
+                return conexion.getResponseCode() == HttpURLConnection.HTTP_OK;
+            } finally {
+                conexion.disconnect();
+            }
+        } catch (IOException e) {
+            logger.debug("Precalentamiento de {}: {}", url, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @return Milisegundos desde el inicio de la JVM hasta la primera página servida, o -1 si aún no se ha servido
+     */
+    public long getPrimeraPaginaMilisegundos() {
+        return primeraPaginaMilisegundos;
+    }
+}
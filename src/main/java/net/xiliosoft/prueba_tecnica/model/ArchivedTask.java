@@ -0,0 +1,75 @@
+package net.xiliosoft.prueba_tecnica.model;
+
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import java.util.Date;
+
+/**
+ * Tarea completada movida a la tabla fría TASKS_ARCHIVE.
+ *
+ * Las filas solo se insertan con INSERT ... SELECT desde TASKS al archivar
+ * y no se modifican después; conservan el ID y la versión que tenían. Las
+ * consultas normales no leen esta tabla: solo las variantes "IncluyendoArchivo"
+ * de TaskRepository.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@Entity
+@Table(name = "TASKS_ARCHIVE")
+@Immutable
+public class ArchivedTask {
+
+    @Id
+    @Column(name = "ID")
+    private Long id;
+
+    @Column(name = "TITLE", nullable = false, length = 100)
+    private String title;
+
+    @Column(name = "DESCRIPTION", length = 500)
+    private String description;
+
+    @Temporal(TemporalType.DATE)
+    @Column(name = "DUE_DATE")
+    private Date dueDate;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "CREATED_AT")
+    private Date createdAt;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "COMPLETED_AT")
+    private Date completedAt;
+
+    @Column(name = "VERSION", nullable = false)
+    private Long version;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "ARCHIVED_AT", nullable = false)
+    private Date archivedAt;
+
+    public ArchivedTask() {}
+
+    public Long getId() { return id; }
+
+    public String getTitle() { return title; }
+
+    public String getDescription() { return description; }
+
+    public Date getDueDate() { return dueDate; }
+
+    public Date getCreatedAt() { return createdAt; }
+
+    public Date getCompletedAt() { return completedAt; }
+
+    public Long getVersion() { return version; }
+
+    public Date getArchivedAt() { return archivedAt; }
+}
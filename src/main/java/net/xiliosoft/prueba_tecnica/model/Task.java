@@ -1,5 +1,9 @@
 package net.xiliosoft.prueba_tecnica.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.LazyGroup;
+
 import javax.persistence.*;
 import java.util.Date;
 
@@ -12,13 +16,21 @@ import java.util.Date;
  */
 @Entity
 @Table(name = "TASKS")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @SequenceGenerator(
         name = "tasks_seq",
         sequenceName = "TASKS_SEQ",
-        allocationSize = 1
+        allocationSize = Task.ID_ALLOCATION_SIZE
 )
 public class Task {
 
+    /**
+     * Tamaño del bloque de IDs que Hibernate reserva con cada NEXTVAL (optimizador pooled-lo).
+     * Debe coincidir con el INCREMENT BY de TASKS_SEQ.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
     @Column(name = "ID")
@@ -27,6 +39,14 @@ public class Task {
     @Column(name = "TITLE", nullable = false, length = 100)
     private String title;
 
+    /**
+     * Se carga aparte, al leerla por primera vez, porque solo la necesitan la
+     * edición y la consulta por ID (ver TaskRepository.buscarPorId); los
+     * listados la obtienen en la proyección {@link TaskSummary}. Requiere la
+     * mejora de bytecode de hibernate-enhance-maven-plugin.
+     */
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("descripcion")
     @Column(name = "DESCRIPTION", length = 500)
     private String description;
 
@@ -41,6 +61,22 @@ public class Task {
     @Column(name = "CREATED_AT")
     private Date createdAt;
 
+    /**
+     * Momento en que la tarea pasó a completada, o null si está pendiente.
+     * Determina cuándo se archiva (ver TaskArchiver).
+     */
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "COMPLETED_AT")
+    private Date completedAt;
+
+    /**
+     * Versión para el control de concurrencia optimista: cada UPDATE la incrementa
+     * y solo se aplica si la fila conserva la versión leída.
+     */
+    @Version
+    @Column(name = "VERSION", nullable = false)
+    private Long version;
+
     public Task() {}
 
     @PrePersist
@@ -48,6 +84,9 @@ public class Task {
         if (createdAt == null) {
             createdAt = new Date();
         }
+        if (completedAt == null && completed != null && completed == 1) {
+            completedAt = new Date();
+        }
     }
 
     public Long getId() { return id; }
@@ -67,4 +106,10 @@ public class Task {
 
     public Date getCreatedAt() { return createdAt; }
     public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
+
+    public Date getCompletedAt() { return completedAt; }
+    public void setCompletedAt(Date completedAt) { this.completedAt = completedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
@@ -0,0 +1,143 @@
+package net.xiliosoft.prueba_tecnica.model;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Cursor de paginación por clave (keyset) sobre la tabla TASKS.
+ * Guarda la posición de la última tarea vista en un orden concreto, de forma
+ * que la siguiente página se obtiene con un rango sobre el índice en lugar de
+ * recorrer y descartar las filas previas como hace la paginación por offset.
+ *
+ * Se intercambia con la vista y los clientes como un token opaco.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public final class TaskCursor {
+
+    /**
+     * Orden sobre el que se posiciona el cursor.
+     */
+    public enum Orden {
+        /** createdAt DESC, id DESC (todas las tareas). */
+        CREACION('C'),
+        /** dueDate ASC NULLS LAST, createdAt DESC, id DESC (tareas pendientes). */
+        PENDIENTES('P'),
+        /** createdAt DESC, id DESC (tareas completadas). */
+        COMPLETADAS('K');
+
+        private final char codigo;
+
+        Orden(char codigo) {
+            this.codigo = codigo;
+        }
+
+        static Orden desdeCodigo(String codigo) {
+            for (Orden orden : values()) {
+                if (codigo.length() == 1 && orden.codigo == codigo.charAt(0)) {
+                    return orden;
+                }
+            }
+            throw new IllegalArgumentException("Orden de cursor desconocido: " + codigo);
+        }
+    }
+
+    private static final String VERSION = "1";
+
+    private final Orden orden;
+    private final Date dueDate;
+    private final Timestamp createdAt;
+    private final Long id;
+
+    private TaskCursor(Orden orden, Date dueDate, Date createdAt, Long id) {
+        if (createdAt == null || id == null) {
+            throw new IllegalArgumentException("El cursor requiere createdAt e id");
+        }
+        this.orden = orden;
+        this.dueDate = dueDate != null ? new Date(dueDate.getTime()) : null;
+        this.createdAt = aTimestamp(createdAt);
+        this.id = id;
+    }
+
+    /**
+     * Crea el cursor posicionado tras la tarea indicada.
+     *
+     * @param orden Orden de la consulta que se está paginando
+     * @param ultima Última tarea de la página actual
+     * @return Cursor que apunta a la siguiente página
+     */
+    public static TaskCursor despuesDe(Orden orden, TaskSummary ultima) {
+        return new TaskCursor(orden, orden == Orden.PENDIENTES ? ultima.getDueDate() : null,
+                ultima.getCreatedAt(), ultima.getId());
+    }
+
+    /**
+     * Decodifica un token generado por {@link #toToken()}.
+     *
+     * @param token Token opaco recibido del cliente
+     * @param esperado Orden de la consulta en la que se va a usar
+     * @return El cursor decodificado
+     * @throws IllegalArgumentException si el token no es válido o pertenece a otro orden
+     */
+    public static TaskCursor desdeToken(String token, Orden esperado) {
+        String[] partes;
+        try {
+            partes = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor no válido", e);
+        }
+        if (partes.length != 6 || !VERSION.equals(partes[0])) {
+            throw new IllegalArgumentException("Cursor no válido");
+        }
+        Orden orden = Orden.desdeCodigo(partes[1]);
+        if (orden != esperado) {
+            throw new IllegalArgumentException("El cursor no corresponde al orden " + esperado);
+        }
+        try {
+            Date dueDate = partes[2].isEmpty() ? null : new Date(Long.parseLong(partes[2]));
+            Timestamp createdAt = new Timestamp(Long.parseLong(partes[3]));
+            createdAt.setNanos(Integer.parseInt(partes[4]));
+            return new TaskCursor(orden, dueDate, createdAt, Long.valueOf(partes[5]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor no válido", e);
+        }
+    }
+
+    /**
+     * Serializa el cursor como token opaco apto para URLs.
+     *
+     * @return Token en Base64 URL-safe
+     */
+    public String toToken() {
+        String valor = VERSION + "|" + orden.codigo + "|"
+                + (dueDate != null ? dueDate.getTime() : "") + "|"
+                + createdAt.getTime() + "|" + createdAt.getNanos() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Orden getOrden() { return orden; }
+
+    public Date getDueDate() { return dueDate != null ? new Date(dueDate.getTime()) : null; }
+
+    /**
+     * @return Fecha de creación con la precisión completa de la columna TIMESTAMP
+     */
+    public Date getCreatedAt() { return aTimestamp(createdAt); }
+
+    public Long getId() { return id; }
+
+    /**
+     * Copia la fecha conservando los nanosegundos si es un Timestamp, para que
+     * filas creadas en el mismo milisegundo no se salten entre páginas.
+     */
+    private static Timestamp aTimestamp(Date fecha) {
+        Timestamp copia = new Timestamp(fecha.getTime());
+        if (fecha instanceof Timestamp) {
+            copia.setNanos(((Timestamp) fecha).getNanos());
+        }
+        return copia;
+    }
+}
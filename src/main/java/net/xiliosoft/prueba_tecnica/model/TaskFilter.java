@@ -0,0 +1,91 @@
+package net.xiliosoft.prueba_tecnica.model;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Criterios de filtrado del listado de tareas. Los criterios nulos o vacíos no
+ * se aplican. Los rangos de fechas incluyen el día completo de ambos extremos.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskFilter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Clave del filtro de columna del título (filterBy="#{task.title}"). */
+    public static final String FILTRO_TITULO = "title";
+
+    /** Clave del filtro de columna del estado (filterBy="#{task.completed}"). */
+    public static final String FILTRO_ESTADO = "completed";
+
+    private Integer estado;
+    private String prefijoTitulo;
+    private Date venceDesde;
+    private Date venceHasta;
+    private Date creadaDesde;
+    private Date creadaHasta;
+
+    /**
+     * Crea una copia con los filtros de columna de la tabla aplicados encima.
+     * Solo se reconocen {@link #FILTRO_TITULO} (prefijo) y {@link #FILTRO_ESTADO} (0 o 1).
+     *
+     * @param filtros Filtros de columna de PrimeFaces (campo y valor)
+     * @return Nuevo filtro combinado
+     */
+    public TaskFilter conFiltrosDeTabla(Map<String, Object> filtros) {
+        TaskFilter combinado = copiar();
+        if (filtros == null) {
+            return combinado;
+        }
+        Object titulo = filtros.get(FILTRO_TITULO);
+        if (titulo != null && !titulo.toString().trim().isEmpty()) {
+            combinado.prefijoTitulo = titulo.toString().trim();
+        }
+        Object valorEstado = filtros.get(FILTRO_ESTADO);
+        if ("0".equals(String.valueOf(valorEstado)) || "1".equals(String.valueOf(valorEstado))) {
+            combinado.estado = Integer.valueOf(valorEstado.toString());
+        }
+        return combinado;
+    }
+
+    /**
+     * @return Copia independiente de este filtro
+     */
+    public TaskFilter copiar() {
+        TaskFilter copia = new TaskFilter();
+        copia.estado = estado;
+        copia.prefijoTitulo = prefijoTitulo;
+        copia.venceDesde = venceDesde;
+        copia.venceHasta = venceHasta;
+        copia.creadaDesde = creadaDesde;
+        copia.creadaHasta = creadaHasta;
+        return copia;
+    }
+
+    /**
+     * @return Valor de completed a filtrar (0 o 1) o null para todas
+     */
+    public Integer getEstado() { return estado; }
+    public void setEstado(Integer estado) { this.estado = estado; }
+
+    /**
+     * @return Inicio del título, sin distinguir mayúsculas, o null
+     */
+    public String getPrefijoTitulo() { return prefijoTitulo; }
+    public void setPrefijoTitulo(String prefijoTitulo) { this.prefijoTitulo = prefijoTitulo; }
+
+    public Date getVenceDesde() { return venceDesde; }
+    public void setVenceDesde(Date venceDesde) { this.venceDesde = venceDesde; }
+
+    public Date getVenceHasta() { return venceHasta; }
+    public void setVenceHasta(Date venceHasta) { this.venceHasta = venceHasta; }
+
+    public Date getCreadaDesde() { return creadaDesde; }
+    public void setCreadaDesde(Date creadaDesde) { this.creadaDesde = creadaDesde; }
+
+    public Date getCreadaHasta() { return creadaHasta; }
+    public void setCreadaHasta(Date creadaHasta) { this.creadaHasta = creadaHasta; }
+}
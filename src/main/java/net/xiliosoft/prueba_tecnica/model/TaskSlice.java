@@ -0,0 +1,31 @@
+package net.xiliosoft.prueba_tecnica.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de una consulta paginada por cursor.
+ * Contiene las tareas de la página y el token para pedir la siguiente.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public final class TaskSlice {
+
+    private final List<TaskSummary> tareas;
+    private final String siguienteCursor;
+
+    public TaskSlice(List<TaskSummary> tareas, String siguienteCursor) {
+        this.tareas = Collections.unmodifiableList(tareas);
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    public List<TaskSummary> getTareas() { return tareas; }
+
+    /**
+     * @return Token de la siguiente página o null si no hay más tareas
+     */
+    public String getSiguienteCursor() { return siguienteCursor; }
+
+    public boolean isHayMas() { return siguienteCursor != null; }
+}
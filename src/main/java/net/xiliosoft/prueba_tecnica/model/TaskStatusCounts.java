@@ -0,0 +1,36 @@
+package net.xiliosoft.prueba_tecnica.model;
+
+/**
+ * Contadores de tareas por estado para el resumen de la vista.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public final class TaskStatusCounts {
+
+    private final long pendientes;
+    private final long completadas;
+    private final long vencidas;
+
+    public TaskStatusCounts(long pendientes, long completadas, long vencidas) {
+        this.pendientes = pendientes;
+        this.completadas = completadas;
+        this.vencidas = vencidas;
+    }
+
+    public long getPendientes() { return pendientes; }
+
+    public long getCompletadas() { return completadas; }
+
+    /**
+     * @return Tareas pendientes cuya fecha límite ya pasó
+     */
+    public long getVencidas() { return vencidas; }
+
+    public long getTotal() { return pendientes + completadas; }
+
+    @Override
+    public String toString() {
+        return "pendientes=" + pendientes + ", completadas=" + completadas + ", vencidas=" + vencidas;
+    }
+}
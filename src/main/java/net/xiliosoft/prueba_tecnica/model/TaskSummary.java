@@ -0,0 +1,94 @@
+package net.xiliosoft.prueba_tecnica.model;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Proyección inmutable y de solo lectura de una tarea para los listados.
+ * Se construye directamente desde JPQL (SELECT NEW), por lo que no pasa por el
+ * contexto de persistencia: no hay entidad gestionada ni copia para el dirty
+ * checking. La entidad {@link Task} completa solo se carga para editar.
+ *
+ * Los listados completos no leen la descripción (queda a null); solo la traen
+ * la página de la tabla, los resultados de búsqueda, la consulta de una tarea
+ * y la exportación.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public final class TaskSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final String title;
+    private final String description;
+    private final Date dueDate;
+    private final Integer completed;
+    private final Date createdAt;
+
+    /**
+     * Proyección de los listados, sin descripción.
+     */
+    public TaskSummary(Long id, String title, Date dueDate, Integer completed, Date createdAt) {
+        this(id, title, null, dueDate, completed, createdAt);
+    }
+
+    public TaskSummary(Long id, String title, String description, Date dueDate, Integer completed, Date createdAt) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.dueDate = copiar(dueDate);
+        this.completed = completed != null ? completed : 0;
+        this.createdAt = copiar(createdAt);
+    }
+
+    /**
+     * Crea la proyección a partir de una entidad.
+     *
+     * @param task La tarea de origen
+     * @return Proyección con los mismos valores
+     */
+    public static TaskSummary de(Task task) {
+        return new TaskSummary(task.getId(), task.getTitle(), task.getDescription(), task.getDueDate(),
+                task.getCompleted(), task.getCreatedAt());
+    }
+
+    /**
+     * Crea la proyección de los listados a partir de una entidad, sin leer la descripción.
+     *
+     * @param task La tarea de origen
+     * @return Proyección sin descripción
+     */
+    public static TaskSummary sinDescripcion(Task task) {
+        return new TaskSummary(task.getId(), task.getTitle(), task.getDueDate(),
+                task.getCompleted(), task.getCreatedAt());
+    }
+
+    /**
+     * @param estado Nuevo valor de completed
+     * @return Copia de esta proyección con otro estado
+     */
+    public TaskSummary conEstado(int estado) {
+        return new TaskSummary(id, title, description, dueDate, estado, createdAt);
+    }
+
+    private static Date copiar(Date fecha) {
+        if (fecha instanceof java.sql.Timestamp) {
+            return (Date) ((java.sql.Timestamp) fecha).clone();
+        }
+        return fecha != null ? new Date(fecha.getTime()) : null;
+    }
+
+    public Long getId() { return id; }
+
+    public String getTitle() { return title; }
+
+    public String getDescription() { return description; }
+
+    public Date getDueDate() { return copiar(dueDate); }
+
+    public Integer getCompleted() { return completed; }
+
+    public Date getCreatedAt() { return copiar(createdAt); }
+}
@@ -0,0 +1,117 @@
+package net.xiliosoft.prueba_tecnica.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Expone las estadísticas de Hibernate (hibernate.generate_statistics en
+ * persistence.xml) de la base de datos principal y de la réplica: número de
+ * consultas y sentencias, la consulta más lenta, cargas de entidades y
+ * aciertos de la caché de segundo nivel. Son acumuladas desde el arranque.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@ApplicationScoped
+public class HibernateMetrics {
+
+    @PersistenceUnit(unitName = "prueba-tecnica")
+    private EntityManagerFactory principal;
+
+    @PersistenceUnit(unitName = "prueba-tecnica-replica")
+    private EntityManagerFactory replica;
+
+    /**
+     * @return Estadísticas de cada unidad de persistencia
+     */
+    public List<Resumen> resumenes() {
+        return Arrays.asList(
+                Resumen.de("principal", principal.unwrap(SessionFactory.class).getStatistics()),
+                Resumen.de("replica", replica.unwrap(SessionFactory.class).getStatistics()));
+    }
+
+    /**
+     * Copia de las estadísticas de una unidad de persistencia.
+     */
+    public static class Resumen {
+
+        private final String unidad;
+        private final boolean activas;
+        private final long consultas;
+        private final long sentencias;
+        private final long transacciones;
+        private final long entidadesCargadas;
+        private final long aciertosCache;
+        private final long fallosCache;
+        private final long consultaMasLentaMilisegundos;
+        private final String consultaMasLenta;
+
+        private Resumen(String unidad, Statistics estadisticas) {
+            this.unidad = unidad;
+            this.activas = estadisticas.isStatisticsEnabled();
+            this.consultas = estadisticas.getQueryExecutionCount();
+            this.sentencias = estadisticas.getPrepareStatementCount();
+            this.transacciones = estadisticas.getTransactionCount();
+            this.entidadesCargadas = estadisticas.getEntityLoadCount();
+            this.aciertosCache = estadisticas.getSecondLevelCacheHitCount();
+            this.fallosCache = estadisticas.getSecondLevelCacheMissCount();
+            this.consultaMasLentaMilisegundos = estadisticas.getQueryExecutionMaxTime();
+            this.consultaMasLenta = estadisticas.getQueryExecutionMaxTimeQueryString();
+        }
+
+        /**
+         * @param unidad Nombre con el que se muestra la unidad de persistencia
+         * @param estadisticas Estadísticas de su SessionFactory
+         * @return Copia de los valores actuales
+         */
+        public static Resumen de(String unidad, Statistics estadisticas) {
+            return new Resumen(unidad, estadisticas);
+        }
+
+        public String getUnidad() {
+            return unidad;
+        }
+
+        public boolean isActivas() {
+            return activas;
+        }
+
+        public long getConsultas() {
+            return consultas;
+        }
+
+        public long getSentencias() {
+            return sentencias;
+        }
+
+        public long getTransacciones() {
+            return transacciones;
+        }
+
+        public long getEntidadesCargadas() {
+            return entidadesCargadas;
+        }
+
+        public long getAciertosCache() {
+            return aciertosCache;
+        }
+
+        public long getFallosCache() {
+            return fallosCache;
+        }
+
+        public long getConsultaMasLentaMilisegundos() {
+            return consultaMasLentaMilisegundos;
+        }
+
+        public String getConsultaMasLenta() {
+            return consultaMasLenta;
+        }
+    }
+}
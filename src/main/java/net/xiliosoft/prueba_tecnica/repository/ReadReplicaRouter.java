@@ -0,0 +1,190 @@
+package net.xiliosoft.prueba_tecnica.repository;
+
+import net.xiliosoft.prueba_tecnica.service.TaskEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.ContextNotActiveException;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.persistence.PersistenceException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import javax.transaction.TransactionSynchronizationRegistry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Decide si una lectura se envía a la réplica de solo lectura o a la base de
+ * datos principal.
+ *
+ * Las lecturas van a la réplica salvo en estos casos:
+ * <ul>
+ *   <li>Transacción en curso: la lectura forma parte de una escritura y se
+ *       hace en la principal, para que una transacción nunca use las dos
+ *       bases de datos (no son recursos XA).</li>
+ *   <li>Lectura propia: durante {@link #VENTANA_LECTURA_PROPIA_MILISEGUNDOS}
+ *       tras una escritura confirmada por el mismo usuario (su sesión HTTP, o
+ *       la petición en curso si no tiene sesión) se lee de la principal, para
+ *       no devolverle datos anteriores a su cambio. Las escrituras de otros
+ *       usuarios no afectan a sus lecturas.</li>
+ *   <li>Réplica caída: si una lectura en la réplica falla se repite en la
+ *       principal y la réplica se deja de usar durante
+ *       {@link #ESPERA_TRAS_FALLO_MILISEGUNDOS}.</li>
+ * </ul>
+ * La decisión se guarda por hilo mientras dura la lectura y {@link TaskRepository}
+ * la consulta para elegir el EntityManager.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@ApplicationScoped
+public class ReadReplicaRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicaRouter.class);
+
+    /**
+     * Tiempo tras una escritura en el que las lecturas del mismo usuario van a la principal.
+     * Debe cubrir el retraso máximo esperado de la réplica.
+     */
+    public static final long VENTANA_LECTURA_PROPIA_MILISEGUNDOS = 5_000L;
+
+    /**
+     * Tiempo que se deja de usar la réplica después de un fallo.
+     */
+    public static final long ESPERA_TRAS_FALLO_MILISEGUNDOS = 30_000L;
+
+    /**
+     * Atributo de la sesión y de la petición con el momento de la última escritura del usuario.
+     */
+    static final String ATRIBUTO_ULTIMA_ESCRITURA = ReadReplicaRouter.class.getName() + ".ultimaEscritura";
+
+    private final LongSupplier reloj;
+    private final ThreadLocal<Boolean> enReplica = new ThreadLocal<>();
+    private final AtomicLong replicaCaidaHasta = new AtomicLong(Long.MIN_VALUE / 2);
+
+    @Inject
+    private Instance<HttpServletRequest> peticiones;
+
+    @Resource
+    private TransactionSynchronizationRegistry transacciones;
+
+    public ReadReplicaRouter() {
+        this(System::currentTimeMillis);
+    }
+
+    ReadReplicaRouter(LongSupplier reloj) {
+        this.reloj = reloj;
+    }
+
+    /**
+     * Ejecuta una lectura en la réplica si está disponible, o en la principal.
+     * Si la lectura falla en la réplica se repite en la principal.
+     *
+     * @param lectura Operación de lectura
+     * @return Resultado de la lectura
+     * @throws Exception la excepción de la lectura en la principal
+     */
+    public <T> T leer(Callable<T> lectura) throws Exception {
+        if (enReplica.get() != null || isTransaccionActiva() || isEscrituraReciente() || !isReplicaDisponible()) {
+            // Lectura anidada, dentro de una escritura o tras una escritura propia: se mantiene la principal
+            return lectura.call();
+        }
+        enReplica.set(Boolean.TRUE);
+        try {
+            return lectura.call();
+        } catch (PersistenceException e) {
+            replicaCaidaHasta.set(reloj.getAsLong() + ESPERA_TRAS_FALLO_MILISEGUNDOS);
+            logger.warn("Fallo al leer de la réplica, se usa la base de datos principal durante {} ms: {}",
+                    ESPERA_TRAS_FALLO_MILISEGUNDOS, e.getMessage());
+        } finally {
+            enReplica.remove();
+        }
+        return lectura.call();
+    }
+
+    /**
+     * @return true si la lectura en curso en este hilo debe ir a la réplica
+     */
+    public boolean isLecturaEnReplica() {
+        return Boolean.TRUE.equals(enReplica.get());
+    }
+
+    /**
+     * @return true si la réplica no ha fallado recientemente
+     */
+    public boolean isReplicaDisponible() {
+        return reloj.getAsLong() >= replicaCaidaHasta.get();
+    }
+
+    /**
+     * Registra una escritura del usuario en curso; abre su ventana de lectura propia.
+     * Sin petición HTTP (tareas en segundo plano) no hay nadie que lea después y no se registra.
+     */
+    public void registrarEscritura() {
+        HttpServletRequest peticion = peticionActual();
+        if (peticion == null) {
+            return;
+        }
+        Long ahora = reloj.getAsLong();
+        try {
+            peticion.setAttribute(ATRIBUTO_ULTIMA_ESCRITURA, ahora);
+            HttpSession sesion = peticion.getSession(false);
+            if (sesion != null) {
+                sesion.setAttribute(ATRIBUTO_ULTIMA_ESCRITURA, ahora);
+            }
+        } catch (ContextNotActiveException | IllegalStateException e) {
+            logger.debug("Escritura fuera de una petición HTTP, sin ventana de lectura propia");
+        }
+    }
+
+    /**
+     * Abre la ventana de lectura propia cuando la escritura ya está confirmada;
+     * las transacciones que terminan en rollback no la abren.
+     */
+    void alConfirmar(@Observes(during = TransactionPhase.AFTER_SUCCESS) TaskEvent evento) {
+        registrarEscritura();
+    }
+
+    /**
+     * @return true si el usuario en curso escribió hace menos de la ventana de lectura propia
+     */
+    boolean isEscrituraReciente() {
+        HttpServletRequest peticion = peticionActual();
+        if (peticion == null) {
+            return false;
+        }
+        long ahora = reloj.getAsLong();
+        try {
+            HttpSession sesion = peticion.getSession(false);
+            return dentroDeVentana(peticion.getAttribute(ATRIBUTO_ULTIMA_ESCRITURA), ahora)
+                    || (sesion != null && dentroDeVentana(sesion.getAttribute(ATRIBUTO_ULTIMA_ESCRITURA), ahora));
+        } catch (ContextNotActiveException | IllegalStateException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return La petición HTTP en curso, o null si no hay contenedor (pruebas)
+     */
+    HttpServletRequest peticionActual() {
+        return peticiones == null || peticiones.isUnsatisfied() ? null : peticiones.get();
+    }
+
+    /**
+     * @return true si el hilo está dentro de una transacción JTA
+     */
+    boolean isTransaccionActiva() {
+        return transacciones != null && transacciones.getTransactionKey() != null;
+    }
+
+    private static boolean dentroDeVentana(Object ultimaEscritura, long ahora) {
+        return ultimaEscritura instanceof Long
+                && ahora < (Long) ultimaEscritura + VENTANA_LECTURA_PROPIA_MILISEGUNDOS;
+    }
+}
@@ -0,0 +1,87 @@
+package net.xiliosoft.prueba_tecnica.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Registra una muestra de las sentencias SQL que ejecuta Hibernate, en lugar
+ * de todas como hace hibernate.show_sql.
+ *
+ * La proporción se configura por entorno con la propiedad de sistema
+ * {@value #PROPIEDAD_MUESTREO} (de 0 a 1; por defecto 0, sin registro), por
+ * ejemplo 1 en desarrollo y 0.01 en preproducción. Las sentencias se escriben
+ * en la categoría {@value #CATEGORIA} con nivel INFO, así que también pueden
+ * silenciarse desde la configuración de logging. La sentencia no se modifica.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class SqlSamplingInspector implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Propiedad de sistema con la proporción de sentencias a registrar.
+     */
+    public static final String PROPIEDAD_MUESTREO = "net.xiliosoft.prueba_tecnica.MUESTREO_SQL";
+
+    /**
+     * Categoría de logging de las sentencias muestreadas.
+     */
+    public static final String CATEGORIA = "net.xiliosoft.prueba_tecnica.sql";
+
+    private static final Logger logger = LoggerFactory.getLogger(CATEGORIA);
+
+    private final double proporcion;
+    private final transient DoubleSupplier aleatorio;
+
+    /**
+     * Constructor usado por Hibernate; lee la proporción de la propiedad de sistema.
+     */
+    public SqlSamplingInspector() {
+        this(leerProporcion(System.getProperty(PROPIEDAD_MUESTREO)), () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    SqlSamplingInspector(double proporcion, DoubleSupplier aleatorio) {
+        this.proporcion = proporcion;
+        this.aleatorio = aleatorio;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (debeRegistrar()) {
+            logger.info(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * @return true si la sentencia actual entra en la muestra
+     */
+    boolean debeRegistrar() {
+        if (proporcion <= 0 || !logger.isInfoEnabled()) {
+            return false;
+        }
+        return proporcion >= 1 || aleatorio.getAsDouble() < proporcion;
+    }
+
+    /**
+     * @param valor Valor de la propiedad de sistema
+     * @return Proporción entre 0 y 1; 0 si no está definida o no es un número
+     */
+    static double leerProporcion(String valor) {
+        if (valor == null || valor.trim().isEmpty()) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Math.min(1, Double.parseDouble(valor.trim())));
+        } catch (NumberFormatException e) {
+            logger.warn("Valor no válido para {}: {}", PROPIEDAD_MUESTREO, valor);
+            return 0;
+        }
+    }
+}
@@ -1,29 +1,132 @@
 package net.xiliosoft.prueba_tecnica.repository;
 
 import net.xiliosoft.prueba_tecnica.model.Task;
-import org.apache.log4j.Logger;
+import net.xiliosoft.prueba_tecnica.model.TaskCursor;
+import net.xiliosoft.prueba_tecnica.model.TaskFilter;
+import net.xiliosoft.prueba_tecnica.model.TaskStatusCounts;
+import net.xiliosoft.prueba_tecnica.model.TaskSummary;
+import net.xiliosoft.prueba_tecnica.service.Timed;
+import org.hibernate.Hibernate;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
+import javax.persistence.OptimisticLockException;
 import javax.persistence.PersistenceContext;
+import javax.persistence.TemporalType;
 import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Repository para operaciones de acceso a datos de la entidad Task.
  * Implementa el patrón Repository para abstraer la capa de persistencia.
+ * Las escrituras van siempre a la base de datos principal; las lecturas por ID
+ * y de los listados completos pueden servirse desde la réplica (ver {@link ReadReplicaRouter}).
  * 
  * @author Christian Domenech
  * @version 1.0
  */
 @Dependent
+@Timed
 public class TaskRepository {
 
-    private static final Logger logger = Logger.getLogger(TaskRepository.class);
+    private static final Logger logger = LoggerFactory.getLogger(TaskRepository.class);
+
+    /**
+     * Máximo de IDs por sentencia IN (límite de Oracle: 1000 expresiones por lista).
+     */
+    public static final int MAX_IDS_POR_SENTENCIA = 1000;
+
+    /**
+     * Campos por los que se permite ordenar las consultas paginadas.
+     * Solo se aceptan atributos conocidos para no ordenar por columnas sin índice.
+     */
+    private static final Map<String, String> CAMPOS_ORDEN = new HashMap<>();
+
+    /**
+     * Región de la caché de consultas para los listados completos (ver ehcache.xml).
+     * Hibernate la invalida en cuanto se escribe en la tabla TASKS.
+     */
+    private static final String REGION_LISTAS = "tasks.listas";
+
+    /**
+     * Tabla de Task, el espacio de consultas por el que Hibernate invalida los listados cacheados.
+     */
+    private static final String TABLA_TAREAS = "TASKS";
+
+    /**
+     * Espacio de consultas propio de las sentencias nativas sobre TASKS. Sin él
+     * Hibernate supone que la sentencia puede tocar cualquier tabla y vacía la
+     * caché de segundo nivel de todas las entidades; con él no vacía ninguna
+     * región y {@link #invalidarEnCache(Collection)} invalida solo lo que cambia.
+     */
+    private static final String ESPACIO_NATIVO = "TASKS_NATIVO";
+
+    /**
+     * Proyección de los listados: construye {@link TaskSummary} directamente,
+     * sin entidades gestionadas en el contexto de persistencia. No lee la
+     * descripción (perezosa en la entidad): los listados completos no la
+     * muestran, y la tabla la lee solo para su página (ver buscarPagina).
+     */
+    private static final String SELECT_RESUMEN = "SELECT NEW net.xiliosoft.prueba_tecnica.model.TaskSummary("
+            + "t.id, t.title, t.dueDate, t.completed, t.createdAt) FROM Task t";
+
+    /**
+     * Proyección con la descripción, para los resultados de búsqueda, la
+     * consulta de una tarea y la exportación.
+     */
+    private static final String SELECT_DETALLE = "SELECT NEW net.xiliosoft.prueba_tecnica.model.TaskSummary("
+            + "t.id, t.title, t.description, t.dueDate, t.completed, t.createdAt) FROM Task t";
+
+    /**
+     * La proyección con descripción sobre el archivo; las tareas archivadas siempre están completadas.
+     */
+    private static final String SELECT_DETALLE_ARCHIVO = "SELECT NEW net.xiliosoft.prueba_tecnica.model.TaskSummary("
+            + "a.id, a.title, a.description, a.dueDate, 1, a.createdAt) FROM ArchivedTask a";
+
+    static {
+        CAMPOS_ORDEN.put("title", "title");
+        CAMPOS_ORDEN.put("dueDate", "dueDate");
+        CAMPOS_ORDEN.put("createdAt", "createdAt");
+    }
 
     @PersistenceContext(unitName = "prueba-tecnica")
     private EntityManager em;
 
+    /**
+     * Réplica de solo lectura; solo se usa cuando {@link ReadReplicaRouter} lo indica.
+     */
+    @PersistenceContext(unitName = "prueba-tecnica-replica")
+    private EntityManager emReplica;
+
+    @Inject
+    private ReadReplicaRouter replicaRouter;
+
     /**
      * Crea una nueva tarea en la base de datos.
      * 
@@ -31,48 +134,335 @@ public class TaskRepository {
      * @return La tarea persistida con su ID generado
      */
     public Task crear(Task task) {
-        logger.info("Creando nueva tarea: " + task.getTitle());
+        logger.debug("Creando nueva tarea: {}", task.getTitle());
         em.persist(task);
         em.flush();
-        logger.info("Tarea creada con ID: " + task.getId());
+        logger.debug("Tarea creada con ID: {}", task.getId());
         return task;
     }
 
     /**
-     * Actualiza una tarea existente en la base de datos.
+     * Inserta un lote de tareas con un único flush.
+     * Con hibernate.jdbc.batch_size los INSERT se envían agrupados; al terminar
+     * se vacía el contexto de persistencia para que no crezca entre lotes.
      * 
-     * @param task La tarea a actualizar
-     * @return La tarea actualizada
+     * @param tareas Las tareas a persistir
+     */
+    public void crearLote(List<Task> tareas) {
+        logger.debug("Insertando lote de {} tareas", tareas.size());
+        for (Task task : tareas) {
+            em.persist(task);
+        }
+        em.flush();
+        em.clear();
+    }
+
+    /**
+     * Actualiza los datos editables de una tarea (título, descripción y fecha
+     * límite) comprobando su versión. La tarea se obtiene del contexto de
+     * persistencia o de la caché de segundo nivel y Hibernate emite
+     * UPDATE ... WHERE ID = ? AND VERSION = ?, de modo que no se bloquea la fila
+     * mientras el usuario edita y un cambio concurrente no se pisa.
+     * 
+     * @param task La tarea con los nuevos datos y la versión que se leyó
+     * @return La tarea actualizada, o null si ya no existe
+     * @throws OptimisticLockException si la tarea cambió desde que se leyó
      */
     public Task actualizar(Task task) {
-        logger.info("Actualizando tarea con ID: " + task.getId());
-        return em.merge(task);
+        logger.debug("Actualizando tarea con ID: {}, versión: {}", task.getId(), task.getVersion());
+        Task actual = em.find(Task.class, task.getId());
+        if (actual == null) {
+            return null;
+        }
+        if (!actual.getVersion().equals(task.getVersion())) {
+            throw new OptimisticLockException("La tarea " + task.getId() + " está en la versión "
+                    + actual.getVersion() + " y se editó la " + task.getVersion(), null, actual);
+        }
+        actual.setTitle(task.getTitle());
+        actual.setDescription(task.getDescription());
+        actual.setDueDate(task.getDueDate());
+        // El UPDATE se lanza aquí para que un conflicto llegue al servicio y no al commit
+        em.flush();
+        return actual;
+    }
+
+    /**
+     * Cambia el estado de varias tareas sin cargarlas y anota el momento en que
+     * se completaron (o lo borra al volver a pendientes), con un único UPDATE
+     * condicional por bloque de {@link #MAX_IDS_POR_SENTENCIA} IDs: solo se
+     * modifican las filas que no están ya en el estado indicado. No se comprueba
+     * la versión (el cambio no depende del estado leído), pero se incrementa
+     * para que una edición concurrente de las mismas tareas detecte el cambio.
+     * <p>
+     * El UPDATE es nativo para que Hibernate no vacíe toda la región de Task de
+     * la caché de segundo nivel, como hace con cualquier UPDATE masivo en JPQL:
+     * solo se invalidan las tareas indicadas y los listados cacheados
+     * (ver {@link #invalidarEnCache(Collection)}).
+     * 
+     * @param ids IDs de las tareas a modificar
+     * @param estado Nuevo valor de completed (0 o 1)
+     * @return Número de filas modificadas; si coincide con el número de IDs,
+     *         cambiaron todas
+     */
+    public int actualizarEstado(Collection<Long> ids, int estado) {
+        logger.debug("Cambiando estado a {} para {} tareas", estado, ids.size());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        invalidarEnCache(ids);
+        List<Long> lista = new ArrayList<>(ids);
+        Date completada = estado == 1 ? new Date() : null;
+        int modificadas = 0;
+        for (int i = 0; i < lista.size(); i += MAX_IDS_POR_SENTENCIA) {
+            List<Long> bloque = lista.subList(i, Math.min(i + MAX_IDS_POR_SENTENCIA, lista.size()));
+            modificadas += em.createNativeQuery("UPDATE TASKS SET COMPLETED = :estado, COMPLETED_AT = :completada,"
+                    + " VERSION = VERSION + 1"
+                    + " WHERE ID IN (:ids) AND (COMPLETED <> :estado OR COMPLETED IS NULL)")
+                    .unwrap(NativeQuery.class)
+                    .addSynchronizedQuerySpace(ESPACIO_NATIVO)
+                    .setParameter("estado", estado)
+                    .setParameter("completada", completada, TemporalType.TIMESTAMP)
+                    .setParameterList("ids", bloque)
+                    .executeUpdate();
+        }
+        return modificadas;
     }
 
     /**
-     * Elimina una tarea de la base de datos.
+     * Elimina una tarea de la base de datos con un DELETE directo, sin cargarla.
+     * El DELETE es nativo para que Hibernate no vacíe toda la región de Task de
+     * la caché de segundo nivel: solo se invalidan la tarea y los listados
+     * cacheados (ver {@link #invalidarEnCache(Collection)}).
      * 
      * @param id El ID de la tarea a eliminar
+     * @return true si se eliminó la tarea, false si no existía
      */
-    public void eliminar(Long id) {
-        logger.info("Eliminando tarea con ID: " + id);
-        Task task = em.find(Task.class, id);
-        if (task != null) {
-            em.remove(task);
-            logger.info("Tarea eliminada exitosamente");
-        } else {
-            logger.warn("No se encontró la tarea con ID: " + id);
+    public boolean eliminar(Long id) {
+        logger.debug("Eliminando tarea con ID: {}", id);
+        invalidarEnCache(Collections.singletonList(id));
+        int eliminadas = em.createNativeQuery("DELETE FROM TASKS WHERE ID = :id")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(ESPACIO_NATIVO)
+                .setParameter("id", id)
+                .executeUpdate();
+        if (eliminadas == 0) {
+            logger.warn("No se encontró la tarea con ID: {}", id);
+        }
+        return eliminadas > 0;
+    }
+
+    /**
+     * Elimina por ID tareas completadas creadas antes de una fecha con
+     * sentencias DELETE masivas. Cada fila se vuelve a comprobar en el propio
+     * DELETE, así que una tarea que otra transacción reabrió después de
+     * seleccionar su ID no se elimina. Los DELETE son nativos, como el de
+     * {@link #eliminar(Long)}, para no vaciar toda la región de Task de la
+     * caché de segundo nivel.
+     * 
+     * @param ids IDs de las tareas a eliminar
+     * @param limite Fecha de creación límite (exclusiva)
+     * @return IDs de las tareas eliminadas
+     */
+    public List<Long> eliminarCompletadasAntesDe(Collection<Long> ids, Date limite) {
+        logger.debug("Eliminando {} tareas completadas por ID", ids.size());
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        invalidarEnCache(ids);
+        List<Long> lista = new ArrayList<>(ids);
+        int eliminadas = 0;
+        for (int i = 0; i < lista.size(); i += MAX_IDS_POR_SENTENCIA) {
+            List<Long> bloque = lista.subList(i, Math.min(i + MAX_IDS_POR_SENTENCIA, lista.size()));
+            eliminadas += em.createNativeQuery("DELETE FROM TASKS WHERE ID IN (:ids)"
+                    + " AND COMPLETED = 1 AND CREATED_AT < :limite")
+                    .unwrap(NativeQuery.class)
+                    .addSynchronizedQuerySpace(ESPACIO_NATIVO)
+                    .setParameterList("ids", bloque)
+                    .setParameter("limite", limite, TemporalType.TIMESTAMP)
+                    .executeUpdate();
+        }
+        if (eliminadas == lista.size()) {
+            return lista;
+        }
+        // Alguna cambió entre la selección y el DELETE: las que siguen en la tabla no se eliminaron
+        Set<Long> restantes = new HashSet<>();
+        for (int i = 0; i < lista.size(); i += MAX_IDS_POR_SENTENCIA) {
+            List<Long> bloque = lista.subList(i, Math.min(i + MAX_IDS_POR_SENTENCIA, lista.size()));
+            restantes.addAll(em.createQuery("SELECT t.id FROM Task t WHERE t.id IN :ids", Long.class)
+                    .setParameter("ids", bloque)
+                    .getResultList());
+        }
+        List<Long> eliminados = new ArrayList<>(eliminadas);
+        for (Long id : lista) {
+            if (!restantes.contains(id)) {
+                eliminados.add(id);
+            }
+        }
+        return eliminados;
+    }
+
+    /**
+     * Obtiene un bloque de IDs de tareas completadas creadas antes de una fecha.
+     * 
+     * @param limite Fecha de creación límite (exclusiva)
+     * @param cantidad Número máximo de IDs
+     * @return IDs encontrados
+     */
+    public List<Long> buscarIdsCompletadasAntesDe(Date limite, int cantidad) {
+        return em.createQuery("SELECT t.id FROM Task t WHERE t.completed = 1 AND t.createdAt < :limite", Long.class)
+                .setParameter("limite", limite)
+                .setMaxResults(cantidad)
+                .getResultList();
+    }
+
+    /**
+     * Obtiene un bloque de IDs de tareas completadas antes de una fecha, para archivarlas.
+     * 
+     * @param limite Momento de compleción límite (exclusivo)
+     * @param cantidad Número máximo de IDs
+     * @return IDs encontrados
+     */
+    public List<Long> buscarIdsParaArchivar(Date limite, int cantidad) {
+        return em.createQuery("SELECT t.id FROM Task t WHERE t.completed = 1 AND t.completedAt < :limite", Long.class)
+                .setParameter("limite", limite, TemporalType.TIMESTAMP)
+                .setMaxResults(cantidad)
+                .getResultList();
+    }
+
+    /**
+     * Mueve tareas completadas antes de una fecha a TASKS_ARCHIVE con un
+     * INSERT ... SELECT y un DELETE en la transacción en curso. Las dos
+     * sentencias vuelven a comprobar cada fila, y el DELETE solo borra las que
+     * siguen en la versión copiada. Como en la purga, una tarea que otra
+     * transacción reabrió o modificó entre la selección y el borrado se salta:
+     * se queda en TASKS, se quita su copia del archivo y el resto del bloque
+     * se archiva.
+     * <p>
+     * El DELETE es nativo para que Hibernate no vacíe toda la región de Task de
+     * la caché de segundo nivel (ver {@link #invalidarEnCache(Collection)}).
+     * 
+     * @param ids IDs de las tareas (como máximo {@link #MAX_IDS_POR_SENTENCIA})
+     * @param limite Momento de compleción límite (exclusivo)
+     * @param momento Fecha de archivo que se guarda en cada fila
+     * @return IDs de las tareas archivadas
+     */
+    public List<Long> archivar(Collection<Long> ids, Date limite, Date momento) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        logger.debug("Archivando {} tareas completadas", ids.size());
+        invalidarEnCache(ids);
+        int copiadas = em.createQuery("INSERT INTO ArchivedTask"
+                + " (id, title, description, dueDate, createdAt, completedAt, version, archivedAt)"
+                + " SELECT t.id, t.title, t.description, t.dueDate, t.createdAt, t.completedAt, t.version, :momento"
+                + " FROM Task t WHERE t.id IN :ids AND t.completed = 1 AND t.completedAt < :limite")
+                .setParameter("momento", momento, TemporalType.TIMESTAMP)
+                .setParameter("ids", ids)
+                .setParameter("limite", limite, TemporalType.TIMESTAMP)
+                .executeUpdate();
+        if (copiadas == 0) {
+            return Collections.emptyList();
+        }
+        int eliminadas = em.createNativeQuery("DELETE FROM TASKS WHERE ID IN (:ids)"
+                + " AND COMPLETED = 1 AND COMPLETED_AT < :limite"
+                + " AND VERSION = (SELECT A.VERSION FROM TASKS_ARCHIVE A WHERE A.ID = TASKS.ID)")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(ESPACIO_NATIVO)
+                .setParameterList("ids", ids)
+                .setParameter("limite", limite, TemporalType.TIMESTAMP)
+                .executeUpdate();
+        if (eliminadas == ids.size()) {
+            return new ArrayList<>(ids);
+        }
+        if (eliminadas != copiadas) {
+            // Alguna cambió entre la copia y el DELETE: sigue en TASKS y su copia sobra
+            em.createQuery("DELETE FROM ArchivedTask a WHERE a.id IN :ids"
+                    + " AND a.id IN (SELECT t.id FROM Task t WHERE t.id IN :ids)")
+                    .setParameter("ids", ids)
+                    .executeUpdate();
         }
+        return em.createQuery("SELECT a.id FROM ArchivedTask a WHERE a.id IN :ids", Long.class)
+                .setParameter("ids", ids)
+                .getResultList();
     }
 
     /**
-     * Busca una tarea por su ID.
+     * Busca una tarea por su ID en la tabla de tareas y, si no está, en el archivo.
+     * 
+     * @param id El ID de la tarea
+     * @return La tarea (proyección de solo lectura) o null si no existe en ninguna de las dos
+     */
+    public TaskSummary buscarPorIdIncluyendoArchivo(Long id) {
+        List<TaskSummary> activa = soloLectura(lectura().createQuery(SELECT_DETALLE + " WHERE t.id = :id",
+                TaskSummary.class))
+                .setParameter("id", id)
+                .getResultList();
+        if (!activa.isEmpty()) {
+            return activa.get(0);
+        }
+        List<TaskSummary> archivada = soloLectura(lectura().createQuery(SELECT_DETALLE_ARCHIVO + " WHERE a.id = :id",
+                TaskSummary.class))
+                .setParameter("id", id)
+                .getResultList();
+        return archivada.isEmpty() ? null : archivada.get(0);
+    }
+
+    /**
+     * Igual que {@link #buscarPorTexto(String, int)}, pero también busca en el
+     * archivo. Las tareas activas van primero; el archivo solo se consulta si
+     * no llenan el resultado.
+     * 
+     * @param texto Texto a buscar
+     * @param cantidad Número máximo de tareas a devolver
+     * @return Tareas encontradas, activas y después archivadas, las más recientes primero
+     */
+    public List<TaskSummary> buscarPorTextoIncluyendoArchivo(String texto, int cantidad) {
+        List<TaskSummary> tareas = new ArrayList<>(buscarPorTexto(texto, cantidad));
+        if (tareas.size() < cantidad) {
+            tareas.addAll(soloLectura(em.createQuery(SELECT_DETALLE_ARCHIVO
+                    + " WHERE LOWER(a.title) LIKE :patron ESCAPE '\\' OR LOWER(a.description) LIKE :patron ESCAPE '\\'"
+                    + " ORDER BY a.createdAt DESC, a.id DESC", TaskSummary.class))
+                    .setParameter("patron", patronLike(texto))
+                    .setMaxResults(cantidad - tareas.size())
+                    .getResultList());
+        }
+        return tareas;
+    }
+
+    /**
+     * Cuenta las tareas archivadas.
+     * 
+     * @return Número de filas de TASKS_ARCHIVE
+     */
+    public long contarArchivadas() {
+        return soloLectura(em.createQuery("SELECT COUNT(a) FROM ArchivedTask a", Long.class)).getSingleResult();
+    }
+
+    /**
+     * Busca una tarea por su ID, con la descripción cargada: quien pide la
+     * tarea completa la muestra, y fuera de la transacción ya no se puede cargar.
+     * Si la tarea está en la caché de segundo nivel se toma de ahí; si no, se
+     * lee con una sola consulta que incluye la descripción perezosa.
      * 
      * @param id El ID de la tarea a buscar
      * @return La tarea encontrada o null si no existe
      */
     public Task buscarPorId(Long id) {
-        return em.find(Task.class, id);
+        EntityManager lectura = lectura();
+        if (!lectura.getEntityManagerFactory().getCache().contains(Task.class, id)) {
+            return lectura.createQuery("SELECT t FROM Task t FETCH ALL PROPERTIES WHERE t.id = :id", Task.class)
+                    .setParameter("id", id)
+                    .getResultStream()
+                    .findFirst()
+                    .orElse(null);
+        }
+        Task task = lectura.find(Task.class, id);
+        if (task != null && !Hibernate.isPropertyInitialized(task, "description")) {
+            // Entrada de caché de una carga sin la descripción (p. ej. una edición que no llegó a
+            // confirmarse): leerla aquí la carga mientras el contexto sigue abierto
+            task.getDescription();
+        }
+        return task;
     }
 
     /**
@@ -80,10 +470,10 @@ public class TaskRepository {
      * 
      * @return Lista de todas las tareas
      */
-    public List<Task> buscarTodas() {
+    public List<TaskSummary> buscarTodas() {
         logger.debug("Buscando todas las tareas");
-        TypedQuery<Task> query = em.createQuery("SELECT t FROM Task t ORDER BY t.createdAt DESC", Task.class);
-        return query.getResultList();
+        TypedQuery<TaskSummary> query = lectura().createQuery(SELECT_RESUMEN + " ORDER BY t.createdAt DESC", TaskSummary.class);
+        return cacheable(soloLectura(query)).getResultList();
     }
 
     /**
@@ -91,10 +481,10 @@ public class TaskRepository {
      * 
      * @return Lista de tareas completadas
      */
-    public List<Task> buscarCompletadas() {
+    public List<TaskSummary> buscarCompletadas() {
         logger.debug("Buscando tareas completadas");
-        TypedQuery<Task> query = em.createQuery("SELECT t FROM Task t WHERE t.completed = 1 ORDER BY t.createdAt DESC", Task.class);
-        return query.getResultList();
+        TypedQuery<TaskSummary> query = lectura().createQuery(SELECT_RESUMEN + " WHERE t.completed = 1 ORDER BY t.createdAt DESC", TaskSummary.class);
+        return cacheable(soloLectura(query)).getResultList();
     }
 
     /**
@@ -102,10 +492,358 @@ public class TaskRepository {
      * 
      * @return Lista de tareas pendientes
      */
-    public List<Task> buscarPendientes() {
+    public List<TaskSummary> buscarPendientes() {
         logger.debug("Buscando tareas pendientes");
-        TypedQuery<Task> query = em.createQuery("SELECT t FROM Task t WHERE t.completed = 0 ORDER BY t.dueDate ASC, t.createdAt DESC", Task.class);
+        TypedQuery<TaskSummary> query = lectura().createQuery(SELECT_RESUMEN + " WHERE t.completed = 0 ORDER BY t.dueDate ASC, t.createdAt DESC", TaskSummary.class);
+        return cacheable(soloLectura(query)).getResultList();
+    }
+
+    /**
+     * Obtiene las tareas con los IDs indicados, en cualquier orden.
+     * 
+     * @param ids IDs de las tareas (como máximo {@link #MAX_IDS_POR_SENTENCIA})
+     * @return Tareas encontradas
+     */
+    public List<TaskSummary> buscarPorIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return soloLectura(em.createQuery(SELECT_DETALLE + " WHERE t.id IN :ids", TaskSummary.class))
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * Busca tareas cuyo título o descripción contienen el texto, sin distinguir
+     * mayúsculas. Recorre la tabla completa: solo se usa si el índice de búsqueda
+     * en memoria no está disponible.
+     * 
+     * @param texto Texto a buscar
+     * @param cantidad Número máximo de tareas a devolver
+     * @return Tareas encontradas, las más recientes primero
+     */
+    public List<TaskSummary> buscarPorTexto(String texto, int cantidad) {
+        return soloLectura(em.createQuery(SELECT_DETALLE
+                + " WHERE LOWER(t.title) LIKE :patron ESCAPE '\\' OR LOWER(t.description) LIKE :patron ESCAPE '\\'"
+                + " ORDER BY t.createdAt DESC, t.id DESC", TaskSummary.class))
+                .setParameter("patron", patronLike(texto))
+                .setMaxResults(cantidad)
+                .getResultList();
+    }
+
+    /**
+     * Obtiene una página de tareas que cumplen el filtro.
+     * La consulta se construye con Criteria añadiendo solo las condiciones
+     * informadas, de modo que Oracle puede usar el índice de cada combinación;
+     * solo se leen de la base de datos las filas de la página solicitada. Es
+     * el único listado que trae la descripción, que la tabla muestra: se lee
+     * solo para las filas de la página.
+     * 
+     * @param filtro Criterios de filtrado (null para todas las tareas)
+     * @param primero Posición de la primera fila (0..n)
+     * @param cantidad Número máximo de filas a devolver
+     * @param campoOrden Atributo por el que ordenar (title, dueDate, createdAt) o null
+     * @param ascendente true para orden ascendente, false para descendente
+     * @return Lista con las tareas de la página
+     */
+    public List<TaskSummary> buscarPagina(TaskFilter filtro, int primero, int cantidad,
+                                          String campoOrden, boolean ascendente) {
+        logger.debug("Buscando página de tareas: primero={}, cantidad={}", primero, cantidad);
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<TaskSummary> cq = cb.createQuery(TaskSummary.class);
+        Root<Task> t = cq.from(Task.class);
+        cq.select(cb.construct(TaskSummary.class, t.get("id"), t.get("title"), t.get("description"),
+                t.get("dueDate"), t.get("completed"), t.get("createdAt")));
+        cq.where(condiciones(cb, t, filtro));
+        String campo = CAMPOS_ORDEN.get(campoOrden);
+        if (campo == null) {
+            cq.orderBy(cb.desc(t.get("createdAt")), cb.desc(t.get("id")));
+        } else {
+            // El título se ordena sin distinguir mayúsculas, con el mismo índice que su filtro
+            Expression<?> clave = "title".equals(campo) ? cb.upper(t.<String>get(campo)) : t.get(campo);
+            cq.orderBy(ascendente ? cb.asc(clave) : cb.desc(clave), cb.desc(t.get("id")));
+        }
+        TypedQuery<TaskSummary> query = soloLectura(em.createQuery(cq));
+        query.setFirstResult(primero);
+        query.setMaxResults(cantidad);
         return query.getResultList();
     }
-}
 
+    /**
+     * Cuenta las tareas que cumplen el filtro.
+     * 
+     * @param filtro Criterios de filtrado (null para todas las tareas)
+     * @return Número de tareas
+     */
+    public long contar(TaskFilter filtro) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<Task> t = cq.from(Task.class);
+        cq.select(cb.count(t));
+        cq.where(condiciones(cb, t, filtro));
+        return soloLectura(em.createQuery(cq)).getSingleResult();
+    }
+
+    /**
+     * Convierte el filtro en condiciones sobre columnas indexadas: igualdad en
+     * COMPLETED, rangos semiabiertos en DUE_DATE y CREATED_AT y prefijo sobre
+     * UPPER(TITLE) (índice basado en función, ver CREATE_TABLE_TASKS.sql).
+     */
+    private static Predicate[] condiciones(CriteriaBuilder cb, Root<Task> t, TaskFilter filtro) {
+        if (filtro == null) {
+            return new Predicate[0];
+        }
+        List<Predicate> condiciones = new ArrayList<>();
+        if (filtro.getEstado() != null) {
+            condiciones.add(cb.equal(t.get("completed"), filtro.getEstado()));
+        }
+        if (filtro.getPrefijoTitulo() != null && !filtro.getPrefijoTitulo().isEmpty()) {
+            String prefijo = filtro.getPrefijoTitulo().toUpperCase()
+                    .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+            condiciones.add(cb.like(cb.upper(t.<String>get("title")), prefijo + "%", '\\'));
+        }
+        if (filtro.getVenceDesde() != null) {
+            condiciones.add(cb.greaterThanOrEqualTo(t.<Date>get("dueDate"), inicioDelDia(filtro.getVenceDesde(), 0)));
+        }
+        if (filtro.getVenceHasta() != null) {
+            condiciones.add(cb.lessThan(t.<Date>get("dueDate"), inicioDelDia(filtro.getVenceHasta(), 1)));
+        }
+        if (filtro.getCreadaDesde() != null) {
+            condiciones.add(cb.greaterThanOrEqualTo(t.<Date>get("createdAt"), inicioDelDia(filtro.getCreadaDesde(), 0)));
+        }
+        if (filtro.getCreadaHasta() != null) {
+            condiciones.add(cb.lessThan(t.<Date>get("createdAt"), inicioDelDia(filtro.getCreadaHasta(), 1)));
+        }
+        return condiciones.toArray(new Predicate[0]);
+    }
+
+    /**
+     * @return Medianoche del día de la fecha más los días indicados
+     */
+    private static Date inicioDelDia(Date fecha, int dias) {
+        Calendar calendario = Calendar.getInstance();
+        calendario.setTime(fecha);
+        calendario.set(Calendar.HOUR_OF_DAY, 0);
+        calendario.set(Calendar.MINUTE, 0);
+        calendario.set(Calendar.SECOND, 0);
+        calendario.set(Calendar.MILLISECOND, 0);
+        calendario.add(Calendar.DAY_OF_MONTH, dias);
+        return calendario.getTime();
+    }
+
+    /**
+     * Obtiene las tareas siguientes al cursor en orden createdAt DESC, id DESC.
+     * La condición sobre (CREATED_AT, ID) permite recorrer el índice compuesto
+     * por rango, por lo que el coste no depende de lo profunda que sea la página.
+     * 
+     * @param cursor Posición de la última tarea vista o null para la primera página
+     * @param cantidad Número máximo de tareas a devolver
+     * @return Lista de tareas a continuación del cursor
+     */
+    public List<TaskSummary> buscarDespuesDe(TaskCursor cursor, int cantidad) {
+        return buscarPorCreacionDespuesDe(null, cursor, cantidad);
+    }
+
+    /**
+     * Igual que {@link #buscarDespuesDe(TaskCursor, int)}, solo con las tareas
+     * completadas (índice sobre COMPLETED, CREATED_AT).
+     * 
+     * @param cursor Posición de la última tarea vista o null para la primera página
+     * @param cantidad Número máximo de tareas a devolver
+     * @return Lista de tareas completadas a continuación del cursor
+     */
+    public List<TaskSummary> buscarCompletadasDespuesDe(TaskCursor cursor, int cantidad) {
+        return buscarPorCreacionDespuesDe("t.completed = 1", cursor, cantidad);
+    }
+
+    /**
+     * Obtiene las tareas pendientes siguientes al cursor en orden
+     * dueDate ASC (nulos al final), createdAt DESC, id DESC.
+     * 
+     * @param cursor Posición de la última tarea vista o null para la primera página
+     * @param cantidad Número máximo de tareas a devolver
+     * @return Lista de tareas pendientes a continuación del cursor
+     */
+    public List<TaskSummary> buscarPendientesDespuesDe(TaskCursor cursor, int cantidad) {
+        String orden = " ORDER BY t.dueDate ASC NULLS LAST, t.createdAt DESC, t.id DESC";
+        TypedQuery<TaskSummary> query;
+        if (cursor == null) {
+            query = em.createQuery(SELECT_RESUMEN + " WHERE t.completed = 0" + orden, TaskSummary.class);
+        } else if (cursor.getDueDate() == null) {
+            // Ya se está recorriendo el tramo final de tareas sin fecha límite
+            query = em.createQuery(SELECT_RESUMEN + " WHERE t.completed = 0 AND t.dueDate IS NULL"
+                    + " AND t.createdAt <= :createdAt AND (t.createdAt < :createdAt OR t.id < :id)"
+                    + orden, TaskSummary.class);
+            query.setParameter("createdAt", cursor.getCreatedAt());
+            query.setParameter("id", cursor.getId());
+        } else {
+            query = em.createQuery(SELECT_RESUMEN + " WHERE t.completed = 0"
+                    + " AND (t.dueDate > :dueDate OR t.dueDate IS NULL"
+                    + " OR (t.dueDate = :dueDate AND t.createdAt <= :createdAt"
+                    + " AND (t.createdAt < :createdAt OR t.id < :id)))"
+                    + orden, TaskSummary.class);
+            query.setParameter("dueDate", cursor.getDueDate());
+            query.setParameter("createdAt", cursor.getCreatedAt());
+            query.setParameter("id", cursor.getId());
+        }
+        query.setMaxResults(cantidad);
+        return soloLectura(query).getResultList();
+    }
+
+    /**
+     * Cuenta las tareas pendientes, completadas y vencidas con una única consulta
+     * agregada (GROUP BY COMPLETED), resoluble desde los índices sobre COMPLETED y DUE_DATE.
+     * 
+     * @param ahora Instante de referencia para considerar una tarea vencida
+     * @return Contadores por estado
+     */
+    public TaskStatusCounts contarPorEstado(Date ahora) {
+        List<Object[]> filas = em.createQuery("SELECT t.completed, COUNT(t),"
+                + " SUM(CASE WHEN t.dueDate < :ahora THEN 1 ELSE 0 END)"
+                + " FROM Task t GROUP BY t.completed", Object[].class)
+                .setParameter("ahora", ahora)
+                .getResultList();
+        long pendientes = 0;
+        long completadas = 0;
+        long vencidas = 0;
+        for (Object[] fila : filas) {
+            long cantidad = ((Number) fila[1]).longValue();
+            if (fila[0] != null && ((Number) fila[0]).intValue() == 1) {
+                completadas += cantidad;
+            } else {
+                pendientes += cantidad;
+                vencidas += fila[2] != null ? ((Number) fila[2]).longValue() : 0;
+            }
+        }
+        return new TaskStatusCounts(pendientes, completadas, vencidas);
+    }
+
+    /**
+     * Recorre todas las tareas sin materializarlas en una lista.
+     * Las filas se leen con un cursor JDBC en bloques de fetchSize como
+     * proyecciones, que no se registran en el contexto de persistencia,
+     * por lo que la memoria no depende del número de filas.
+     * Debe invocarse dentro de una transacción para que el cursor siga abierto.
+     * 
+     * @param fetchSize Filas que se traen de la base de datos por cada viaje
+     * @param consumidor Receptor de cada tarea (sin descripción)
+     */
+    public void recorrerTodas(int fetchSize, Consumer<TaskSummary> consumidor) {
+        recorrer(SELECT_RESUMEN, fetchSize, consumidor);
+    }
+
+    /**
+     * Igual que {@link #recorrerTodas(int, Consumer)}, pero leyendo también la
+     * descripción, para la exportación y el índice de búsqueda.
+     * 
+     * @param fetchSize Filas que se traen de la base de datos por cada viaje
+     * @param consumidor Receptor de cada tarea
+     */
+    public void recorrerTodasConDescripcion(int fetchSize, Consumer<TaskSummary> consumidor) {
+        recorrer(SELECT_DETALLE, fetchSize, consumidor);
+    }
+
+    private void recorrer(String jpql, int fetchSize, Consumer<TaskSummary> consumidor) {
+        logger.debug("Recorriendo todas las tareas con fetchSize={}", fetchSize);
+        TypedQuery<TaskSummary> query = soloLectura(em.createQuery(jpql, TaskSummary.class));
+        query.setHint("org.hibernate.fetchSize", fetchSize);
+        query.setHint("org.hibernate.cacheMode", "IGNORE");
+        try (Stream<TaskSummary> tareas = query.getResultStream()) {
+            tareas.forEach(consumidor);
+        }
+    }
+
+    /**
+     * EntityManager para las lecturas que admiten réplica: la réplica si la
+     * lectura en curso se ha enrutado a ella, la base de datos principal si no.
+     */
+    private EntityManager lectura() {
+        return replicaRouter.isLecturaEnReplica() ? emReplica : em;
+    }
+
+    /**
+     * Patrón LIKE que contiene el texto en minúsculas, con los comodines escapados.
+     */
+    private static String patronLike(String texto) {
+        return "%" + texto.toLowerCase().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    /**
+     * Página en orden createdAt DESC, id DESC.
+     *
+     * @param condicion Condición JPQL adicional sobre t, o null para todas las tareas
+     */
+    private List<TaskSummary> buscarPorCreacionDespuesDe(String condicion, TaskCursor cursor, int cantidad) {
+        List<String> condiciones = new ArrayList<>();
+        if (condicion != null) {
+            condiciones.add(condicion);
+        }
+        if (cursor != null) {
+            condiciones.add("t.createdAt <= :createdAt AND (t.createdAt < :createdAt OR t.id < :id)");
+        }
+        String where = condiciones.isEmpty() ? "" : " WHERE " + String.join(" AND ", condiciones);
+        TypedQuery<TaskSummary> query = em.createQuery(SELECT_RESUMEN + where
+                + " ORDER BY t.createdAt DESC, t.id DESC", TaskSummary.class);
+        if (cursor != null) {
+            query.setParameter("createdAt", cursor.getCreatedAt());
+            query.setParameter("id", cursor.getId());
+        }
+        query.setMaxResults(cantidad);
+        return soloLectura(query).getResultList();
+    }
+
+    /**
+     * Invalida en la caché de segundo nivel las tareas indicadas y los
+     * listados cacheados que leen de TASKS, como Hibernate hace con una
+     * modificación normal: las entradas quedan bloqueadas (soft lock) hasta
+     * que termina la transacción, para que ninguna lectura concurrente vuelva
+     * a guardar el estado anterior, y las consultas cacheadas anteriores al
+     * commit dejan de ser válidas. El resto de tareas sigue en la caché.
+     */
+    private void invalidarEnCache(Collection<Long> ids) {
+        SessionImplementor sesion = em.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor factoria = sesion.getFactory();
+        EntityPersister persister = factoria.getMetamodel().entityPersister(Task.class);
+        EntityDataAccess acceso = persister.canWriteToCache() ? persister.getCacheAccessStrategy() : null;
+        TimestampsCache consultas = factoria.getCache().getTimestampsCache();
+        String[] espacios = {TABLA_TAREAS};
+
+        Map<Object, SoftLock> bloqueos = new HashMap<>();
+        if (acceso != null) {
+            for (Long id : ids) {
+                Object clave = acceso.generateCacheKey(id, persister, factoria, sesion.getTenantIdentifier());
+                bloqueos.put(clave, acceso.lockItem(sesion, clave, null));
+            }
+        }
+        if (consultas != null) {
+            consultas.preInvalidate(espacios, sesion);
+        }
+        sesion.getActionQueue().registerProcess((exito, s) -> {
+            for (Map.Entry<Object, SoftLock> bloqueo : bloqueos.entrySet()) {
+                acceso.unlockItem(s, bloqueo.getKey(), bloqueo.getValue());
+            }
+            if (consultas != null) {
+                consultas.invalidate(espacios, s);
+            }
+        });
+    }
+
+    /**
+     * Marca una consulta como de solo lectura y sin flush automático previo:
+     * los listados no necesitan ver cambios pendientes del contexto de persistencia.
+     */
+    private static <T> TypedQuery<T> soloLectura(TypedQuery<T> query) {
+        query.setHint("org.hibernate.readOnly", true);
+        query.setHint("org.hibernate.flushMode", "MANUAL");
+        return query;
+    }
+
+    /**
+     * Marca una consulta como cacheable en la región de listados.
+     */
+    private static <T> TypedQuery<T> cacheable(TypedQuery<T> query) {
+        query.setHint("org.hibernate.cacheable", true);
+        query.setHint("org.hibernate.cacheRegion", REGION_LISTAS);
+        return query;
+    }
+}
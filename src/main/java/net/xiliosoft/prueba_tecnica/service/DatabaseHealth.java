@@ -0,0 +1,229 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Resultado de las comprobaciones periódicas de una base de datos.
+ *
+ * Solo escribe el hilo de {@link DatabaseHealthMonitor}; cada comprobación
+ * publica un {@link Estado} inmutable que las peticiones leen sin bloquear
+ * ni acceder a la base de datos.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class DatabaseHealth {
+
+    /**
+     * Número de latencias que se conservan en el historial.
+     */
+    public static final int HISTORIAL = 60;
+
+    private final String nombre;
+    private final long[] latencias = new long[HISTORIAL];
+    private int siguiente;
+    private int muestras;
+    private int fallosConsecutivos;
+    private String ultimoError;
+    private Date ultimoErrorFecha;
+
+    private volatile Estado estado;
+
+    /**
+     * @param nombre Nombre con el que se muestra la base de datos
+     */
+    public DatabaseHealth(String nombre) {
+        this.nombre = nombre;
+        this.estado = new Estado(nombre, false, false, null, 0, Collections.emptyList(), 0, null, null, null);
+    }
+
+    /**
+     * Registra una comprobación correcta.
+     *
+     * @param momento Fecha de la comprobación en milisegundos
+     * @param nanos Duración de la comprobación
+     * @param pool Estadísticas del pool de conexiones, o null si no están disponibles
+     */
+    public void registrarExito(long momento, long nanos, Pool pool) {
+        fallosConsecutivos = 0;
+        publicar(true, momento, nanos, pool);
+    }
+
+    /**
+     * Registra una comprobación fallida.
+     *
+     * @param momento Fecha de la comprobación en milisegundos
+     * @param nanos Duración hasta el fallo
+     * @param error Causa del fallo
+     * @param pool Estadísticas del pool de conexiones, o null si no están disponibles
+     */
+    public void registrarFallo(long momento, long nanos, Throwable error, Pool pool) {
+        fallosConsecutivos++;
+        ultimoError = error.getClass().getSimpleName() + ": " + error.getMessage();
+        ultimoErrorFecha = new Date(momento);
+        publicar(false, momento, nanos, pool);
+    }
+
+    private void publicar(boolean disponible, long momento, long nanos, Pool pool) {
+        latencias[siguiente] = nanos;
+        siguiente = (siguiente + 1) % HISTORIAL;
+        muestras = Math.min(muestras + 1, HISTORIAL);
+
+        List<Double> historial = new ArrayList<>(muestras);
+        for (int i = muestras; i > 0; i--) {
+            historial.add(latencias[(siguiente - i + HISTORIAL) % HISTORIAL] / 1_000_000.0);
+        }
+        estado = new Estado(nombre, true, disponible, new Date(momento), fallosConsecutivos,
+                Collections.unmodifiableList(historial), nanos, ultimoError, ultimoErrorFecha, pool);
+    }
+
+    /**
+     * @return Resultado de la última comprobación
+     */
+    public Estado getEstado() {
+        return estado;
+    }
+
+    /**
+     * Estado de una base de datos tras una comprobación. Los tiempos se expresan en milisegundos.
+     */
+    public static class Estado {
+
+        private final String nombre;
+        private final boolean comprobada;
+        private final boolean disponible;
+        private final Date ultimaComprobacion;
+        private final int fallosConsecutivos;
+        private final List<Double> historial;
+        private final long latenciaNanos;
+        private final String ultimoError;
+        private final Date ultimoErrorFecha;
+        private final Pool pool;
+
+        Estado(String nombre, boolean comprobada, boolean disponible, Date ultimaComprobacion,
+               int fallosConsecutivos, List<Double> historial, long latenciaNanos,
+               String ultimoError, Date ultimoErrorFecha, Pool pool) {
+            this.nombre = nombre;
+            this.comprobada = comprobada;
+            this.disponible = disponible;
+            this.ultimaComprobacion = ultimaComprobacion;
+            this.fallosConsecutivos = fallosConsecutivos;
+            this.historial = historial;
+            this.latenciaNanos = latenciaNanos;
+            this.ultimoError = ultimoError;
+            this.ultimoErrorFecha = ultimoErrorFecha;
+            this.pool = pool;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        /**
+         * @return false hasta que termina la primera comprobación
+         */
+        public boolean isComprobada() {
+            return comprobada;
+        }
+
+        public boolean isDisponible() {
+            return disponible;
+        }
+
+        public Date getUltimaComprobacion() {
+            return ultimaComprobacion;
+        }
+
+        public int getFallosConsecutivos() {
+            return fallosConsecutivos;
+        }
+
+        /**
+         * @return Latencias de las últimas comprobaciones, de la más antigua a la más reciente
+         */
+        public List<Double> getHistorial() {
+            return historial;
+        }
+
+        public double getLatencia() {
+            return latenciaNanos / 1_000_000.0;
+        }
+
+        public double getLatenciaMedia() {
+            return historial.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+        }
+
+        public double getLatenciaMaxima() {
+            return historial.stream().mapToDouble(Double::doubleValue).max().orElse(0);
+        }
+
+        public String getUltimoError() {
+            return ultimoError;
+        }
+
+        public Date getUltimoErrorFecha() {
+            return ultimoErrorFecha;
+        }
+
+        public Pool getPool() {
+            return pool;
+        }
+    }
+
+    /**
+     * Estadísticas del pool de conexiones del datasource.
+     */
+    public static class Pool {
+
+        private final int activas;
+        private final int disponibles;
+        private final int enUso;
+        private final int maximoEnUso;
+        private final int esperando;
+        private final long esperaMaxima;
+
+        /**
+         * @param activas Conexiones abiertas
+         * @param disponibles Conexiones que se pueden entregar sin esperar
+         * @param enUso Conexiones prestadas en este momento
+         * @param maximoEnUso Máximo de conexiones prestadas a la vez
+         * @param esperando Peticiones que han tenido que esperar una conexión
+         * @param esperaMaxima Espera más larga por una conexión, en milisegundos
+         */
+        public Pool(int activas, int disponibles, int enUso, int maximoEnUso, int esperando, long esperaMaxima) {
+            this.activas = activas;
+            this.disponibles = disponibles;
+            this.enUso = enUso;
+            this.maximoEnUso = maximoEnUso;
+            this.esperando = esperando;
+            this.esperaMaxima = esperaMaxima;
+        }
+
+        public int getActivas() {
+            return activas;
+        }
+
+        public int getDisponibles() {
+            return disponibles;
+        }
+
+        public int getEnUso() {
+            return enUso;
+        }
+
+        public int getMaximoEnUso() {
+            return maximoEnUso;
+        }
+
+        public int getEsperando() {
+            return esperando;
+        }
+
+        public long getEsperaMaxima() {
+            return esperaMaxima;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comprueba periódicamente, desde un único hilo en segundo plano, que la base
+ * de datos principal y la réplica responden, y guarda el resultado para la
+ * pantalla de inicio y los endpoints /health/live y /health/ready. Así las
+ * peticiones nunca esperan a una comprobación.
+ *
+ * Las estadísticas del pool se leen por JMX del subsistema de datasources
+ * (requieren statistics-enabled="true" en el datasource); si no están
+ * disponibles se muestran vacías.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@ApplicationScoped
+public class DatabaseHealthMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseHealthMonitor.class);
+
+    /**
+     * Intervalo entre comprobaciones.
+     */
+    public static final long INTERVALO_SEGUNDOS = 10L;
+
+    /**
+     * Tiempo máximo de la consulta de comprobación.
+     */
+    public static final int TIEMPO_MAXIMO_SEGUNDOS = 5;
+
+    /**
+     * Antigüedad a partir de la cual el último resultado ya no sirve para declarar la aplicación lista.
+     */
+    public static final long CADUCIDAD_MILISEGUNDOS = 3 * INTERVALO_SEGUNDOS * 1000L;
+
+    private static final String CONSULTA = "SELECT 1 FROM DUAL";
+
+    @Resource(lookup = "java:/jdbc/OracleDS")
+    private DataSource dataSourcePrincipal;
+
+    @Resource(lookup = "java:/jdbc/OracleReplicaDS")
+    private DataSource dataSourceReplica;
+
+    @Resource
+    private ManagedScheduledExecutorService executor;
+
+    private final DatabaseHealth principal = new DatabaseHealth("principal");
+    private final DatabaseHealth replica = new DatabaseHealth("replica");
+
+    private ScheduledFuture<?> tareaPeriodica;
+
+    /**
+     * Programa las comprobaciones; la primera se hace al arrancar.
+     */
+    void alIniciar(@Observes @Initialized(ApplicationScoped.class) Object inicio) {
+        // scheduleWithFixedDelay no solapa ejecuciones: como mucho un hilo comprobando a la vez
+        tareaPeriodica = executor.scheduleWithFixedDelay(this::comprobar, 0, INTERVALO_SEGUNDOS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void alDetener() {
+        if (tareaPeriodica != null) {
+            tareaPeriodica.cancel(false);
+        }
+    }
+
+    /**
+     * Comprueba ambas bases de datos. No lanza excepciones para no cancelar la programación.
+     */
+    void comprobar() {
+        comprobar(principal, dataSourcePrincipal, "OracleDS");
+        comprobar(replica, dataSourceReplica, "OracleReplicaDS");
+    }
+
+    private void comprobar(DatabaseHealth salud, DataSource dataSource, String nombrePool) {
+        long inicio = System.nanoTime();
+        try (Connection conexion = dataSource.getConnection(); Statement sentencia = conexion.createStatement()) {
+            sentencia.setQueryTimeout(TIEMPO_MAXIMO_SEGUNDOS);
+            sentencia.execute(CONSULTA);
+            salud.registrarExito(System.currentTimeMillis(), System.nanoTime() - inicio, leerPool(nombrePool));
+        } catch (Exception e) {
+            boolean yaFallaba = salud.getEstado().isComprobada() && !salud.getEstado().isDisponible();
+            salud.registrarFallo(System.currentTimeMillis(), System.nanoTime() - inicio, e, leerPool(nombrePool));
+            if (!yaFallaba) {
+                logger.warn("La base de datos {} no responde: {}", salud.getEstado().getNombre(), e.getMessage());
+            }
+        }
+    }
+
+    private static DatabaseHealth.Pool leerPool(String nombrePool) {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nombre = new ObjectName(
+                    "jboss.as:subsystem=datasources,data-source=" + nombrePool + ",statistics=pool");
+            if (!servidor.isRegistered(nombre)) {
+                return null;
+            }
+            return new DatabaseHealth.Pool(
+                    (int) atributo(servidor, nombre, "activeCount"),
+                    (int) atributo(servidor, nombre, "availableCount"),
+                    (int) atributo(servidor, nombre, "inUseCount"),
+                    (int) atributo(servidor, nombre, "maxUsedCount"),
+                    (int) atributo(servidor, nombre, "waitCount"),
+                    atributo(servidor, nombre, "maxWaitTime"));
+        } catch (Exception e) {
+            logger.debug("Estadísticas del pool {} no disponibles: {}", nombrePool, e.getMessage());
+            return null;
+        }
+    }
+
+    private static long atributo(MBeanServer servidor, ObjectName nombre, String atributo) throws Exception {
+        Object valor = servidor.getAttribute(nombre, atributo);
+        return valor instanceof Number ? ((Number) valor).longValue() : Long.parseLong(String.valueOf(valor));
+    }
+
+    /**
+     * @return Último estado de la base de datos principal
+     */
+    public DatabaseHealth.Estado getPrincipal() {
+        return principal.getEstado();
+    }
+
+    /**
+     * @return Último estado de la réplica
+     */
+    public DatabaseHealth.Estado getReplica() {
+        return replica.getEstado();
+    }
+
+    /**
+     * La aplicación está lista si la última comprobación de la base de datos
+     * principal fue correcta y reciente. La réplica no cuenta: sin ella las
+     * lecturas van a la principal.
+     *
+     * @return true si la aplicación puede atender peticiones
+     */
+    public boolean isLista() {
+        DatabaseHealth.Estado estado = principal.getEstado();
+        return estado.isDisponible()
+                && System.currentTimeMillis() - estado.getUltimaComprobacion().getTime() < CADUCIDAD_MILISEGUNDOS;
+    }
+}
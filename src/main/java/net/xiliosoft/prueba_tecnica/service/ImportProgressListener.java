@@ -0,0 +1,15 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+/**
+ * Recibe el progreso de una importación masiva tras confirmar cada lote.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public interface ImportProgressListener {
+
+    /**
+     * @param progreso Totales acumulados hasta el último lote confirmado
+     */
+    void progreso(ImportResult progreso);
+}
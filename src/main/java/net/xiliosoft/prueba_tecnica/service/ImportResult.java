@@ -0,0 +1,57 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Estado de una importación masiva de tareas.
+ * Se usa tanto para informar del progreso tras cada lote como para el resultado final.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public final class ImportResult {
+
+    private final long leidas;
+    private final long insertadas;
+    private final long rechazadas;
+    private final long milisegundos;
+    private final List<ImportRowError> errores;
+
+    public ImportResult(long leidas, long insertadas, long rechazadas, long milisegundos,
+                        List<ImportRowError> errores) {
+        this.leidas = leidas;
+        this.insertadas = insertadas;
+        this.rechazadas = rechazadas;
+        this.milisegundos = milisegundos;
+        this.errores = Collections.unmodifiableList(new ArrayList<>(errores));
+    }
+
+    public long getLeidas() { return leidas; }
+
+    public long getInsertadas() { return insertadas; }
+
+    public long getRechazadas() { return rechazadas; }
+
+    public long getMilisegundos() { return milisegundos; }
+
+    /**
+     * @return Línea y motivo de las primeras filas rechazadas
+     *         (como mucho {@link TaskImportReader#MAX_ERRORES_GUARDADOS})
+     */
+    public List<ImportRowError> getErrores() { return errores; }
+
+    /**
+     * @return Tareas insertadas por segundo desde el inicio de la importación
+     */
+    public double getTareasPorSegundo() {
+        return milisegundos == 0 ? insertadas : insertadas * 1000.0 / milisegundos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("leídas=%d, insertadas=%d, rechazadas=%d, tiempo=%d ms, %.1f tareas/s",
+                leidas, insertadas, rechazadas, milisegundos, getTareasPorSegundo());
+    }
+}
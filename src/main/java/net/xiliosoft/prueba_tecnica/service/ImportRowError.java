@@ -0,0 +1,30 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+/**
+ * Fila rechazada en una importación masiva: línea del fichero y motivo.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public final class ImportRowError {
+
+    private final long linea;
+    private final String motivo;
+
+    public ImportRowError(long linea, String motivo) {
+        this.linea = linea;
+        this.motivo = motivo;
+    }
+
+    /**
+     * @return Línea del fichero (la cabecera de un CSV es la línea 1)
+     */
+    public long getLinea() { return linea; }
+
+    public String getMotivo() { return motivo; }
+
+    @Override
+    public String toString() {
+        return "línea " + linea + ": " + motivo;
+    }
+}
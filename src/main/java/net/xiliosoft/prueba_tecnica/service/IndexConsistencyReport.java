@@ -0,0 +1,56 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+/**
+ * Resultado de comparar el índice de estados en memoria con la base de datos.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public final class IndexConsistencyReport {
+
+    private final boolean cargado;
+    private final long enBaseDeDatos;
+    private final long faltantes;
+    private final long sobrantes;
+    private final long distintas;
+
+    public IndexConsistencyReport(boolean cargado, long enBaseDeDatos, long faltantes, long sobrantes, long distintas) {
+        this.cargado = cargado;
+        this.enBaseDeDatos = enBaseDeDatos;
+        this.faltantes = faltantes;
+        this.sobrantes = sobrantes;
+        this.distintas = distintas;
+    }
+
+    /**
+     * @return false si el índice aún no se había cargado al hacer la comprobación
+     */
+    public boolean isCargado() { return cargado; }
+
+    public long getEnBaseDeDatos() { return enBaseDeDatos; }
+
+    /**
+     * @return Tareas presentes en la base de datos que no están en el índice
+     */
+    public long getFaltantes() { return faltantes; }
+
+    /**
+     * @return Tareas del índice que ya no existen en la base de datos
+     */
+    public long getSobrantes() { return sobrantes; }
+
+    /**
+     * @return Tareas cuyo estado o campos de ordenación difieren
+     */
+    public long getDistintas() { return distintas; }
+
+    public boolean isConsistente() {
+        return cargado && faltantes == 0 && sobrantes == 0 && distintas == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "cargado=" + cargado + ", enBaseDeDatos=" + enBaseDeDatos + ", faltantes=" + faltantes
+                + ", sobrantes=" + sobrantes + ", distintas=" + distintas;
+    }
+}
@@ -0,0 +1,185 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias de una operación, pensado para estar siempre activo.
+ *
+ * Registrar una medida solo incrementa contadores atómicos: no hay bloqueos ni
+ * se crean objetos (aparte de las celdas que {@link LongAdder} reserva una vez
+ * cuando detecta contención). Las duraciones se agrupan en cubetas
+ * logarítmicas con 8 subdivisiones por potencia de dos, de modo que los
+ * percentiles tienen un error relativo inferior al 12,5% en todo el rango
+ * (hasta algo más de una hora; las duraciones mayores caen en la última cubeta).
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class LatencyHistogram {
+
+    /** Bits de subdivisión de cada potencia de dos. */
+    private static final int BITS_SUBDIVISION = 3;
+    private static final int SUBDIVISIONES = 1 << BITS_SUBDIVISION;
+    /** Por debajo de este valor cada nanosegundo tiene su cubeta. */
+    private static final int LIMITE_LINEAL = SUBDIVISIONES * 2;
+    private static final int MAXIMO_EXPONENTE = 41;
+
+    static final int CUBETAS = LIMITE_LINEAL + (MAXIMO_EXPONENTE - BITS_SUBDIVISION) * SUBDIVISIONES;
+
+    private final String operacion;
+    private final AtomicLongArray cubetas = new AtomicLongArray(CUBETAS);
+    private final LongAdder errores = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maximoNanos = new AtomicLong();
+
+    /**
+     * @param operacion Nombre de la operación medida
+     */
+    public LatencyHistogram(String operacion) {
+        this.operacion = operacion;
+    }
+
+    /**
+     * Registra una llamada.
+     *
+     * @param nanos Duración en nanosegundos
+     * @param error true si terminó con una excepción
+     */
+    public void registrar(long nanos, boolean error) {
+        long valor = Math.max(0, nanos);
+        cubetas.incrementAndGet(indice(valor));
+        totalNanos.add(valor);
+        if (error) {
+            errores.increment();
+        }
+        long maximo = maximoNanos.get();
+        while (valor > maximo && !maximoNanos.compareAndSet(maximo, valor)) {
+            maximo = maximoNanos.get();
+        }
+    }
+
+    static int indice(long valor) {
+        if (valor < LIMITE_LINEAL) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        if (exponente > MAXIMO_EXPONENTE) {
+            return CUBETAS - 1;
+        }
+        int subdivision = (int) (valor >>> (exponente - BITS_SUBDIVISION)) & (SUBDIVISIONES - 1);
+        return LIMITE_LINEAL + (exponente - BITS_SUBDIVISION - 1) * SUBDIVISIONES + subdivision;
+    }
+
+    /**
+     * @return Mayor valor que cae en la cubeta
+     */
+    static long limiteSuperior(int indice) {
+        if (indice < LIMITE_LINEAL) {
+            return indice;
+        }
+        int exponente = (indice - LIMITE_LINEAL) / SUBDIVISIONES + BITS_SUBDIVISION + 1;
+        long subdivision = (indice - LIMITE_LINEAL) % SUBDIVISIONES;
+        long ancho = 1L << (exponente - BITS_SUBDIVISION);
+        return (SUBDIVISIONES + subdivision) * ancho + ancho - 1;
+    }
+
+    /**
+     * Copia el estado actual y calcula los percentiles. Las llamadas que se
+     * registran mientras se copia pueden quedar o no incluidas.
+     *
+     * @return Estado del histograma
+     */
+    public Snapshot instantanea() {
+        long[] copia = new long[CUBETAS];
+        long llamadas = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            copia[i] = cubetas.get(i);
+            llamadas += copia[i];
+        }
+        long maximo = maximoNanos.get();
+        return new Snapshot(operacion, llamadas, errores.sum(), totalNanos.sum(), maximo,
+                percentil(copia, llamadas, 0.5, maximo),
+                percentil(copia, llamadas, 0.99, maximo),
+                percentil(copia, llamadas, 0.999, maximo));
+    }
+
+    private static long percentil(long[] copia, long llamadas, double percentil, long maximo) {
+        if (llamadas == 0) {
+            return 0;
+        }
+        long posicion = (long) Math.ceil(percentil * llamadas);
+        long acumulado = 0;
+        for (int i = 0; i < copia.length; i++) {
+            acumulado += copia[i];
+            if (acumulado >= posicion) {
+                return Math.min(limiteSuperior(i), maximo);
+            }
+        }
+        return maximo;
+    }
+
+    /**
+     * Estado de un histograma en un momento dado. Los tiempos se expresan en milisegundos.
+     */
+    public static class Snapshot {
+
+        private final String operacion;
+        private final long llamadas;
+        private final long errores;
+        private final long totalNanos;
+        private final long maximoNanos;
+        private final long p50Nanos;
+        private final long p99Nanos;
+        private final long p999Nanos;
+
+        Snapshot(String operacion, long llamadas, long errores, long totalNanos, long maximoNanos,
+                 long p50Nanos, long p99Nanos, long p999Nanos) {
+            this.operacion = operacion;
+            this.llamadas = llamadas;
+            this.errores = errores;
+            this.totalNanos = totalNanos;
+            this.maximoNanos = maximoNanos;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+            this.p999Nanos = p999Nanos;
+        }
+
+        public String getOperacion() {
+            return operacion;
+        }
+
+        public long getLlamadas() {
+            return llamadas;
+        }
+
+        public long getErrores() {
+            return errores;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public double getMedia() {
+            return llamadas == 0 ? 0 : totalNanos / 1_000_000.0 / llamadas;
+        }
+
+        public double getMaximo() {
+            return maximoNanos / 1_000_000.0;
+        }
+
+        public double getP50() {
+            return p50Nanos / 1_000_000.0;
+        }
+
+        public double getP99() {
+            return p99Nanos / 1_000_000.0;
+        }
+
+        public double getP999() {
+            return p999Nanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Histogramas de latencia por operación (Clase.metodo), acumulados desde el
+ * arranque de la aplicación. Los rellena {@link TimedInterceptor}.
+ *
+ * Cada método se resuelve a su histograma con una búsqueda por el propio
+ * {@link Method}, sin construir el nombre en cada llamada; los métodos
+ * sobrecargados comparten histograma. Los valores son de este nodo.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@ApplicationScoped
+public class LatencyMetrics {
+
+    private final ConcurrentMap<Method, LatencyHistogram> porMetodo = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> porOperacion = new ConcurrentHashMap<>();
+
+    /**
+     * @param metodo Método medido
+     * @return Histograma de la operación
+     */
+    public LatencyHistogram de(Method metodo) {
+        LatencyHistogram histograma = porMetodo.get(metodo);
+        if (histograma == null) {
+            histograma = porMetodo.computeIfAbsent(metodo,
+                    m -> de(m.getDeclaringClass().getSimpleName() + "." + m.getName()));
+        }
+        return histograma;
+    }
+
+    /**
+     * @param operacion Nombre de la operación
+     * @return Histograma de la operación, creado si no existía
+     */
+    public LatencyHistogram de(String operacion) {
+        return porOperacion.computeIfAbsent(operacion, LatencyHistogram::new);
+    }
+
+    /**
+     * @return Estado de todas las operaciones con alguna llamada, ordenadas por nombre
+     */
+    public List<LatencyHistogram.Snapshot> instantaneas() {
+        List<LatencyHistogram.Snapshot> resultado = new ArrayList<>();
+        for (LatencyHistogram histograma : porOperacion.values()) {
+            LatencyHistogram.Snapshot instantanea = histograma.instantanea();
+            if (instantanea.getLlamadas() > 0) {
+                resultado.add(instantanea);
+            }
+        }
+        resultado.sort(Comparator.comparing(LatencyHistogram.Snapshot::getOperacion));
+        return resultado;
+    }
+}
@@ -0,0 +1,20 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import javax.interceptor.InterceptorBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un método de solo lectura que puede servirse desde la réplica.
+ * Ver {@link ReplicaReadInterceptor}.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface ReplicaRead {
+}
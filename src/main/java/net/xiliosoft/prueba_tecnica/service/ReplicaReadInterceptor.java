@@ -0,0 +1,32 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import net.xiliosoft.prueba_tecnica.repository.ReadReplicaRouter;
+
+import javax.inject.Inject;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InvocationContext;
+import java.io.Serializable;
+
+/**
+ * Envía a la réplica de solo lectura las consultas de los métodos anotados
+ * con {@link ReplicaRead}, con las reglas de {@link ReadReplicaRouter}.
+ * Se activa en beans.xml.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@ReplicaRead
+@Interceptor
+public class ReplicaReadInterceptor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Inject
+    private ReadReplicaRouter router;
+
+    @AroundInvoke
+    public Object enrutar(InvocationContext contexto) throws Exception {
+        return router.leer(contexto::proceed);
+    }
+}
@@ -0,0 +1,106 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.servlet.ServletContext;
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Archivo periódico de las tareas completadas.
+ *
+ * Cada {@link #INTERVALO_MINUTOS} mueve a la tabla TASKS_ARCHIVE las tareas
+ * que llevan completadas más días de los indicados en el parámetro de contexto
+ * {@value #PARAMETRO_DIAS}, con {@link TaskService#archivarCompletadasAntesDe}.
+ * Así la tabla de tareas, sus índices y los índices en memoria solo contienen
+ * las tareas activas y las completadas recientes. Con 0 o sin el parámetro
+ * no se archiva nada.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@ApplicationScoped
+public class TaskArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskArchiver.class);
+
+    /**
+     * Parámetro de contexto con los días desde la compleción tras los que se archiva una tarea.
+     */
+    public static final String PARAMETRO_DIAS = "net.xiliosoft.prueba_tecnica.ARCHIVO_DIAS";
+
+    /**
+     * Intervalo entre ejecuciones del archivo.
+     */
+    public static final long INTERVALO_MINUTOS = 60L;
+
+    /**
+     * Espera antes de la primera ejecución, para no competir con la carga de los índices al arrancar.
+     */
+    public static final long ESPERA_INICIAL_MINUTOS = 5L;
+
+    @Inject
+    private TaskService taskService;
+
+    @Resource
+    private ManagedScheduledExecutorService executor;
+
+    private volatile int dias;
+    private ScheduledFuture<?> tareaPeriodica;
+
+    /**
+     * Programa el archivo periódico si está configurado.
+     */
+    void alIniciar(@Observes @Initialized(ApplicationScoped.class) Object inicio) {
+        if (!(inicio instanceof ServletContext)) {
+            return;
+        }
+        String parametro = ((ServletContext) inicio).getInitParameter(PARAMETRO_DIAS);
+        try {
+            dias = parametro == null ? 0 : Integer.parseInt(parametro.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Valor no válido para {}: {}; archivo desactivado", PARAMETRO_DIAS, parametro);
+            dias = 0;
+        }
+        if (dias <= 0) {
+            return;
+        }
+        tareaPeriodica = executor.scheduleWithFixedDelay(this::archivarSinFallar,
+                ESPERA_INICIAL_MINUTOS, INTERVALO_MINUTOS, TimeUnit.MINUTES);
+        logger.info("Archivo de tareas completadas hace más de {} días activado (cada {} min)",
+                dias, INTERVALO_MINUTOS);
+    }
+
+    @PreDestroy
+    void alDetener() {
+        if (tareaPeriodica != null) {
+            tareaPeriodica.cancel(false);
+        }
+    }
+
+    /**
+     * @return Días desde la compleción tras los que se archiva una tarea, o 0 si está desactivado
+     */
+    public int getDias() {
+        return dias;
+    }
+
+    private void archivarSinFallar() {
+        try {
+            Date limite = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(dias));
+            taskService.archivarCompletadasAntesDe(limite, 0, null);
+        } catch (RuntimeException e) {
+            // Los bloques ya archivados quedan confirmados; el resto se reintenta en la siguiente ejecución
+            logger.error("Error al archivar las tareas completadas", e);
+        }
+    }
+}
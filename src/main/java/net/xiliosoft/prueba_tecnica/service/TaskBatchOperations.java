@@ -0,0 +1,111 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import net.xiliosoft.prueba_tecnica.model.Task;
+import net.xiliosoft.prueba_tecnica.model.TaskSummary;
+import net.xiliosoft.prueba_tecnica.repository.TaskRepository;
+
+import javax.enterprise.context.Dependent;
+import javax.enterprise.event.Event;
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+import java.util.Date;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.function.Consumer;
+
+/**
+ * Operaciones masivas sobre la tabla de tareas que necesitan su propia
+ * demarcación transaccional (un lote por transacción o un recorrido completo).
+ * Está separado de {@link TaskService} porque el interceptor de {@link Transactional}
+ * no se aplica a las llamadas de un bean sobre sí mismo.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@Dependent
+@Timed
+public class TaskBatchOperations {
+
+    @Inject
+    private TaskRepository taskRepository;
+
+    @Inject
+    private Event<TaskEvent> eventos;
+
+    /**
+     * Inserta un lote de tareas en una transacción nueva.
+     *
+     * @param tareas Tareas del lote
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void insertarLote(List<Task> tareas) {
+        taskRepository.crearLote(tareas);
+        eventos.fire(TaskEvent.creadas(tareas));
+    }
+
+    /**
+     * Recorre todas las tareas dentro de una transacción, sin cargarlas en una lista.
+     *
+     * @param fetchSize Filas por viaje a la base de datos
+     * @param consumidor Receptor de cada tarea (proyección de solo lectura)
+     */
+    @Transactional
+    public void recorrerTodas(int fetchSize, Consumer<TaskSummary> consumidor) {
+        taskRepository.recorrerTodas(fetchSize, consumidor);
+    }
+
+    /**
+     * Igual que {@link #recorrerTodas(int, Consumer)}, pero con la descripción de cada tarea.
+     *
+     * @param fetchSize Filas por viaje a la base de datos
+     * @param consumidor Receptor de cada tarea (proyección de solo lectura)
+     */
+    @Transactional
+    public void recorrerTodasConDescripcion(int fetchSize, Consumer<TaskSummary> consumidor) {
+        taskRepository.recorrerTodasConDescripcion(fetchSize, consumidor);
+    }
+
+    /**
+     * Elimina en una transacción nueva un bloque de tareas completadas creadas
+     * antes de la fecha indicada. Las que otra transacción cambió entre la
+     * selección y el borrado se conservan y no se notifican.
+     *
+     * @param limite Fecha de creación límite (exclusiva)
+     * @param tamanoLote Número máximo de tareas a eliminar
+     * @return Número de tareas eliminadas en el bloque, o vacío si no quedaba ninguna por purgar
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public OptionalInt purgarLoteCompletadas(Date limite, int tamanoLote) {
+        List<Long> ids = taskRepository.buscarIdsCompletadasAntesDe(limite, tamanoLote);
+        if (ids.isEmpty()) {
+            return OptionalInt.empty();
+        }
+        List<Long> eliminadas = taskRepository.eliminarCompletadasAntesDe(ids, limite);
+        if (!eliminadas.isEmpty()) {
+            eventos.fire(TaskEvent.eliminadas(eliminadas));
+        }
+        return OptionalInt.of(eliminadas.size());
+    }
+
+    /**
+     * Mueve a TASKS_ARCHIVE, en una transacción nueva, un bloque de tareas
+     * completadas antes de la fecha indicada. Las que otra transacción cambió
+     * entre la selección y el borrado se quedan en TASKS y no se notifican.
+     *
+     * @param limite Momento de compleción límite (exclusivo)
+     * @param tamanoLote Número máximo de tareas a archivar
+     * @return Número de tareas archivadas en el bloque, o vacío si no quedaba ninguna por archivar
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public OptionalInt archivarLoteCompletadas(Date limite, int tamanoLote) {
+        List<Long> ids = taskRepository.buscarIdsParaArchivar(limite, tamanoLote);
+        if (ids.isEmpty()) {
+            return OptionalInt.empty();
+        }
+        List<Long> archivadas = taskRepository.archivar(ids, limite, new Date());
+        if (!archivadas.isEmpty()) {
+            eventos.fire(TaskEvent.eliminadas(archivadas));
+        }
+        return OptionalInt.of(archivadas.size());
+    }
+}
@@ -0,0 +1,32 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+/**
+ * La tarea cambió (o se eliminó) desde que se leyó, y la modificación no se aplicó.
+ * Quien la recibe debe volver a cargar la tarea y decidir si repite el cambio.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final boolean eliminada;
+
+    public TaskConflictException(Long id, boolean eliminada, String message, Throwable cause) {
+        super(message, cause);
+        this.id = id;
+        this.eliminada = eliminada;
+    }
+
+    /**
+     * @return ID de la tarea en conflicto
+     */
+    public Long getId() { return id; }
+
+    /**
+     * @return true si la tarea ya no existe
+     */
+    public boolean isEliminada() { return eliminada; }
+}
@@ -0,0 +1,102 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PessimisticLockException;
+import java.util.function.Supplier;
+
+/**
+ * Repite una operación idempotente cuando falla por un conflicto con otra
+ * transacción: versión cambiada, o bloqueo / interbloqueo entre UPDATE masivos
+ * sobre las mismas filas.
+ *
+ * Solo debe usarse con operaciones que se pueden repetir sin efectos extra y que
+ * vuelven a leer lo que necesitan en cada intento, como los cambios de estado
+ * ("dejar la tarea completada"). Una edición con la versión leída por el usuario
+ * no es repetible: ese conflicto se le debe mostrar. Cada intento debe abrir su
+ * propia transacción, por lo que se llama desde fuera de los métodos transaccionales.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public final class TaskConflictRetry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskConflictRetry.class);
+
+    /**
+     * Número de intentos por defecto.
+     */
+    public static final int MAX_INTENTOS = 3;
+
+    /**
+     * Espera antes del segundo intento; crece con cada intento.
+     */
+    public static final long ESPERA_BASE_MILISEGUNDOS = 20L;
+
+    private TaskConflictRetry() {
+    }
+
+    /**
+     * Ejecuta la operación con hasta {@link #MAX_INTENTOS} intentos.
+     *
+     * @param operacion Operación idempotente y transaccional
+     * @return Resultado de la operación
+     */
+    public static <T> T reintentar(Supplier<T> operacion) {
+        return reintentar(operacion, MAX_INTENTOS);
+    }
+
+    /**
+     * Ejecuta la operación repitiéndola mientras falle por un conflicto.
+     *
+     * @param operacion Operación idempotente y transaccional
+     * @param intentos Número máximo de intentos (al menos 1)
+     * @return Resultado de la operación
+     * @throws RuntimeException la excepción del último intento, o cualquier otra que no sea un conflicto
+     */
+    public static <T> T reintentar(Supplier<T> operacion, int intentos) {
+        for (int intento = 1; ; intento++) {
+            try {
+                return operacion.get();
+            } catch (RuntimeException e) {
+                if (intento >= intentos || !esConflicto(e)) {
+                    throw e;
+                }
+                logger.warn("Conflicto con otra transacción, intento {} de {}: {}",
+                        intento, intentos, e.getMessage());
+                if (!esperar(ESPERA_BASE_MILISEGUNDOS * intento)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Busca el conflicto en la cadena de causas: el interceptor de transacciones
+     * y el gestor JTA pueden envolver la excepción original.
+     */
+    static boolean esConflicto(Throwable e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof TaskConflictException || causa instanceof OptimisticLockException
+                    || causa instanceof PessimisticLockException) {
+                return true;
+            }
+            if (causa.getCause() == causa) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private static boolean esperar(long milisegundos) {
+        try {
+            Thread.sleep(milisegundos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
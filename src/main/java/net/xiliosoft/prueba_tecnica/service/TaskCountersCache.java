@@ -0,0 +1,175 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import net.xiliosoft.prueba_tecnica.model.Task;
+import net.xiliosoft.prueba_tecnica.model.TaskStatusCounts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Caché de los contadores del resumen de tareas.
+ *
+ * Guarda el último resultado de la consulta agregada durante un TTL corto.
+ * Las altas y los cambios de estado se aplican en el sitio al confirmarse:
+ * cuando un cambio de estado trae las fechas límite, cambiaron exactamente
+ * esas tareas y basta con pasarlas de un contador a otro. Las ediciones, los
+ * borrados y los cambios de estado sin fechas (masivos en los que solo
+ * cambiaron algunas filas) no indican el estado previo de las filas, así que
+ * invalidan la entrada y la siguiente lectura vuelve a lanzar la consulta. El TTL también corrige las tareas que vencen con el paso
+ * del tiempo.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@ApplicationScoped
+public class TaskCountersCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskCountersCache.class);
+
+    /**
+     * Tiempo de vida de los contadores en caché.
+     */
+    public static final long TTL_MILISEGUNDOS = 30_000L;
+
+    private final LongSupplier reloj;
+    private final AtomicReference<Entrada> entrada = new AtomicReference<>();
+
+    /** Se incrementa con cada cambio para no guardar resultados calculados antes de él. */
+    private final AtomicLong generacion = new AtomicLong();
+
+    public TaskCountersCache() {
+        this(System::currentTimeMillis);
+    }
+
+    TaskCountersCache(LongSupplier reloj) {
+        this.reloj = reloj;
+    }
+
+    /**
+     * Devuelve los contadores en caché o los recalcula si han expirado.
+     *
+     * @param calcular Consulta agregada que obtiene los contadores
+     * @return Contadores vigentes
+     */
+    public TaskStatusCounts obtener(Supplier<TaskStatusCounts> calcular) {
+        long ahora = reloj.getAsLong();
+        Entrada actual = entrada.get();
+        if (actual != null && actual.expiraEn > ahora) {
+            return actual.contadores;
+        }
+        long generacionInicial = generacion.get();
+        TaskStatusCounts contadores = calcular.get();
+        logger.debug("Contadores de tareas recalculados: {}", contadores);
+        if (generacion.get() == generacionInicial) {
+            // Solo se guarda si ningún cambio llegó durante la consulta
+            entrada.compareAndSet(actual, new Entrada(contadores, ahora + TTL_MILISEGUNDOS));
+        }
+        return contadores;
+    }
+
+    /**
+     * Descarta los contadores en caché.
+     */
+    public void invalidar() {
+        generacion.incrementAndGet();
+        entrada.set(null);
+    }
+
+    void alCambiar(@Observes(during = TransactionPhase.AFTER_SUCCESS) TaskEvent evento) {
+        aplicar(evento);
+    }
+
+    /**
+     * Actualiza los contadores con un cambio confirmado.
+     *
+     * @param evento Cambio emitido por TaskService
+     */
+    public void aplicar(TaskEvent evento) {
+        if (evento.getTipo() == TaskEvent.Tipo.CREADAS) {
+            sumarCreadas(evento.getTareas());
+        } else if (evento.getTipo() == TaskEvent.Tipo.ESTADO_CAMBIADO && evento.getFechasLimite() != null) {
+            moverDeEstado(evento.getFechasLimite(), evento.getEstado());
+        } else {
+            invalidar();
+        }
+    }
+
+    private void sumarCreadas(List<Task> tareas) {
+        generacion.incrementAndGet();
+        long ahora = reloj.getAsLong();
+        long pendientes = 0;
+        long completadas = 0;
+        long vencidas = 0;
+        for (Task task : tareas) {
+            if (task.getCompleted() != null && task.getCompleted() == 1) {
+                completadas++;
+            } else {
+                pendientes++;
+                if (isVencida(task.getDueDate(), ahora)) {
+                    vencidas++;
+                }
+            }
+        }
+        sumar(pendientes, completadas, vencidas);
+    }
+
+    /**
+     * Pasa las tareas que cambiaron de estado al contador del nuevo estado.
+     * Solo las pendientes cuentan como vencidas.
+     */
+    private void moverDeEstado(Collection<Date> fechasLimite, int estado) {
+        generacion.incrementAndGet();
+        long ahora = reloj.getAsLong();
+        long cambiadas = fechasLimite.size();
+        long vencidas = 0;
+        for (Date fechaLimite : fechasLimite) {
+            if (isVencida(fechaLimite, ahora)) {
+                vencidas++;
+            }
+        }
+        if (estado == 1) {
+            sumar(-cambiadas, cambiadas, -vencidas);
+        } else {
+            sumar(cambiadas, -cambiadas, vencidas);
+        }
+    }
+
+    private void sumar(long pendientes, long completadas, long vencidas) {
+        Entrada actual;
+        Entrada nueva;
+        do {
+            actual = entrada.get();
+            if (actual == null) {
+                return;
+            }
+            TaskStatusCounts c = actual.contadores;
+            nueva = new Entrada(new TaskStatusCounts(c.getPendientes() + pendientes,
+                    c.getCompletadas() + completadas, c.getVencidas() + vencidas), actual.expiraEn);
+        } while (!entrada.compareAndSet(actual, nueva));
+    }
+
+    private static boolean isVencida(Date fechaLimite, long ahora) {
+        return fechaLimite != null && fechaLimite.getTime() < ahora;
+    }
+
+    private static final class Entrada {
+
+        private final TaskStatusCounts contadores;
+        private final long expiraEn;
+
+        Entrada(TaskStatusCounts contadores, long expiraEn) {
+            this.contadores = contadores;
+            this.expiraEn = expiraEn;
+        }
+    }
+}
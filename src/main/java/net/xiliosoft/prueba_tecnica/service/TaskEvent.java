@@ -0,0 +1,104 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import net.xiliosoft.prueba_tecnica.model.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Evento CDI que describe un cambio confirmado en las tareas.
+ * Lo emite {@link TaskService} en cada mutación para que las vistas en memoria
+ * (índices, contadores, cachés) se actualicen; los observadores deben usar
+ * {@code @Observes(during = TransactionPhase.AFTER_SUCCESS)} para ignorar
+ * los cambios de transacciones que terminan en rollback.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public final class TaskEvent {
+
+    /**
+     * Tipo de cambio.
+     */
+    public enum Tipo {
+        /** Tareas nuevas; {@link #getTareas()} contiene su estado completo. */
+        CREADAS,
+        /** Tareas modificadas; {@link #getTareas()} contiene su estado completo. */
+        ACTUALIZADAS,
+        /** Tareas eliminadas; solo se informan los IDs. */
+        ELIMINADAS,
+        /**
+         * Cambio de estado; se informan los IDs y el nuevo valor de completed.
+         * Con fechas límite ({@link #getFechasLimite()}) cambiaron exactamente
+         * esas tareas; sin ellas, alguno de los IDs podía tener ya ese estado.
+         */
+        ESTADO_CAMBIADO
+    }
+
+    private final Tipo tipo;
+    private final List<Task> tareas;
+    private final Collection<Long> ids;
+    private final Integer estado;
+    private final Collection<Date> fechasLimite;
+
+    private TaskEvent(Tipo tipo, List<Task> tareas, Collection<Long> ids, Integer estado, Collection<Date> fechasLimite) {
+        this.tipo = tipo;
+        this.tareas = tareas;
+        this.ids = ids;
+        this.estado = estado;
+        this.fechasLimite = fechasLimite;
+    }
+
+    public static TaskEvent creadas(List<Task> tareas) {
+        return new TaskEvent(Tipo.CREADAS, Collections.unmodifiableList(tareas), idsDe(tareas), null, null);
+    }
+
+    public static TaskEvent actualizadas(List<Task> tareas) {
+        return new TaskEvent(Tipo.ACTUALIZADAS, Collections.unmodifiableList(tareas), idsDe(tareas), null, null);
+    }
+
+    public static TaskEvent eliminadas(Collection<Long> ids) {
+        return new TaskEvent(Tipo.ELIMINADAS, Collections.<Task>emptyList(), Collections.unmodifiableCollection(ids), null, null);
+    }
+
+    public static TaskEvent estadoCambiado(Collection<Long> ids, int estado) {
+        return new TaskEvent(Tipo.ESTADO_CAMBIADO, Collections.<Task>emptyList(),
+                Collections.unmodifiableCollection(ids), estado, null);
+    }
+
+    /**
+     * @param cambiadas IDs de las tareas que cambiaron de estado con su fecha límite (puede ser null)
+     * @param estado Nuevo valor de completed
+     */
+    public static TaskEvent estadoCambiado(Map<Long, Date> cambiadas, int estado) {
+        return new TaskEvent(Tipo.ESTADO_CAMBIADO, Collections.<Task>emptyList(),
+                Collections.unmodifiableList(new ArrayList<>(cambiadas.keySet())), estado,
+                Collections.unmodifiableList(new ArrayList<>(cambiadas.values())));
+    }
+
+    private static Collection<Long> idsDe(List<Task> tareas) {
+        return tareas.stream().map(Task::getId).collect(Collectors.toList());
+    }
+
+    public Tipo getTipo() { return tipo; }
+
+    public List<Task> getTareas() { return tareas; }
+
+    public Collection<Long> getIds() { return ids; }
+
+    /**
+     * @return Nuevo valor de completed para {@link Tipo#ESTADO_CAMBIADO}, null en otro caso
+     */
+    public Integer getEstado() { return estado; }
+
+    /**
+     * @return Fechas límite (con null si no tienen) de las tareas de un
+     *         {@link Tipo#ESTADO_CAMBIADO}, o null si no se conocen
+     */
+    public Collection<Date> getFechasLimite() { return fechasLimite; }
+}
@@ -0,0 +1,88 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import net.xiliosoft.prueba_tecnica.model.TaskSummary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Escritor en streaming de tareas a CSV o JSON.
+ * Cada tarea se serializa y se escribe al flujo en cuanto se recibe, sin
+ * acumular el resultado en memoria. El formato es compatible con
+ * {@link TaskImportReader}.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskExportWriter implements Closeable {
+
+    private static final ObjectMapper JSON_MAPPER = configurar(new ObjectMapper());
+    private static final CsvMapper CSV_MAPPER = (CsvMapper) configurar(new CsvMapper());
+    private static final CsvSchema CSV_SCHEMA;
+
+    static {
+        CsvSchema.Builder builder = CsvSchema.builder().addColumn("id");
+        for (String columna : TaskImportReader.COLUMNAS_CSV) {
+            builder.addColumn(columna);
+        }
+        CSV_SCHEMA = builder.setUseHeader(true).build();
+    }
+
+    private final SequenceWriter writer;
+    private long escritas;
+
+    /**
+     * Abre el escritor sobre el flujo indicado.
+     *
+     * @param salida Flujo de destino (no se cierra al cerrar el escritor)
+     * @param formato Formato de salida
+     * @throws IOException si no se puede escribir la cabecera
+     */
+    public TaskExportWriter(OutputStream salida, TaskImportReader.Formato formato) throws IOException {
+        this.writer = formato == TaskImportReader.Formato.CSV
+                ? CSV_MAPPER.writerFor(TaskSummary.class).with(CSV_SCHEMA).writeValues(salida)
+                : JSON_MAPPER.writerFor(TaskSummary.class).writeValuesAsArray(salida);
+    }
+
+    private static ObjectMapper configurar(ObjectMapper mapper) {
+        mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        mapper.configure(JsonGenerator.Feature.IGNORE_UNKNOWN, true);
+        mapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        mapper.setDateFormat(new StdDateFormat().withColonInTimeZone(true));
+        return mapper;
+    }
+
+    /**
+     * Escribe una tarea.
+     *
+     * @param task La tarea a escribir
+     * @throws IOException si falla la escritura
+     */
+    public void escribir(TaskSummary task) throws IOException {
+        writer.write(task);
+        escritas++;
+    }
+
+    /**
+     * @return Número de tareas escritas
+     */
+    public long getEscritas() {
+        return escritas;
+    }
+
+    /**
+     * Termina el documento (cierra el array JSON) y vacía el buffer al flujo.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,202 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import net.xiliosoft.prueba_tecnica.model.Task;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lector en streaming de tareas a importar desde CSV o JSON.
+ * Solo mantiene en memoria la fila que se está leyendo, por lo que el
+ * consumo no depende del tamaño del fichero.
+ *
+ * CSV: cabecera obligatoria con las columnas de {@link #COLUMNAS_CSV} (en cualquier orden).
+ * JSON: array de objetos con esas mismas propiedades.
+ * Fechas en ISO-8601 (yyyy-MM-dd o yyyy-MM-dd'T'HH:mm:ss.SSSZ) o milisegundos.
+ *
+ * Una fila que no se puede convertir (una fecha o un número mal escritos) o
+ * que no cumple las restricciones de la tabla se rechaza con su línea y el
+ * motivo, y la lectura sigue en la fila siguiente. Solo un fichero mal
+ * formado (p. ej. un JSON sin cerrar) detiene la lectura.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskImportReader implements Iterator<Task>, Closeable {
+
+    /**
+     * Formatos de fichero admitidos.
+     */
+    public enum Formato { CSV, JSON }
+
+    /**
+     * Columnas reconocidas en los ficheros de importación y exportación.
+     */
+    public static final String[] COLUMNAS_CSV = {"title", "description", "dueDate", "completed", "createdAt"};
+
+    /**
+     * Máximo de filas rechazadas que se guardan con su motivo; las demás solo se cuentan.
+     */
+    public static final int MAX_ERRORES_GUARDADOS = 100;
+
+    private static final ObjectMapper JSON_MAPPER = configurar(new ObjectMapper());
+    private static final CsvMapper CSV_MAPPER = (CsvMapper) configurar(new CsvMapper());
+
+    private final MappingIterator<Task> filas;
+    private Task siguiente;
+    private long leidas;
+    private long rechazadas;
+    private final List<ImportRowError> errores = new ArrayList<>();
+
+    /**
+     * Abre el lector sobre el flujo indicado.
+     *
+     * @param entrada Flujo con el contenido del fichero (no se cierra hasta {@link #close()})
+     * @param formato Formato del contenido
+     * @throws IOException si no se puede leer el inicio del fichero
+     */
+    public TaskImportReader(InputStream entrada, Formato formato) throws IOException {
+        ObjectReader reader = formato == Formato.CSV
+                ? CSV_MAPPER.readerFor(Task.class).with(CsvSchema.emptySchema().withHeader())
+                : JSON_MAPPER.readerFor(Task.class);
+        this.filas = reader.readValues(entrada);
+    }
+
+    private static ObjectMapper configurar(ObjectMapper mapper) {
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        mapper.configure(DeserializationFeature.ACCEPT_EMPTY_STRING_AS_NULL_OBJECT, true);
+        return mapper;
+    }
+
+    /**
+     * Avanza hasta la siguiente fila válida, descartando las que no se pueden
+     * convertir o no cumplen las restricciones de la tabla TASKS.
+     */
+    @Override
+    public boolean hasNext() {
+        while (siguiente == null && filas.hasNext()) {
+            Task task;
+            try {
+                task = filas.next();
+            } catch (RuntimeJsonMappingException e) {
+                // MappingIterator descarta el resto de la fila y sigue con la siguiente
+                leidas++;
+                rechazar(e);
+                continue;
+            }
+            leidas++;
+            String invalida = validar(task);
+            if (invalida == null) {
+                task.setId(null);
+                task.setVersion(null);
+                if (task.getCompleted() == null) {
+                    task.setCompleted(0);
+                }
+                if (task.getCreatedAt() == null) {
+                    task.setCreatedAt(new java.util.Date());
+                }
+                siguiente = task;
+            } else {
+                rechazar(filas.getParser().getTokenLocation().getLineNr(), invalida);
+            }
+        }
+        return siguiente != null;
+    }
+
+    @Override
+    public Task next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Task task = siguiente;
+        siguiente = null;
+        return task;
+    }
+
+    private static String validar(Task task) {
+        if (task == null) {
+            return "Fila vacía";
+        }
+        if (task.getTitle() == null || task.getTitle().trim().isEmpty()) {
+            return "El título es obligatorio";
+        }
+        if (task.getTitle().length() > 100) {
+            return "El título no puede superar los 100 caracteres";
+        }
+        if (task.getDescription() != null && task.getDescription().length() > 500) {
+            return "La descripción no puede superar los 500 caracteres";
+        }
+        if (task.getCompleted() != null && task.getCompleted() != 0 && task.getCompleted() != 1) {
+            return "completed debe ser 0 o 1";
+        }
+        return null;
+    }
+
+    private void rechazar(RuntimeJsonMappingException e) {
+        if (!(e.getCause() instanceof JsonMappingException)) {
+            rechazar(filas.getCurrentLocation().getLineNr(), e.getMessage());
+            return;
+        }
+        JsonMappingException causa = (JsonMappingException) e.getCause();
+        List<JsonMappingException.Reference> ruta = causa.getPath();
+        String campo = ruta.isEmpty() ? null : ruta.get(ruta.size() - 1).getFieldName();
+        String motivo;
+        if (campo == null) {
+            motivo = causa.getOriginalMessage();
+        } else if (causa instanceof InvalidFormatException) {
+            motivo = "Valor no válido en " + campo + ": " + ((InvalidFormatException) causa).getValue();
+        } else {
+            motivo = "Valor no válido en " + campo;
+        }
+        long linea = causa.getLocation() != null ? causa.getLocation().getLineNr() : filas.getCurrentLocation().getLineNr();
+        rechazar(linea, motivo);
+    }
+
+    private void rechazar(long linea, String motivo) {
+        rechazadas++;
+        if (errores.size() < MAX_ERRORES_GUARDADOS) {
+            errores.add(new ImportRowError(linea, motivo));
+        }
+    }
+
+    /**
+     * @return Número de filas leídas del fichero hasta el momento
+     */
+    public long getLeidas() {
+        return leidas;
+    }
+
+    /**
+     * @return Número de filas descartadas por no ser válidas
+     */
+    public long getRechazadas() {
+        return rechazadas;
+    }
+
+    /**
+     * @return Las primeras {@link #MAX_ERRORES_GUARDADOS} filas rechazadas, con su línea y motivo
+     */
+    public List<ImportRowError> getErrores() {
+        return Collections.unmodifiableList(errores);
+    }
+
+    @Override
+    public void close() throws IOException {
+        filas.close();
+    }
+}
@@ -0,0 +1,623 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import net.xiliosoft.prueba_tecnica.model.Task;
+import net.xiliosoft.prueba_tecnica.model.TaskSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * Índice invertido en memoria sobre el título y la descripción de las tareas.
+ *
+ * Cada término normalizado (minúsculas, sin tildes) apunta a la lista de
+ * tareas que lo contienen, ordenada por ID y con un peso por aparición
+ * (título {@value #PESO_TITULO}, descripción {@value #PESO_DESCRIPCION}).
+ * Cada entrada se guarda en un único long (ID en los bits altos, peso en los
+ * 7 bajos) en un array con hueco al final ({@link ListaTermino}). Como los IDs
+ * son crecientes, un alta se añade al final sin copiar la lista; un borrado
+ * deja la entrada con peso 0, que se reutiliza si la tarea vuelve a tener el
+ * término (una edición) y se compacta cuando los borrados son la mitad. Solo
+ * se copia la lista para insertar un ID intermedio o al compactar. Las
+ * búsquedas no bloquean: leen una versión de la lista con su tamaño y nunca
+ * ven una entrada a medio escribir. Una búsqueda recorre solo las listas del
+ * término menos frecuente de la consulta; su coste depende de esa frecuencia.
+ *
+ * Cada término de la consulta se expande como mucho a
+ * {@value #MAX_EXPANSIONES} términos del diccionario (el exacto y los primeros
+ * en orden alfabético). Un prefijo más corto que eso puede dejar fuera tareas
+ * que lo contienen; se registra en el log y conviene escribir más letras.
+ *
+ * Se carga al arrancar y se mantiene al día con los {@link TaskEvent}, igual
+ * que {@link TaskStatusIndex}.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@ApplicationScoped
+public class TaskSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskSearchIndex.class);
+
+    private static final int FETCH_SIZE_CARGA = 1000;
+
+    /** Peso de cada aparición de un término en el título. */
+    static final int PESO_TITULO = 3;
+
+    /** Peso de cada aparición de un término en la descripción. */
+    static final int PESO_DESCRIPCION = 1;
+
+    /** Términos más cortos no se indexan ni se buscan. */
+    static final int LONGITUD_MINIMA = 2;
+
+    /** Máximo de términos del diccionario en los que se expande un prefijo (además del exacto). */
+    static final int MAX_EXPANSIONES = 32;
+
+    /** Tamaño mínimo de una lista para compactar sus entradas borradas. */
+    private static final int MINIMO_COMPACTACION = 8;
+
+    private static final int BITS_PESO = 7;
+    private static final int PESO_MAXIMO = (1 << BITS_PESO) - 1;
+    private static final long ID_MAXIMO = Long.MAX_VALUE >>> BITS_PESO;
+
+    private static final Set<String> PALABRAS_VACIAS = new HashSet<>(Arrays.asList(
+            "de", "la", "el", "en", "los", "las", "del", "al", "un", "una", "por", "con",
+            "para", "que", "se", "lo", "su", "es", "y", "o"));
+
+    @Inject
+    private TaskBatchOperations batchOperations;
+
+    private final Object escritura = new Object();
+    private final Object reconstruccion = new Object();
+
+    /** Índice vigente; null hasta la primera carga. */
+    private volatile Indice actual;
+
+    /** Eventos recibidos mientras se reconstruye, para reaplicarlos al terminar. */
+    private List<TaskEvent> eventosDuranteCarga;
+
+    /**
+     * Carga el índice al arrancar la aplicación. Si falla, la búsqueda se
+     * resuelve con una consulta a la base de datos.
+     */
+    void alIniciar(@Observes @Initialized(ApplicationScoped.class) Object inicio) {
+        try {
+            reconstruir();
+        } catch (RuntimeException e) {
+            logger.error("No se pudo cargar el índice de búsqueda de tareas", e);
+        }
+    }
+
+    /**
+     * Aplica un cambio confirmado en la base de datos.
+     *
+     * @param evento Cambio emitido por TaskService
+     */
+    void alCambiar(@Observes(during = TransactionPhase.AFTER_SUCCESS) TaskEvent evento) {
+        aplicar(evento);
+    }
+
+    /**
+     * Aplica un cambio sobre el índice.
+     *
+     * @param evento Cambio a aplicar
+     */
+    public void aplicar(TaskEvent evento) {
+        synchronized (escritura) {
+            if (eventosDuranteCarga != null) {
+                eventosDuranteCarga.add(evento);
+            }
+            Indice indice = actual;
+            if (indice != null) {
+                indice.aplicar(evento);
+            }
+        }
+    }
+
+    /**
+     * Vuelve a cargar el índice completo desde la base de datos.
+     * Las búsquedas siguen respondiendo con el índice anterior hasta que termina.
+     */
+    public void reconstruir() {
+        reconstruir(consumidor -> batchOperations.recorrerTodasConDescripcion(FETCH_SIZE_CARGA, consumidor));
+    }
+
+    /**
+     * Reconstruye el índice a partir de un origen de tareas.
+     *
+     * @param origen Función que entrega todas las tareas al consumidor recibido
+     */
+    void reconstruir(Consumer<Consumer<TaskSummary>> origen) {
+        synchronized (reconstruccion) {
+            long inicio = System.currentTimeMillis();
+            synchronized (escritura) {
+                eventosDuranteCarga = new ArrayList<>();
+            }
+            CargaMasiva carga = new CargaMasiva();
+            Indice nuevo = null;
+            try {
+                origen.accept(task -> carga.agregar(task.getId(), task.getTitle(), task.getDescription()));
+                nuevo = carga.construir();
+            } finally {
+                synchronized (escritura) {
+                    if (nuevo != null) {
+                        for (TaskEvent evento : eventosDuranteCarga) {
+                            nuevo.aplicar(evento);
+                        }
+                        actual = nuevo;
+                    }
+                    eventosDuranteCarga = null;
+                }
+            }
+            logger.info("Índice de búsqueda cargado: {} tareas, {} términos en {} ms",
+                    nuevo.terminosPorTarea.size(), nuevo.terminos.size(), System.currentTimeMillis() - inicio);
+        }
+    }
+
+    /**
+     * @return true si el índice está cargado y puede responder búsquedas
+     */
+    public boolean isCargado() {
+        return actual != null;
+    }
+
+    /**
+     * Busca las tareas que contienen todos los términos del texto. Cada
+     * término se compara como prefijo (un término completo puntúa el doble)
+     * con, como mucho, {@value #MAX_EXPANSIONES} términos del diccionario: con
+     * un prefijo muy corto el resultado puede no estar completo.
+     * Se ordenan por puntuación descendente y, a igualdad, por ID descendente.
+     *
+     * @param texto Texto de búsqueda
+     * @param limite Número máximo de resultados
+     * @return IDs de las tareas encontradas, de mayor a menor relevancia
+     * @throws IllegalStateException si el índice no está cargado
+     */
+    public List<Long> buscar(String texto, int limite) {
+        Indice indice = actual;
+        if (indice == null) {
+            throw new IllegalStateException("El índice de búsqueda no está cargado");
+        }
+        List<String> consulta = new ArrayList<>(new LinkedHashSet<>(tokenizar(texto)));
+        if (consulta.isEmpty() || limite <= 0) {
+            return Collections.emptyList();
+        }
+        List<Expansion> expansiones = new ArrayList<>();
+        for (String termino : consulta) {
+            Expansion expansion = indice.expandir(termino);
+            if (expansion.total == 0) {
+                return Collections.emptyList();
+            }
+            if (expansion.recortada) {
+                logger.info("El prefijo '{}' coincide con más de {} términos; solo se buscan los primeros",
+                        termino, MAX_EXPANSIONES);
+            }
+            expansiones.add(expansion);
+        }
+        // Se recorren las listas del término menos frecuente, de mayor a menor ID, y los
+        // demás términos avanzan sobre sus listas hasta cada candidato (intersección por mezcla)
+        expansiones.sort((a, b) -> Long.compare(a.total, b.total));
+        Expansion guia = expansiones.get(0);
+        List<Expansion> resto = expansiones.subList(1, expansiones.size());
+
+        PriorityQueue<long[]> mejores = new PriorityQueue<>(limite + 1, TaskSearchIndex::compararResultados);
+        long id;
+        while ((id = guia.siguienteId()) >= 0) {
+            long puntuacion = guia.avanzarHasta(id);
+            for (Expansion otra : resto) {
+                long parcial = otra.avanzarHasta(id);
+                if (parcial == 0) {
+                    puntuacion = 0;
+                    break;
+                }
+                puntuacion += parcial;
+            }
+            if (puntuacion == 0) {
+                continue;
+            }
+            // Los IDs llegan en orden descendente: a igual puntuación no mejora a los ya guardados
+            if (mejores.size() < limite || puntuacion > mejores.peek()[0]) {
+                mejores.add(new long[] {puntuacion, id});
+                if (mejores.size() > limite) {
+                    mejores.poll();
+                }
+            }
+        }
+        Long[] ids = new Long[mejores.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = mejores.poll()[1];
+        }
+        return Arrays.asList(ids);
+    }
+
+    /**
+     * Orden ascendente de relevancia (el primero de la cola es el peor resultado).
+     */
+    private static int compararResultados(long[] a, long[] b) {
+        int c = Long.compare(a[0], b[0]);
+        return c != 0 ? c : Long.compare(a[1], b[1]);
+    }
+
+    /**
+     * Divide un texto en términos normalizados: minúsculas, sin tildes, sin
+     * signos de puntuación, sin palabras vacías y de al menos {@link #LONGITUD_MINIMA} caracteres.
+     *
+     * @param texto Texto a dividir (puede ser null)
+     * @return Términos en orden de aparición, con repeticiones
+     */
+    static List<String> tokenizar(String texto) {
+        if (texto == null || texto.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String normalizado = texto;
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) > 127) {
+                // Solo se descomponen las tildes si el texto no es ASCII
+                normalizado = Normalizer.normalize(texto, Normalizer.Form.NFD);
+                break;
+            }
+        }
+        List<String> terminos = new ArrayList<>();
+        StringBuilder termino = new StringBuilder();
+        for (int i = 0; i <= normalizado.length(); i++) {
+            char c = i < normalizado.length() ? normalizado.charAt(i) : ' ';
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                termino.append(Character.toLowerCase(c));
+            } else if (termino.length() > 0) {
+                String candidato = termino.toString();
+                if (candidato.length() >= LONGITUD_MINIMA && !PALABRAS_VACIAS.contains(candidato)) {
+                    terminos.add(candidato);
+                }
+                termino.setLength(0);
+            }
+        }
+        return terminos;
+    }
+
+    /**
+     * Pesos de cada término de una tarea.
+     */
+    private static Map<String, Integer> pesos(String titulo, String descripcion) {
+        Map<String, Integer> pesos = new LinkedHashMap<>();
+        for (String termino : tokenizar(titulo)) {
+            pesos.merge(termino, PESO_TITULO, Integer::sum);
+        }
+        for (String termino : tokenizar(descripcion)) {
+            pesos.merge(termino, PESO_DESCRIPCION, Integer::sum);
+        }
+        return pesos;
+    }
+
+    private static long codificar(long id, int peso) {
+        if (id < 0 || id > ID_MAXIMO) {
+            throw new IllegalArgumentException("ID fuera del rango indexable: " + id);
+        }
+        return id << BITS_PESO | Math.min(peso, PESO_MAXIMO);
+    }
+
+    /**
+     * Posición de la entrada de un ID (viva o borrada) entre las primeras
+     * tamano de una lista, o el punto de inserción codificado como en
+     * {@link Arrays#binarySearch(long[], long)}.
+     */
+    private static int posicion(long[] lista, int tamano, long id) {
+        int i = Arrays.binarySearch(lista, 0, tamano, id << BITS_PESO);
+        int insercion = i >= 0 ? i : -i - 1;
+        if (insercion < tamano && lista[insercion] >>> BITS_PESO == id) {
+            return insercion;
+        }
+        return -insercion - 1;
+    }
+
+    /**
+     * Versión de la lista de un término: las primeras {@code tamano} entradas
+     * de {@code entradas}, ordenadas por ID. Varias versiones comparten el
+     * array: un alta escribe en el hueco tras el tamaño, que las versiones
+     * anteriores no leen, y publica una versión nueva con un elemento más.
+     * Las entradas con peso 0 son tareas borradas.
+     */
+    private static final class ListaTermino {
+
+        private final long[] entradas;
+        private final int tamano;
+        private final int vivas;
+
+        ListaTermino(long[] entradas, int tamano, int vivas) {
+            this.entradas = entradas;
+            this.tamano = tamano;
+            this.vivas = vivas;
+        }
+
+        /**
+         * @return Versión con la entrada añadida o reactivada
+         */
+        ListaTermino conEntrada(long id, int peso) {
+            long codigo = codificar(id, peso);
+            int p = posicion(entradas, tamano, id);
+            if (p >= 0) {
+                boolean borrada = (entradas[p] & PESO_MAXIMO) == 0;
+                entradas[p] = codigo;
+                return new ListaTermino(entradas, tamano, borrada ? vivas + 1 : vivas);
+            }
+            int insercion = -p - 1;
+            if (insercion == tamano) {
+                long[] destino = tamano < entradas.length
+                        ? entradas : Arrays.copyOf(entradas, Math.max(4, entradas.length * 2));
+                destino[tamano] = codigo;
+                return new ListaTermino(destino, tamano + 1, vivas + 1);
+            }
+            // ID intermedio: no se puede escribir en el array que leen las búsquedas
+            long[] nueva = new long[Math.max(4, tamano + tamano / 2 + 1)];
+            System.arraycopy(entradas, 0, nueva, 0, insercion);
+            nueva[insercion] = codigo;
+            System.arraycopy(entradas, insercion, nueva, insercion + 1, tamano - insercion);
+            return new ListaTermino(nueva, tamano + 1, vivas + 1);
+        }
+
+        /**
+         * @return Versión sin la entrada del ID, null si queda vacía, o esta
+         *         misma si el ID no estaba
+         */
+        ListaTermino sinEntrada(long id) {
+            int p = posicion(entradas, tamano, id);
+            if (p < 0 || (entradas[p] & PESO_MAXIMO) == 0) {
+                return this;
+            }
+            if (vivas == 1) {
+                return null;
+            }
+            entradas[p] = id << BITS_PESO;
+            if (tamano >= MINIMO_COMPACTACION && vivas - 1 <= tamano / 2) {
+                return compactada();
+            }
+            return new ListaTermino(entradas, tamano, vivas - 1);
+        }
+
+        private ListaTermino compactada() {
+            long[] nueva = new long[vivas - 1 + (vivas - 1) / 2 + 1];
+            int n = 0;
+            for (int i = 0; i < tamano; i++) {
+                if ((entradas[i] & PESO_MAXIMO) != 0) {
+                    nueva[n++] = entradas[i];
+                }
+            }
+            return new ListaTermino(nueva, n, n);
+        }
+    }
+
+    /**
+     * Términos del diccionario que empiezan por un término de la consulta, con
+     * un cursor por lista que se recorre de mayor a menor ID.
+     */
+    private static final class Expansion {
+
+        private final long[][] listas = new long[MAX_EXPANSIONES + 1][];
+        private final int[] factores = new int[MAX_EXPANSIONES + 1];
+        private final int[] posiciones = new int[MAX_EXPANSIONES + 1];
+        private int cantidad;
+        private long total;
+        private boolean recortada;
+
+        void agregar(ListaTermino lista, int factor) {
+            listas[cantidad] = lista.entradas;
+            factores[cantidad] = factor;
+            posiciones[cantidad] = lista.tamano - 1;
+            cantidad++;
+            total += lista.vivas;
+        }
+
+        /**
+         * @return Mayor ID aún no recorrido o -1 si se han recorrido todas las listas
+         */
+        long siguienteId() {
+            long id = -1;
+            for (int i = 0; i < cantidad; i++) {
+                int p = posiciones[i];
+                if (p >= 0) {
+                    id = Math.max(id, listas[i][p] >>> BITS_PESO);
+                }
+            }
+            return id;
+        }
+
+        /**
+         * Avanza los cursores hasta dejar atrás el ID indicado. Debe llamarse
+         * con IDs decrecientes.
+         *
+         * @return Mejor puntuación de la tarea entre los términos expandidos o 0 si no aparece
+         */
+        long avanzarHasta(long id) {
+            long mejor = 0;
+            for (int i = 0; i < cantidad; i++) {
+                long[] lista = listas[i];
+                int p = retroceder(lista, posiciones[i], id);
+                if (p >= 0 && lista[p] >>> BITS_PESO == id) {
+                    // Una entrada borrada tiene peso 0 y no puntúa
+                    mejor = Math.max(mejor, (lista[p] & PESO_MAXIMO) * factores[i]);
+                    p--;
+                }
+                posiciones[i] = p;
+            }
+            return mejor;
+        }
+
+        /**
+         * Busca hacia atrás desde la posición p la primera entrada con ID menor
+         * o igual al indicado: salto exponencial y búsqueda binaria en el último tramo.
+         */
+        private static int retroceder(long[] lista, int p, long id) {
+            if (p < 0 || lista[p] >>> BITS_PESO <= id) {
+                return p;
+            }
+            int salto = 1;
+            int limite = p;
+            while (limite - salto >= 0 && lista[limite - salto] >>> BITS_PESO > id) {
+                limite -= salto;
+                salto <<= 1;
+            }
+            int desde = Math.max(0, limite - salto);
+            int i = Arrays.binarySearch(lista, desde, limite, id << BITS_PESO | PESO_MAXIMO);
+            int insercion = i >= 0 ? i + 1 : -i - 1;
+            return insercion - 1;
+        }
+    }
+
+    /**
+     * Diccionario de términos y términos de cada tarea (para poder quitarlos).
+     * Las modificaciones se hacen siempre bajo el bloqueo de escritura.
+     */
+    private static final class Indice {
+
+        private final ConcurrentSkipListMap<String, ListaTermino> terminos;
+        private final ConcurrentHashMap<Long, String[]> terminosPorTarea;
+
+        Indice(ConcurrentSkipListMap<String, ListaTermino> terminos, ConcurrentHashMap<Long, String[]> terminosPorTarea) {
+            this.terminos = terminos;
+            this.terminosPorTarea = terminosPorTarea;
+        }
+
+        Expansion expandir(String prefijo) {
+            Expansion expansion = new Expansion();
+            ListaTermino exacto = terminos.get(prefijo);
+            if (exacto != null) {
+                expansion.agregar(exacto, 2);
+            }
+            int expandidos = 0;
+            for (Map.Entry<String, ListaTermino> entrada
+                    : terminos.subMap(prefijo, false, prefijo + Character.MAX_VALUE, false).entrySet()) {
+                if (expandidos++ == MAX_EXPANSIONES) {
+                    expansion.recortada = true;
+                    break;
+                }
+                expansion.agregar(entrada.getValue(), 1);
+            }
+            return expansion;
+        }
+
+        void aplicar(TaskEvent evento) {
+            switch (evento.getTipo()) {
+                case CREADAS:
+                case ACTUALIZADAS:
+                    for (Task task : evento.getTareas()) {
+                        guardar(task.getId(), task.getTitle(), task.getDescription());
+                    }
+                    break;
+                case ELIMINADAS:
+                    for (Long id : evento.getIds()) {
+                        eliminar(id);
+                    }
+                    break;
+                default:
+                    // El cambio de estado no afecta al texto
+                    break;
+            }
+        }
+
+        void guardar(Long id, String titulo, String descripcion) {
+            eliminar(id);
+            Map<String, Integer> pesos = pesos(titulo, descripcion);
+            String[] propios = new String[pesos.size()];
+            int n = 0;
+            for (Map.Entry<String, Integer> entrada : pesos.entrySet()) {
+                Map.Entry<String, ListaTermino> existente = terminos.ceilingEntry(entrada.getKey());
+                boolean nuevo = existente == null || !existente.getKey().equals(entrada.getKey());
+                String termino = nuevo ? entrada.getKey() : existente.getKey();
+                ListaTermino lista = nuevo ? new ListaTermino(new long[1], 0, 0) : existente.getValue();
+                terminos.put(termino, lista.conEntrada(id, entrada.getValue()));
+                propios[n++] = termino;
+            }
+            terminosPorTarea.put(id, propios);
+        }
+
+        void eliminar(Long id) {
+            String[] anteriores = terminosPorTarea.remove(id);
+            if (anteriores == null) {
+                return;
+            }
+            for (String termino : anteriores) {
+                ListaTermino lista = terminos.get(termino);
+                if (lista == null) {
+                    continue;
+                }
+                ListaTermino nueva = lista.sinEntrada(id);
+                if (nueva == null) {
+                    terminos.remove(termino);
+                } else if (nueva != lista) {
+                    terminos.put(termino, nueva);
+                }
+            }
+        }
+    }
+
+    /**
+     * Acumula las entradas de la carga completa y ordena cada lista una sola vez al final.
+     */
+    private static final class CargaMasiva {
+
+        private final Map<String, Acumulado> listas = new HashMap<>();
+        private final ConcurrentHashMap<Long, String[]> terminosPorTarea = new ConcurrentHashMap<>();
+
+        void agregar(Long id, String titulo, String descripcion) {
+            Map<String, Integer> pesos = pesos(titulo, descripcion);
+            String[] propios = new String[pesos.size()];
+            int n = 0;
+            for (Map.Entry<String, Integer> entrada : pesos.entrySet()) {
+                Acumulado acumulado = listas.computeIfAbsent(entrada.getKey(), Acumulado::new);
+                acumulado.agregar(codificar(id, entrada.getValue()));
+                // Todas las tareas comparten la misma instancia de cada término
+                propios[n++] = acumulado.termino;
+            }
+            terminosPorTarea.put(id, propios);
+        }
+
+        Indice construir() {
+            ConcurrentSkipListMap<String, ListaTermino> terminos = new ConcurrentSkipListMap<>();
+            for (Acumulado acumulado : listas.values()) {
+                long[] lista = Arrays.copyOf(acumulado.lista, acumulado.tamano);
+                Arrays.sort(lista);
+                terminos.put(acumulado.termino, new ListaTermino(lista, lista.length, lista.length));
+            }
+            return new Indice(terminos, terminosPorTarea);
+        }
+    }
+
+    private static final class Acumulado {
+
+        private final String termino;
+        private long[] lista = new long[4];
+        private int tamano;
+
+        Acumulado(String termino) {
+            this.termino = termino;
+        }
+
+        void agregar(long codigo) {
+            if (tamano == lista.length) {
+                lista = Arrays.copyOf(lista, tamano * 2);
+            }
+            lista[tamano++] = codigo;
+        }
+    }
+}
@@ -1,13 +1,34 @@
 package net.xiliosoft.prueba_tecnica.service;
 
 import net.xiliosoft.prueba_tecnica.model.Task;
+import net.xiliosoft.prueba_tecnica.model.TaskCursor;
+import net.xiliosoft.prueba_tecnica.model.TaskFilter;
+import net.xiliosoft.prueba_tecnica.model.TaskSlice;
+import net.xiliosoft.prueba_tecnica.model.TaskStatusCounts;
+import net.xiliosoft.prueba_tecnica.model.TaskSummary;
 import net.xiliosoft.prueba_tecnica.repository.TaskRepository;
-import org.apache.log4j.Logger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.enterprise.context.Dependent;
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
+import javax.persistence.OptimisticLockException;
 import javax.transaction.Transactional;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.function.LongConsumer;
 
 /**
  * Servicio que contiene la lógica de negocio para la gestión de tareas.
@@ -17,13 +38,58 @@ import java.util.List;
  * @version 1.0
  */
 @Dependent
+@Timed
 public class TaskService {
 
-    private static final Logger logger = Logger.getLogger(TaskService.class);
+    private static final Logger logger = LoggerFactory.getLogger(TaskService.class);
+
+    /**
+     * Tamaño máximo de página aceptado en las consultas por cursor.
+     */
+    public static final int MAX_TAREAS_POR_PAGINA = 500;
+
+    /**
+     * Tamaño de lote por defecto para la importación masiva.
+     * Conviene que sea múltiplo de hibernate.jdbc.batch_size.
+     */
+    public static final int TAMANO_LOTE_IMPORTACION = 1000;
+
+    /**
+     * Filas leídas por cada viaje a la base de datos durante la exportación.
+     */
+    public static final int FETCH_SIZE_EXPORTACION = 1000;
+
+    /**
+     * Tamaño de bloque por defecto para la purga de tareas completadas.
+     */
+    public static final int TAMANO_LOTE_PURGA = 500;
+
+    /**
+     * Tamaño de bloque por defecto para el archivo de tareas completadas.
+     */
+    public static final int TAMANO_LOTE_ARCHIVO = 500;
 
     @Inject
     private TaskRepository taskRepository;
 
+    @Inject
+    private TaskBatchOperations batchOperations;
+
+    @Inject
+    private TaskStatusIndex statusIndex;
+
+    @Inject
+    private TaskCountersCache countersCache;
+
+    @Inject
+    private TaskSearchIndex searchIndex;
+
+    @Inject
+    private TaskStatusWriteBehind writeBehind;
+
+    @Inject
+    private Event<TaskEvent> eventos;
+
     /**
      * Crea una nueva tarea en el sistema.
      * Establece la fecha de creación si no está definida.
@@ -33,36 +99,203 @@ public class TaskService {
      */
     @Transactional
     public Task crearTarea(Task task) {
-        logger.info("Creando nueva tarea: " + task.getTitle());
+        logger.info("Creando nueva tarea: {}", task.getTitle());
         if (task.getCreatedAt() == null) {
             task.setCreatedAt(new java.util.Date());
         }
         Task tareaCreada = taskRepository.crear(task);
-        logger.info("Tarea creada exitosamente con ID: " + tareaCreada.getId());
+        eventos.fire(TaskEvent.creadas(Collections.singletonList(tareaCreada)));
+        logger.info("Tarea creada exitosamente con ID: {}", tareaCreada.getId());
         return tareaCreada;
     }
 
     /**
-     * Actualiza una tarea existente.
+     * Importa tareas de forma masiva desde un fichero CSV o JSON.
+     * El fichero se lee en streaming y se inserta por lotes, cada uno en su
+     * propia transacción y con el contexto de persistencia vaciado al terminar,
+     * por lo que la memoria usada no depende del tamaño del fichero.
+     * Las filas que no se pueden leer o no son válidas se descartan, se cuentan
+     * como rechazadas y el resultado incluye su línea y motivo; la importación
+     * sigue con el resto. Si falla un lote, los anteriores quedan confirmados y
+     * se propaga la excepción.
+     * 
+     * @param entrada Contenido del fichero
+     * @param formato Formato del fichero
+     * @param tamanoLote Número de tareas por transacción
+     * @param listener Receptor del progreso tras cada lote (puede ser null)
+     * @return Resultado de la importación
+     * @throws IOException si no se puede leer el fichero
+     */
+    public ImportResult importarTareas(InputStream entrada, TaskImportReader.Formato formato,
+                                       int tamanoLote, ImportProgressListener listener) throws IOException {
+        int lote = tamanoLote > 0 ? tamanoLote : TAMANO_LOTE_IMPORTACION;
+        logger.info("Iniciando importación masiva de tareas ({}, lotes de {})", formato, lote);
+        long inicio = System.currentTimeMillis();
+        long insertadas = 0;
+        List<Task> pendientes = new ArrayList<>(lote);
+        try (TaskImportReader reader = new TaskImportReader(entrada, formato)) {
+            while (reader.hasNext()) {
+                pendientes.add(reader.next());
+                if (pendientes.size() == lote || !reader.hasNext()) {
+                    batchOperations.insertarLote(pendientes);
+                    insertadas += pendientes.size();
+                    pendientes = new ArrayList<>(lote);
+                    ImportResult progreso = new ImportResult(reader.getLeidas(), insertadas,
+                            reader.getRechazadas(), System.currentTimeMillis() - inicio, reader.getErrores());
+                    logger.debug("Progreso de importación: {}", progreso);
+                    if (listener != null) {
+                        listener.progreso(progreso);
+                    }
+                }
+            }
+            ImportResult resultado = new ImportResult(reader.getLeidas(), insertadas,
+                    reader.getRechazadas(), System.currentTimeMillis() - inicio, reader.getErrores());
+            logger.info("Importación masiva finalizada: {}", resultado);
+            if (!resultado.getErrores().isEmpty()) {
+                logger.warn("Filas rechazadas en la importación (se muestran hasta {}): {}",
+                        TaskImportReader.MAX_ERRORES_GUARDADOS, resultado.getErrores());
+            }
+            return resultado;
+        }
+    }
+
+    /**
+     * Exporta todas las tareas a un flujo en CSV o JSON.
+     * Las filas se leen con un cursor y se escriben una a una, sin cargar
+     * la tabla en memoria.
      * 
-     * @param task La tarea a actualizar
-     * @return La tarea actualizada
+     * @param salida Flujo de destino (no se cierra)
+     * @param formato Formato de salida
+     * @return Número de tareas exportadas
+     * @throws IOException si falla la escritura
+     */
+    @Transactional
+    public long exportarTareas(OutputStream salida, TaskImportReader.Formato formato) throws IOException {
+        logger.info("Iniciando exportación de tareas en formato {}", formato);
+        long inicio = System.currentTimeMillis();
+        TaskExportWriter writer = new TaskExportWriter(salida, formato);
+        try {
+            taskRepository.recorrerTodasConDescripcion(FETCH_SIZE_EXPORTACION, task -> {
+                try {
+                    writer.escribir(task);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            writer.close();
+        }
+        logger.info("Exportación finalizada: {} tareas en {} ms",
+                writer.getEscritas(), System.currentTimeMillis() - inicio);
+        return writer.getEscritas();
+    }
+
+    /**
+     * Actualiza el título, la descripción y la fecha límite de una tarea si no
+     * ha cambiado desde que se leyó (misma versión). No bloquea la fila entre la
+     * lectura y la escritura; el estado se cambia con los métodos marcar*.
+     * 
+     * @param task La tarea con los nuevos datos y la versión leída
+     * @return La tarea actualizada, con su nueva versión
+     * @throws TaskConflictException si la tarea cambió o se eliminó desde que se leyó
      */
     @Transactional
     public Task actualizarTarea(Task task) {
-        logger.info("Actualizando tarea con ID: " + task.getId());
-        return taskRepository.actualizar(task);
+        logger.info("Actualizando tarea con ID: {}", task.getId());
+        Task actualizada;
+        try {
+            actualizada = taskRepository.actualizar(task);
+        } catch (OptimisticLockException e) {
+            throw new TaskConflictException(task.getId(), false,
+                    "La tarea " + task.getId() + " ha sido modificada por otro usuario", e);
+        }
+        if (actualizada == null) {
+            throw new TaskConflictException(task.getId(), true,
+                    "La tarea " + task.getId() + " ha sido eliminada por otro usuario", null);
+        }
+        eventos.fire(TaskEvent.actualizadas(Collections.singletonList(actualizada)));
+        return actualizada;
     }
 
     /**
      * Elimina una tarea del sistema.
      * 
      * @param id El ID de la tarea a eliminar
+     * @return true si se eliminó, false si no existía
      */
     @Transactional
-    public void eliminarTarea(Long id) {
-        logger.info("Eliminando tarea con ID: " + id);
-        taskRepository.eliminar(id);
+    public boolean eliminarTarea(Long id) {
+        logger.info("Eliminando tarea con ID: {}", id);
+        boolean eliminada = taskRepository.eliminar(id);
+        if (eliminada) {
+            eventos.fire(TaskEvent.eliminadas(Collections.singletonList(id)));
+        }
+        return eliminada;
+    }
+
+    /**
+     * Purga las tareas completadas creadas antes de una fecha.
+     * Se eliminan por bloques, cada uno en su propia transacción, para no
+     * mantener bloqueos largos ni generar grandes segmentos de undo.
+     * Termina cuando no queda ninguna tarea que purgar, aunque un bloque
+     * elimine menos de las seleccionadas por cambios concurrentes.
+     * Si un bloque falla, los anteriores quedan confirmados.
+     * 
+     * @param limite Fecha de creación límite (exclusiva)
+     * @param tamanoLote Número de tareas por bloque (0 para el valor por defecto)
+     * @param progreso Recibe el total eliminado tras cada bloque (puede ser null)
+     * @return Número total de tareas eliminadas
+     */
+    public long purgarCompletadasAntesDe(Date limite, int tamanoLote, LongConsumer progreso) {
+        int lote = tamanoLote > 0 ? Math.min(tamanoLote, TaskRepository.MAX_IDS_POR_SENTENCIA) : TAMANO_LOTE_PURGA;
+        logger.info("Purgando tareas completadas creadas antes de {} (bloques de {})", limite, lote);
+        long inicio = System.currentTimeMillis();
+        long total = 0;
+        OptionalInt eliminadas;
+        while ((eliminadas = batchOperations.purgarLoteCompletadas(limite, lote)).isPresent()) {
+            total += eliminadas.getAsInt();
+            logger.debug("Purga en curso: {} tareas eliminadas", total);
+            if (progreso != null && eliminadas.getAsInt() > 0) {
+                progreso.accept(total);
+            }
+        }
+        logger.info("Purga finalizada: {} tareas eliminadas en {} ms",
+                total, System.currentTimeMillis() - inicio);
+        return total;
+    }
+
+    /**
+     * Mueve a la tabla de archivo las tareas completadas antes de una fecha.
+     * Como la purga, trabaja por bloques en transacciones independientes:
+     * cada bloque se copia con INSERT ... SELECT y se borra de la tabla de
+     * tareas en la misma transacción, así que una tarea nunca queda en las
+     * dos tablas ni en ninguna. Termina cuando no queda ninguna tarea que
+     * archivar, aunque un bloque archive menos de las seleccionadas por
+     * cambios concurrentes.
+     * 
+     * @param limite Momento de compleción límite (exclusivo)
+     * @param tamanoLote Número de tareas por bloque (0 para el valor por defecto)
+     * @param progreso Recibe el total archivado tras cada bloque (puede ser null)
+     * @return Número total de tareas archivadas
+     */
+    public long archivarCompletadasAntesDe(Date limite, int tamanoLote, LongConsumer progreso) {
+        int lote = tamanoLote > 0 ? Math.min(tamanoLote, TaskRepository.MAX_IDS_POR_SENTENCIA) : TAMANO_LOTE_ARCHIVO;
+        logger.info("Archivando tareas completadas antes de {} (bloques de {})", limite, lote);
+        long inicio = System.currentTimeMillis();
+        long total = 0;
+        OptionalInt archivadas;
+        while ((archivadas = batchOperations.archivarLoteCompletadas(limite, lote)).isPresent()) {
+            total += archivadas.getAsInt();
+            logger.debug("Archivo en curso: {} tareas archivadas", total);
+            if (progreso != null && archivadas.getAsInt() > 0) {
+                progreso.accept(total);
+            }
+        }
+        logger.info("Archivo finalizado: {} tareas archivadas en {} ms",
+                total, System.currentTimeMillis() - inicio);
+        return total;
     }
 
     /**
@@ -71,74 +304,416 @@ public class TaskService {
      * @param id El ID de la tarea
      * @return La tarea encontrada o null si no existe
      */
+    @ReplicaRead
     public Task buscarTareaPorId(Long id) {
         return taskRepository.buscarPorId(id);
     }
 
     /**
-     * Obtiene todas las tareas del sistema.
+     * Busca una tarea por su ID en la base de datos principal, para editarla.
+     * La versión leída de una réplica con retraso provocaría un conflicto al guardar.
+     * 
+     * @param id El ID de la tarea
+     * @return La tarea encontrada o null si no existe
+     */
+    public Task buscarTareaParaEditar(Long id) {
+        return taskRepository.buscarPorId(id);
+    }
+
+    /**
+     * Obtiene todas las tareas del sistema como proyecciones de solo lectura.
+     * Para editar una tarea se carga la entidad con {@link #buscarTareaPorId(Long)}.
      * 
      * @return Lista de todas las tareas
      */
-    public List<Task> buscarTodasLasTareas() {
+    @ReplicaRead
+    public List<TaskSummary> buscarTodasLasTareas() {
         logger.debug("Buscando todas las tareas");
         return taskRepository.buscarTodas();
     }
 
+    /**
+     * Obtiene una página de tareas filtrada y ordenada.
+     * 
+     * @param filtro Criterios de filtrado (null para todas las tareas)
+     * @param primero Posición de la primera tarea de la página
+     * @param cantidad Tamaño de la página
+     * @param campoOrden Atributo por el que ordenar o null para el orden por defecto
+     * @param ascendente true para orden ascendente
+     * @return Lista con las tareas de la página, con los cambios de estado encolados aplicados
+     */
+    public List<TaskSummary> buscarTareasPaginadas(TaskFilter filtro, int primero, int cantidad,
+                                                   String campoOrden, boolean ascendente) {
+        List<TaskSummary> pagina = taskRepository.buscarPagina(filtro, primero, cantidad, campoOrden, ascendente);
+        if (!writeBehind.isActiva()) {
+            return pagina;
+        }
+        // Los cambios de estado encolados aún no están en la base de datos
+        List<TaskSummary> conCambios = new ArrayList<>(pagina.size());
+        for (TaskSummary task : pagina) {
+            Integer estado = writeBehind.estadoPendiente(task.getId());
+            conCambios.add(estado != null ? task.conEstado(estado) : task);
+        }
+        return conCambios;
+    }
+
+    /**
+     * Cuenta las tareas que cumplen el filtro.
+     * 
+     * @param filtro Criterios de filtrado (null para todas las tareas)
+     * @return Número de tareas
+     */
+    public long contarTareas(TaskFilter filtro) {
+        return taskRepository.contar(filtro);
+    }
+
+    /**
+     * Obtiene la siguiente página de tareas (orden de creación descendente)
+     * a partir de un token de cursor.
+     * 
+     * @param cursor Token devuelto en la página anterior o null para empezar
+     * @param cantidad Tamaño de la página (máximo {@link #MAX_TAREAS_POR_PAGINA})
+     * @return Página de tareas con el token de la siguiente
+     * @throws IllegalArgumentException si el token no es válido
+     */
+    public TaskSlice buscarTareasPorCursor(String cursor, int cantidad) {
+        TaskCursor posicion = decodificarCursor(cursor, TaskCursor.Orden.CREACION);
+        int limite = limitarCantidad(cantidad);
+        List<TaskSummary> tareas = taskRepository.buscarDespuesDe(posicion, limite + 1);
+        return crearSlice(tareas, limite, TaskCursor.Orden.CREACION);
+    }
+
+    /**
+     * Obtiene la siguiente página de tareas pendientes (por fecha límite)
+     * a partir de un token de cursor.
+     * 
+     * @param cursor Token devuelto en la página anterior o null para empezar
+     * @param cantidad Tamaño de la página (máximo {@link #MAX_TAREAS_POR_PAGINA})
+     * @return Página de tareas pendientes con el token de la siguiente
+     * @throws IllegalArgumentException si el token no es válido
+     */
+    public TaskSlice buscarPendientesPorCursor(String cursor, int cantidad) {
+        TaskCursor posicion = decodificarCursor(cursor, TaskCursor.Orden.PENDIENTES);
+        int limite = limitarCantidad(cantidad);
+        List<TaskSummary> tareas = taskRepository.buscarPendientesDespuesDe(posicion, limite + 1);
+        return crearSlice(tareas, limite, TaskCursor.Orden.PENDIENTES);
+    }
+
+    /**
+     * Obtiene la siguiente página de tareas completadas (orden de creación
+     * descendente) a partir de un token de cursor.
+     * 
+     * @param cursor Token devuelto en la página anterior o null para empezar
+     * @param cantidad Tamaño de la página (máximo {@link #MAX_TAREAS_POR_PAGINA})
+     * @return Página de tareas completadas con el token de la siguiente
+     * @throws IllegalArgumentException si el token no es válido
+     */
+    public TaskSlice buscarCompletadasPorCursor(String cursor, int cantidad) {
+        TaskCursor posicion = decodificarCursor(cursor, TaskCursor.Orden.COMPLETADAS);
+        int limite = limitarCantidad(cantidad);
+        List<TaskSummary> tareas = taskRepository.buscarCompletadasDespuesDe(posicion, limite + 1);
+        return crearSlice(tareas, limite, TaskCursor.Orden.COMPLETADAS);
+    }
+
     /**
      * Obtiene todas las tareas completadas.
+     * Se responden desde el índice en memoria si está cargado, con una vista
+     * no modificable sin copiarlas.
      * 
-     * @return Lista de tareas completadas
+     * @return Tareas completadas
      */
-    public List<Task> buscarTareasCompletadas() {
+    @ReplicaRead
+    public Collection<TaskSummary> buscarTareasCompletadas() {
         logger.debug("Buscando tareas completadas");
+        if (statusIndex.isCargado()) {
+            return statusIndex.completadas();
+        }
         return taskRepository.buscarCompletadas();
     }
 
     /**
      * Obtiene todas las tareas pendientes.
+     * Se responden desde el índice en memoria si está cargado, con una vista
+     * no modificable sin copiarlas.
      * 
-     * @return Lista de tareas pendientes
+     * @return Tareas pendientes
      */
-    public List<Task> buscarTareasPendientes() {
+    @ReplicaRead
+    public Collection<TaskSummary> buscarTareasPendientes() {
         logger.debug("Buscando tareas pendientes");
+        if (statusIndex.isCargado()) {
+            return statusIndex.pendientes();
+        }
         return taskRepository.buscarPendientes();
     }
 
     /**
-     * Marca una tarea como completada.
+     * Busca una tarea por su ID también entre las archivadas.
+     * 
+     * @param id El ID de la tarea
+     * @return La tarea (proyección de solo lectura) o null si no existe
+     */
+    @ReplicaRead
+    public TaskSummary buscarTareaIncluyendoArchivo(Long id) {
+        return taskRepository.buscarPorIdIncluyendoArchivo(id);
+    }
+
+    /**
+     * Busca el texto literal en las tareas activas y en las archivadas.
+     * El índice en memoria solo contiene las activas, así que esta búsqueda
+     * siempre va a la base de datos.
+     * 
+     * @param texto Texto de búsqueda
+     * @param limite Número máximo de resultados (máximo {@link #MAX_TAREAS_POR_PAGINA})
+     * @return Tareas activas y después archivadas, las más recientes primero
+     */
+    @ReplicaRead
+    public List<TaskSummary> buscarIncluyendoArchivo(String texto, int limite) {
+        if (texto == null || texto.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        return taskRepository.buscarPorTextoIncluyendoArchivo(texto.trim(), limitarCantidad(limite));
+    }
+
+    /**
+     * @return Número de tareas archivadas
+     */
+    @ReplicaRead
+    public long contarArchivadas() {
+        return taskRepository.contarArchivadas();
+    }
+
+    /**
+     * Busca tareas por título y descripción con el índice de búsqueda en memoria.
+     * Los términos se comparan como prefijos y los resultados se ordenan por
+     * relevancia. Cada prefijo se expande como mucho a
+     * {@link TaskSearchIndex#MAX_EXPANSIONES} términos, así que con uno muy
+     * corto pueden faltar resultados. Las tareas encontradas se leen con su descripción en una
+     * sola consulta por IDs (el índice de estados no la guarda). Si el índice
+     * no está cargado se busca el texto literal en la base de datos.
+     * 
+     * @param texto Texto de búsqueda
+     * @param limite Número máximo de resultados (máximo {@link #MAX_TAREAS_POR_PAGINA})
+     * @return Tareas encontradas, de mayor a menor relevancia
+     */
+    public List<TaskSummary> buscar(String texto, int limite) {
+        if (texto == null || texto.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        int cantidad = limitarCantidad(limite);
+        if (!searchIndex.isCargado()) {
+            logger.warn("Índice de búsqueda no cargado, se busca en la base de datos: {}", texto);
+            return taskRepository.buscarPorTexto(texto.trim(), cantidad);
+        }
+        List<Long> ids = searchIndex.buscar(texto, cantidad);
+        List<TaskSummary> tareas = new ArrayList<>(ids.size());
+        if (ids.isEmpty()) {
+            return tareas;
+        }
+        Map<Long, TaskSummary> porId = new HashMap<>();
+        for (TaskSummary task : taskRepository.buscarPorIds(ids)) {
+            porId.put(task.getId(), task);
+        }
+        for (Long id : ids) {
+            TaskSummary task = porId.get(id);
+            if (task != null) {
+                tareas.add(task);
+            }
+        }
+        return tareas;
+    }
+
+    /**
+     * Obtiene el resumen de tareas pendientes, completadas y vencidas.
+     * Se sirve desde caché; solo lanza la consulta agregada cuando la entrada
+     * ha expirado o un cambio la ha invalidado.
+     * 
+     * @return Contadores por estado
+     */
+    public TaskStatusCounts obtenerResumen() {
+        return countersCache.obtener(() -> taskRepository.contarPorEstado(new Date()));
+    }
+
+    /**
+     * Compara el índice de estados en memoria con la base de datos.
+     * 
+     * @param reparar true para reconstruir el índice si se encuentran diferencias
+     * @return Informe de la comprobación (previo a la reparación)
+     */
+    public IndexConsistencyReport verificarIndiceDeEstados(boolean reparar) {
+        IndexConsistencyReport informe = statusIndex.verificarConsistencia();
+        if (!informe.isConsistente()) {
+            logger.warn("El índice de estados no coincide con la base de datos: {}", informe);
+            if (reparar) {
+                statusIndex.reconstruir();
+            }
+        }
+        return informe;
+    }
+
+    /**
+     * Marca una tarea como completada con un único UPDATE condicional.
      * 
      * @param id El ID de la tarea a marcar como completada
+     * @return true si la tarea cambió de estado, false si no existe o ya estaba completada
      */
     @Transactional
-    public void marcarComoCompletada(Long id) {
-        logger.info("Marcando tarea como completada, ID: " + id);
-        Task task = taskRepository.buscarPorId(id);
-        if (task != null) {
-            task.setCompleted(1);
-            taskRepository.actualizar(task);
-            logger.info("Tarea marcada como completada exitosamente");
-        } else {
-            logger.warn("No se encontró la tarea con ID: " + id + " para marcar como completada");
+    public boolean marcarComoCompletada(Long id) {
+        logger.info("Marcando tarea como completada, ID: {}", id);
+        boolean modificada = cambiarEstado(Collections.singletonList(id), 1) > 0;
+        if (!modificada) {
+            logger.warn("La tarea con ID: {} no existe o ya estaba completada", id);
         }
+        return modificada;
     }
 
     /**
-     * Marca una tarea como pendiente.
+     * Marca una tarea como pendiente con un único UPDATE condicional.
      * 
      * @param id El ID de la tarea a marcar como pendiente
+     * @return true si la tarea cambió de estado, false si no existe o ya estaba pendiente
      */
     @Transactional
-    public void marcarComoPendiente(Long id) {
-        logger.info("Marcando tarea como pendiente, ID: " + id);
-        Task task = taskRepository.buscarPorId(id);
-        if (task != null) {
-            task.setCompleted(0);
-            taskRepository.actualizar(task);
-            logger.info("Tarea marcada como pendiente exitosamente");
-        } else {
-            logger.warn("No se encontró la tarea con ID: " + id + " para marcar como pendiente");
+    public boolean marcarComoPendiente(Long id) {
+        logger.info("Marcando tarea como pendiente, ID: {}", id);
+        boolean modificada = cambiarEstado(Collections.singletonList(id), 0) > 0;
+        if (!modificada) {
+            logger.warn("La tarea con ID: {} no existe o ya estaba pendiente", id);
         }
+        return modificada;
+    }
+
+    /**
+     * Encola un cambio de estado hecho desde la interfaz para escribirlo junto
+     * con otros en segundo plano (ver {@link TaskStatusWriteBehind}).
+     * 
+     * @param id El ID de la tarea
+     * @param estado Nuevo valor de completed (0 o 1)
+     * @return true si se encoló; false si la escritura diferida no está activa
+     *         o la cola está llena, y hay que escribirlo en el momento
+     */
+    public boolean encolarCambioDeEstado(Long id, int estado) {
+        boolean encolado = writeBehind.encolar(id, estado);
+        if (encolado) {
+            logger.debug("Cambio de estado encolado, ID: {}, estado: {}", id, estado);
+        }
+        return encolado;
+    }
+
+    /**
+     * Marca varias tareas como completadas con UPDATE masivos.
+     * 
+     * @param ids IDs de las tareas
+     * @return Número de tareas que cambiaron de estado
+     */
+    @Transactional
+    public int marcarVariasComoCompletadas(Collection<Long> ids) {
+        logger.info("Marcando {} tareas como completadas", ids.size());
+        return cambiarEstado(ids, 1);
     }
-}
 
+    /**
+     * Marca varias tareas como pendientes con UPDATE masivos.
+     * 
+     * @param ids IDs de las tareas
+     * @return Número de tareas que cambiaron de estado
+     */
+    @Transactional
+    public int marcarVariasComoPendientes(Collection<Long> ids) {
+        logger.info("Marcando {} tareas como pendientes", ids.size());
+        return cambiarEstado(ids, 0);
+    }
+
+    /**
+     * Escribe los cambios de estado sacados de la cola de escritura diferida.
+     * Solo la usa {@link TaskStatusWriteBehind}: a diferencia de las escrituras
+     * directas, no descarta de la cola los cambios más recientes de las mismas
+     * tareas. Si una escritura directa sustituyó alguno mientras tanto, lanza
+     * una excepción después del UPDATE para deshacer la transacción.
+     * 
+     * @param ids IDs de las tareas
+     * @param estado Nuevo valor de completed (0 o 1)
+     * @return Número de tareas que cambiaron de estado
+     */
+    @Transactional
+    public int aplicarEstadosEncolados(Collection<Long> ids, int estado) {
+        int modificadas = escribirEstado(ids, estado);
+        writeBehind.comprobarNoSustituidas(ids);
+        return modificadas;
+    }
+
+    /**
+     * Escritura directa: el estado escrito es más reciente que cualquier
+     * cambio encolado de las mismas tareas, que se descarta sin esperar al
+     * vaciado en curso (ver {@link TaskStatusWriteBehind}).
+     */
+    private int cambiarEstado(Collection<Long> ids, int estado) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        writeBehind.descartar(ids);
+        return escribirEstado(ids, estado);
+    }
+
+    /**
+     * Un único UPDATE condicional: el número de filas modificadas indica si
+     * cambiaron todas las tareas (siempre se sabe con una sola) o solo algunas.
+     * Si cambiaron todas, el evento lleva sus fechas límite desde el índice en
+     * memoria y los contadores se ajustan en el sitio; si solo algunas, no se
+     * sabe cuáles, así que el evento incluye todos los IDs sin fechas y los
+     * contadores se vuelven a leer de la base de datos tras el commit.
+     */
+    private int escribirEstado(Collection<Long> ids, int estado) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int modificadas = taskRepository.actualizarEstado(ids, estado);
+        if (modificadas == 0) {
+            return 0;
+        }
+        Map<Long, Date> fechasLimite = modificadas == ids.size() ? fechasLimiteIndexadas(ids) : null;
+        eventos.fire(fechasLimite != null
+                ? TaskEvent.estadoCambiado(fechasLimite, estado)
+                : TaskEvent.estadoCambiado(ids, estado));
+        return modificadas;
+    }
+
+    /**
+     * @return Fecha límite de cada tarea según el índice de estados, o null si
+     *         el índice no está cargado o no tiene alguna de ellas
+     */
+    private Map<Long, Date> fechasLimiteIndexadas(Collection<Long> ids) {
+        if (!statusIndex.isCargado()) {
+            return null;
+        }
+        Map<Long, Date> fechas = new LinkedHashMap<>();
+        for (Long id : ids) {
+            TaskSummary task = statusIndex.buscarPorId(id);
+            if (task == null) {
+                return null;
+            }
+            fechas.put(id, task.getDueDate());
+        }
+        return fechas;
+    }
+
+    private static TaskCursor decodificarCursor(String token, TaskCursor.Orden orden) {
+        return token == null || token.isEmpty() ? null : TaskCursor.desdeToken(token, orden);
+    }
+
+    private static int limitarCantidad(int cantidad) {
+        return Math.max(1, Math.min(cantidad, MAX_TAREAS_POR_PAGINA));
+    }
+
+    /**
+     * Construye la página a partir de una consulta que pidió una fila extra:
+     * si esa fila existe hay más resultados y se emite el cursor de la última visible.
+     */
+    private static TaskSlice crearSlice(List<TaskSummary> tareas, int limite, TaskCursor.Orden orden) {
+        if (tareas.size() <= limite) {
+            return new TaskSlice(tareas, null);
+        }
+        List<TaskSummary> pagina = tareas.subList(0, limite);
+        return new TaskSlice(pagina, TaskCursor.despuesDe(orden, pagina.get(limite - 1)).toToken());
+    }
+}
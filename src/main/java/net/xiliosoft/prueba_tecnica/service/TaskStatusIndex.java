@@ -0,0 +1,291 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import net.xiliosoft.prueba_tecnica.model.Task;
+import net.xiliosoft.prueba_tecnica.model.TaskSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+
+/**
+ * Modelo de lectura en memoria con las tareas particionadas por estado.
+ * Responde a los listados de pendientes y completadas sin consultar Oracle.
+ *
+ * Se carga una vez al arrancar la aplicación y se mantiene al día con los
+ * {@link TaskEvent} que emite {@link TaskService} tras cada commit. Las
+ * lecturas no bloquean: recorren conjuntos ordenados concurrentes que guardan
+ * proyecciones inmutables ({@link TaskSummary}) en el mismo orden que las
+ * consultas JPQL, por lo que pueden devolverse sin copiarlas.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@ApplicationScoped
+public class TaskStatusIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskStatusIndex.class);
+
+    private static final int FETCH_SIZE_CARGA = 1000;
+
+    /**
+     * Orden de buscarCompletadas: createdAt DESC, id DESC.
+     */
+    static final Comparator<TaskSummary> ORDEN_CREACION_DESC = (a, b) -> {
+        int c = compararFechas(b.getCreatedAt(), a.getCreatedAt());
+        return c != 0 ? c : b.getId().compareTo(a.getId());
+    };
+
+    /**
+     * Orden de buscarPendientes: dueDate ASC (nulos al final), createdAt DESC, id DESC.
+     */
+    static final Comparator<TaskSummary> ORDEN_PENDIENTES = (a, b) -> {
+        int c = compararFechas(a.getDueDate(), b.getDueDate());
+        return c != 0 ? c : ORDEN_CREACION_DESC.compare(a, b);
+    };
+
+    @Inject
+    private TaskBatchOperations batchOperations;
+
+    private final Object escritura = new Object();
+    private final Object reconstruccion = new Object();
+
+    /** Estructuras vigentes; null hasta la primera carga. */
+    private volatile Particiones actual;
+
+    /** Eventos recibidos mientras se reconstruye, para reaplicarlos al terminar. */
+    private List<TaskEvent> eventosDuranteCarga;
+
+    /**
+     * Carga el índice al arrancar la aplicación. Si falla, los listados se
+     * siguen sirviendo desde la base de datos.
+     */
+    void alIniciar(@Observes @Initialized(ApplicationScoped.class) Object inicio) {
+        try {
+            reconstruir();
+        } catch (RuntimeException e) {
+            logger.error("No se pudo cargar el índice de estados de tareas", e);
+        }
+    }
+
+    /**
+     * Aplica un cambio confirmado en la base de datos.
+     *
+     * @param evento Cambio emitido por TaskService
+     */
+    void alCambiar(@Observes(during = TransactionPhase.AFTER_SUCCESS) TaskEvent evento) {
+        aplicar(evento);
+    }
+
+    /**
+     * Aplica un cambio sobre el índice.
+     *
+     * @param evento Cambio a aplicar
+     */
+    public void aplicar(TaskEvent evento) {
+        synchronized (escritura) {
+            if (eventosDuranteCarga != null) {
+                eventosDuranteCarga.add(evento);
+            }
+            Particiones particiones = actual;
+            if (particiones != null) {
+                particiones.aplicar(evento);
+            }
+        }
+    }
+
+    /**
+     * Vuelve a cargar el índice completo desde la base de datos.
+     * Los listados siguen respondiendo con el índice anterior hasta que termina.
+     */
+    public void reconstruir() {
+        reconstruir(consumidor -> batchOperations.recorrerTodas(FETCH_SIZE_CARGA, consumidor));
+    }
+
+    /**
+     * Reconstruye el índice a partir de un origen de tareas.
+     *
+     * @param origen Función que entrega todas las tareas al consumidor recibido
+     */
+    void reconstruir(Consumer<Consumer<TaskSummary>> origen) {
+        synchronized (reconstruccion) {
+            long inicio = System.currentTimeMillis();
+            synchronized (escritura) {
+                eventosDuranteCarga = new ArrayList<>();
+            }
+            Particiones nuevas = new Particiones();
+            boolean completa = false;
+            try {
+                origen.accept(nuevas::guardar);
+                completa = true;
+            } finally {
+                synchronized (escritura) {
+                    if (completa) {
+                        for (TaskEvent evento : eventosDuranteCarga) {
+                            nuevas.aplicar(evento);
+                        }
+                        actual = nuevas;
+                    }
+                    eventosDuranteCarga = null;
+                }
+            }
+            logger.info("Índice de estados cargado: {} tareas en {} ms",
+                    nuevas.porId.size(), System.currentTimeMillis() - inicio);
+        }
+    }
+
+    /**
+     * @return true si el índice está cargado y puede responder consultas
+     */
+    public boolean isCargado() {
+        return actual != null;
+    }
+
+    /**
+     * @return Vista no modificable de las tareas pendientes en orden de
+     *         buscarPendientes; refleja los cambios posteriores al recorrerla
+     * @throws IllegalStateException si el índice no está cargado
+     */
+    public Collection<TaskSummary> pendientes() {
+        return Collections.unmodifiableCollection(particiones().pendientes);
+    }
+
+    /**
+     * @return Vista no modificable de las tareas completadas en orden de
+     *         buscarCompletadas; refleja los cambios posteriores al recorrerla
+     * @throws IllegalStateException si el índice no está cargado
+     */
+    public Collection<TaskSummary> completadas() {
+        return Collections.unmodifiableCollection(particiones().completadas);
+    }
+
+    /**
+     * @param id ID de la tarea
+     * @return La tarea indexada o null si no existe
+     * @throws IllegalStateException si el índice no está cargado
+     */
+    public TaskSummary buscarPorId(Long id) {
+        return particiones().porId.get(id);
+    }
+
+    /**
+     * Compara el índice con la base de datos (IDs, estado y campos de ordenación).
+     * Las escrituras concurrentes durante la comprobación pueden aparecer como diferencias.
+     *
+     * @return Informe con las diferencias encontradas
+     */
+    public IndexConsistencyReport verificarConsistencia() {
+        Particiones particiones = actual;
+        if (particiones == null) {
+            return new IndexConsistencyReport(false, 0, 0, 0, 0);
+        }
+        Set<Long> enBaseDeDatos = new HashSet<>();
+        long[] faltantesYDistintas = new long[2];
+        batchOperations.recorrerTodas(FETCH_SIZE_CARGA, task -> {
+            enBaseDeDatos.add(task.getId());
+            TaskSummary indexada = particiones.porId.get(task.getId());
+            if (indexada == null) {
+                faltantesYDistintas[0]++;
+            } else if (!mismoEstadoYOrden(indexada, task)) {
+                faltantesYDistintas[1]++;
+            }
+        });
+        long sobrantes = particiones.porId.keySet().stream().filter(id -> !enBaseDeDatos.contains(id)).count();
+        IndexConsistencyReport informe = new IndexConsistencyReport(true, enBaseDeDatos.size(),
+                faltantesYDistintas[0], sobrantes, faltantesYDistintas[1]);
+        logger.info("Verificación del índice de estados: {}", informe);
+        return informe;
+    }
+
+    private Particiones particiones() {
+        Particiones particiones = actual;
+        if (particiones == null) {
+            throw new IllegalStateException("El índice de estados no está cargado");
+        }
+        return particiones;
+    }
+
+    private static boolean mismoEstadoYOrden(TaskSummary a, TaskSummary b) {
+        return Objects.equals(a.getCompleted(), b.getCompleted())
+                && compararFechas(a.getDueDate(), b.getDueDate()) == 0
+                && compararFechas(a.getCreatedAt(), b.getCreatedAt()) == 0;
+    }
+
+    /**
+     * Compara fechas por su instante, dejando los nulos al final.
+     */
+    private static int compararFechas(java.util.Date a, java.util.Date b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : 1) : -1;
+        }
+        return Long.compare(a.getTime(), b.getTime());
+    }
+
+    /**
+     * Conjunto de estructuras del índice. Se sustituye entero al reconstruir.
+     * Las modificaciones se hacen siempre bajo el bloqueo de escritura.
+     */
+    private static final class Particiones {
+
+        private final ConcurrentHashMap<Long, TaskSummary> porId = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListSet<TaskSummary> pendientes = new ConcurrentSkipListSet<>(ORDEN_PENDIENTES);
+        private final ConcurrentSkipListSet<TaskSummary> completadas = new ConcurrentSkipListSet<>(ORDEN_CREACION_DESC);
+
+        void aplicar(TaskEvent evento) {
+            switch (evento.getTipo()) {
+                case CREADAS:
+                case ACTUALIZADAS:
+                    for (Task task : evento.getTareas()) {
+                        guardar(TaskSummary.sinDescripcion(task));
+                    }
+                    break;
+                case ELIMINADAS:
+                    for (Long id : evento.getIds()) {
+                        eliminar(id);
+                    }
+                    break;
+                case ESTADO_CAMBIADO:
+                    for (Long id : evento.getIds()) {
+                        TaskSummary anterior = porId.get(id);
+                        if (anterior != null) {
+                            guardar(anterior.conEstado(evento.getEstado()));
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        void guardar(TaskSummary task) {
+            eliminar(task.getId());
+            porId.put(task.getId(), task);
+            particion(task).add(task);
+        }
+
+        void eliminar(Long id) {
+            TaskSummary anterior = porId.remove(id);
+            if (anterior != null) {
+                particion(anterior).remove(anterior);
+            }
+        }
+
+        private ConcurrentSkipListSet<TaskSummary> particion(TaskSummary task) {
+            return task.getCompleted() == 1 ? completadas : pendientes;
+        }
+    }
+}
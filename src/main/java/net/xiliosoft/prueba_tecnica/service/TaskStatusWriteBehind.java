@@ -0,0 +1,351 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.servlet.ServletContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Escritura diferida de los cambios de estado hechos desde la pantalla de tareas.
+ *
+ * Los cambios se encolan en un {@link TaskStatusWriteBuffer}, que combina los
+ * cambios repetidos de una misma tarea, y se escriben con UPDATE masivos cada
+ * {@link #INTERVALO_MILISEGUNDOS} o en cuanto la cola llega a {@link #UMBRAL_VACIADO}.
+ *
+ * Durabilidad: un cambio aceptado en la cola todavía no está en la base de
+ * datos. Si la escritura falla se reencola y se reintenta en el siguiente
+ * vaciado; al parar la aplicación la cola se vacía antes de cerrar. Si el
+ * proceso termina de forma abrupta se pierden los cambios de, como mucho, el
+ * último intervalo. Por eso es opcional y solo se usa para los cambios de la
+ * interfaz; la API REST y las operaciones masivas escriben siempre en el momento.
+ *
+ * Orden de las escrituras: una escritura directa de estado (REST, operaciones
+ * masivas o la escritura en el momento con la cola llena) llama antes a
+ * {@link #descartar(Collection)}, que quita de la cola el cambio de esas tareas
+ * y marca como sustituido el que un vaciado esté escribiendo, sin esperar a
+ * que termine: la escritura directa puede tener ya bloqueos de fila en su
+ * transacción, y esperar al vaciado invertiría el orden de los bloqueos. El
+ * vaciado comprueba las marcas después de su UPDATE y antes del commit; si
+ * alguna tarea se sustituyó, deshace el bloque y lo repite sin ella. Así un
+ * cambio encolado antes nunca se escribe encima de uno directo posterior: o
+ * el vaciado ve la marca, o su UPDATE se adelantó y la escritura directa
+ * espera a su commit para escribir después. Los cambios que un vaciado está
+ * escribiendo siguen visibles en {@link #estadoPendiente(Long)} hasta que se
+ * confirman o se sustituyen.
+ *
+ * Se activa con el parámetro de contexto {@value #PARAMETRO_ACTIVACION} en web.xml.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@ApplicationScoped
+public class TaskStatusWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskStatusWriteBehind.class);
+
+    /**
+     * Parámetro de contexto (true/false) que activa la escritura diferida.
+     */
+    public static final String PARAMETRO_ACTIVACION = "net.xiliosoft.prueba_tecnica.ESCRITURA_DIFERIDA_ESTADOS";
+
+    /**
+     * Número máximo de tareas distintas en la cola; con la cola llena se escribe en el momento.
+     */
+    public static final int CAPACIDAD = 10_000;
+
+    /**
+     * Intervalo entre vaciados periódicos.
+     */
+    public static final long INTERVALO_MILISEGUNDOS = 500L;
+
+    /**
+     * Tamaño de la cola que adelanta el vaciado.
+     */
+    public static final int UMBRAL_VACIADO = 500;
+
+    /**
+     * Cambios escritos por transacción.
+     */
+    public static final int MAX_CAMBIOS_POR_VACIADO = 1000;
+
+    @Inject
+    private TaskService taskService;
+
+    @Resource
+    private ManagedScheduledExecutorService executor;
+
+    private final TaskStatusWriteBuffer buffer = new TaskStatusWriteBuffer(CAPACIDAD);
+
+    /** Solo un vaciado a la vez, para que un cambio antiguo no se escriba después de uno nuevo. */
+    private final ReentrantLock vaciado = new ReentrantLock();
+    private final AtomicBoolean vaciadoSolicitado = new AtomicBoolean();
+
+    private volatile boolean activa;
+    private ScheduledFuture<?> tareaPeriodica;
+
+    private final AtomicLong escritos = new AtomicLong();
+    private final AtomicLong vaciados = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    private final AtomicLong tiempoTotalVaciadoNanos = new AtomicLong();
+    private volatile long ultimoVaciadoNanos;
+    private volatile long maximoVaciadoNanos;
+
+    /**
+     * Arranca el vaciado periódico si la escritura diferida está activada.
+     */
+    void alIniciar(@Observes @Initialized(ApplicationScoped.class) Object inicio) {
+        boolean configurada = inicio instanceof ServletContext
+                && Boolean.parseBoolean(((ServletContext) inicio).getInitParameter(PARAMETRO_ACTIVACION));
+        if (!configurada) {
+            return;
+        }
+        tareaPeriodica = executor.scheduleWithFixedDelay(this::vaciarSinFallar,
+                INTERVALO_MILISEGUNDOS, INTERVALO_MILISEGUNDOS, TimeUnit.MILLISECONDS);
+        activa = true;
+        logger.info("Escritura diferida de estados activada (cada {} ms)", INTERVALO_MILISEGUNDOS);
+    }
+
+    /**
+     * Deja de aceptar cambios y escribe los pendientes antes de parar.
+     */
+    @PreDestroy
+    void alDetener() {
+        if (!activa) {
+            return;
+        }
+        activa = false;
+        tareaPeriodica.cancel(false);
+        logger.info("Vaciando la cola de estados antes de parar: {} cambios", buffer.getPendientes());
+        try {
+            while (buffer.getPendientes() > 0) {
+                vaciar();
+            }
+        } catch (RuntimeException e) {
+            logger.error("No se pudieron escribir {} cambios de estado al parar; se pierden",
+                    buffer.getPendientes(), e);
+        }
+    }
+
+    /**
+     * @return true si la escritura diferida está activa y acepta cambios
+     */
+    public boolean isActiva() {
+        return activa;
+    }
+
+    /**
+     * Encola un cambio de estado.
+     *
+     * @param id ID de la tarea
+     * @param estado Nuevo valor de completed (0 o 1)
+     * @return false si no está activa o la cola está llena; el llamante debe escribir en el momento
+     */
+    public boolean encolar(Long id, int estado) {
+        if (!activa || !buffer.encolar(id, estado)) {
+            return false;
+        }
+        if (buffer.getPendientes() >= UMBRAL_VACIADO && vaciadoSolicitado.compareAndSet(false, true)) {
+            executor.execute(this::vaciarSinFallar);
+        }
+        return true;
+    }
+
+    /**
+     * @param id ID de la tarea
+     * @return Estado encolado y aún no escrito, o null
+     */
+    public Integer estadoPendiente(Long id) {
+        return buffer.estadoPendiente(id);
+    }
+
+    /**
+     * Descarta los cambios encolados de unas tareas antes de escribir su estado
+     * por otra vía. No espera al vaciado en curso: si está escribiendo alguna
+     * de ellas, la marca como sustituida y el vaciado la salta.
+     *
+     * @param ids IDs de las tareas
+     */
+    public void descartar(Collection<Long> ids) {
+        if (!buffer.contieneAlguna(ids)) {
+            return;
+        }
+        int descartados = buffer.descartar(ids);
+        if (descartados > 0) {
+            logger.debug("{} cambios encolados descartados por una escritura directa", descartados);
+        }
+    }
+
+    /**
+     * Comprueba, dentro de la transacción del vaciado y después de su UPDATE,
+     * que ninguna de las tareas se ha sustituido por una escritura directa.
+     *
+     * @param ids IDs de las tareas que escribe el vaciado
+     * @throws CambiosSustituidosException si alguna se sustituyó; la transacción debe deshacerse
+     */
+    void comprobarNoSustituidas(Collection<Long> ids) {
+        if (!buffer.sustituidas(ids).isEmpty()) {
+            throw new CambiosSustituidosException();
+        }
+    }
+
+    private void vaciarSinFallar() {
+        vaciadoSolicitado.set(false);
+        try {
+            while (vaciar() == MAX_CAMBIOS_POR_VACIADO) {
+                // La cola sigue llena: se continúa sin esperar al siguiente intervalo
+            }
+        } catch (RuntimeException e) {
+            // Los cambios ya se han reencolado; se reintenta en el siguiente intervalo
+            logger.error("Error al escribir los cambios de estado encolados", e);
+        }
+    }
+
+    /**
+     * Escribe un bloque de cambios encolados.
+     *
+     * @return Número de cambios extraídos de la cola
+     */
+    int vaciar() {
+        vaciado.lock();
+        try {
+            Map<Long, Integer> cambios = buffer.extraer(MAX_CAMBIOS_POR_VACIADO);
+            if (cambios.isEmpty()) {
+                return 0;
+            }
+            int extraidos = cambios.size();
+            long inicio = System.nanoTime();
+            List<Long> completadas = new ArrayList<>();
+            List<Long> pendientes = new ArrayList<>();
+            for (Map.Entry<Long, Integer> cambio : cambios.entrySet()) {
+                (cambio.getValue() == 1 ? completadas : pendientes).add(cambio.getKey());
+            }
+            try {
+                escribir(cambios, completadas, 1);
+                escribir(cambios, pendientes, 0);
+            } catch (RuntimeException e) {
+                fallos.incrementAndGet();
+                buffer.devolver(cambios);
+                throw e;
+            }
+            registrarVaciado(extraidos, System.nanoTime() - inicio);
+            return extraidos;
+        } finally {
+            vaciado.unlock();
+        }
+    }
+
+    /**
+     * Escribe en una transacción los cambios a un mismo estado y los confirma.
+     * Si una escritura directa sustituyó alguno, la transacción se ha deshecho:
+     * se quitan los sustituidos y se repite con el resto.
+     */
+    private void escribir(Map<Long, Integer> cambios, List<Long> ids, int estado) {
+        while (!ids.isEmpty()) {
+            try {
+                taskService.aplicarEstadosEncolados(ids, estado);
+                buffer.confirmar(ids);
+                ids.forEach(cambios::remove);
+                return;
+            } catch (CambiosSustituidosException e) {
+                Set<Long> sustituidas = buffer.sustituidas(ids);
+                logger.debug("{} cambios sustituidos por una escritura directa durante el vaciado",
+                        sustituidas.size());
+                buffer.confirmar(sustituidas);
+                sustituidas.forEach(cambios::remove);
+                ids.removeAll(sustituidas);
+            }
+        }
+    }
+
+    private void registrarVaciado(int cantidad, long nanos) {
+        escritos.addAndGet(cantidad);
+        vaciados.incrementAndGet();
+        tiempoTotalVaciadoNanos.addAndGet(nanos);
+        ultimoVaciadoNanos = nanos;
+        if (nanos > maximoVaciadoNanos) {
+            maximoVaciadoNanos = nanos;
+        }
+        logger.debug("Vaciado de estados: {} cambios en {} ms, {} en cola",
+                cantidad, nanos / 1_000_000, buffer.getPendientes());
+    }
+
+    /**
+     * @return Número de tareas con un cambio pendiente de escribir
+     */
+    public int getProfundidadCola() {
+        return buffer.getPendientes();
+    }
+
+    /**
+     * @return Cambios absorbidos por otro posterior de la misma tarea antes de escribirse
+     */
+    public long getCambiosCombinados() {
+        return buffer.getCombinados();
+    }
+
+    /**
+     * @return Cambios escritos en la base de datos
+     */
+    public long getCambiosEscritos() {
+        return escritos.get();
+    }
+
+    /**
+     * @return Vaciados fallidos (sus cambios se reintentan)
+     */
+    public long getVaciadosFallidos() {
+        return fallos.get();
+    }
+
+    /**
+     * @return Duración del último vaciado en milisegundos
+     */
+    public double getUltimoVaciadoMilisegundos() {
+        return ultimoVaciadoNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return Duración máxima de un vaciado en milisegundos
+     */
+    public double getMaximoVaciadoMilisegundos() {
+        return maximoVaciadoNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return Duración media de los vaciados en milisegundos
+     */
+    public double getMediaVaciadoMilisegundos() {
+        long total = vaciados.get();
+        return total == 0 ? 0 : tiempoTotalVaciadoNanos.get() / 1_000_000.0 / total;
+    }
+
+    /**
+     * Una escritura directa sustituyó alguno de los cambios que el vaciado
+     * estaba escribiendo; deshace la transacción del vaciado.
+     */
+    static class CambiosSustituidosException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        CambiosSustituidosException() {
+            super("Cambios de estado sustituidos por una escritura directa durante el vaciado");
+        }
+    }
+}
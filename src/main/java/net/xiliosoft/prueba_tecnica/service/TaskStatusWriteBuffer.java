@@ -0,0 +1,193 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cola acotada de cambios de estado pendientes de escribir.
+ *
+ * Guarda un único valor por tarea: si una tarea cambia varias veces antes de
+ * escribirse, solo se conserva el último estado y la tarea mantiene su turno
+ * en la cola. Los cambios se extraen en el orden en que entraron.
+ *
+ * Los cambios extraídos siguen visibles en {@link #estadoPendiente(Long)}
+ * hasta que se confirma su escritura con {@link #confirmar(Collection)} o se
+ * devuelven a la cola con {@link #devolver(Map)}. Si se descartan mientras
+ * están en escritura quedan marcados como sustituidos (ver
+ * {@link #sustituidas(Collection)}) y ya no se reencolan.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskStatusWriteBuffer {
+
+    private final int capacidad;
+    private final LinkedHashMap<Long, Integer> pendientes = new LinkedHashMap<>();
+    private final Map<Long, Integer> enEscritura = new HashMap<>();
+    private final Set<Long> sustituidas = new HashSet<>();
+    private long combinados;
+
+    /**
+     * @param capacidad Número máximo de tareas distintas en la cola
+     */
+    public TaskStatusWriteBuffer(int capacidad) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva");
+        }
+        this.capacidad = capacidad;
+    }
+
+    /**
+     * Encola un cambio de estado.
+     *
+     * @param id ID de la tarea
+     * @param estado Nuevo valor de completed
+     * @return false si la cola está llena y la tarea no estaba en ella
+     */
+    public synchronized boolean encolar(Long id, int estado) {
+        Integer anterior = pendientes.get(id);
+        if (anterior != null) {
+            pendientes.put(id, estado);
+            combinados++;
+            return true;
+        }
+        if (pendientes.size() >= capacidad) {
+            return false;
+        }
+        pendientes.put(id, estado);
+        return true;
+    }
+
+    /**
+     * @param id ID de la tarea
+     * @return Estado pendiente de escribir (en la cola o extraído y aún sin
+     *         confirmar) o null si la tarea no tiene ningún cambio pendiente
+     */
+    public synchronized Integer estadoPendiente(Long id) {
+        Integer estado = pendientes.get(id);
+        return estado != null ? estado : enEscritura.get(id);
+    }
+
+    /**
+     * @param ids IDs de las tareas
+     * @return true si alguna de las tareas tiene un cambio en la cola o en escritura
+     */
+    public synchronized boolean contieneAlguna(Collection<Long> ids) {
+        if (pendientes.isEmpty() && enEscritura.isEmpty()) {
+            return false;
+        }
+        for (Long id : ids) {
+            if (pendientes.containsKey(id) || enEscritura.containsKey(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Quita de la cola los cambios de unas tareas, porque se va a escribir un
+     * estado más reciente por otra vía. Los que están en escritura se marcan
+     * como sustituidos: quien los escribe debe comprobarlo antes de confirmar
+     * su transacción.
+     *
+     * @param ids IDs de las tareas
+     * @return Número de cambios descartados
+     */
+    public synchronized int descartar(Collection<Long> ids) {
+        int descartados = 0;
+        for (Long id : ids) {
+            if (pendientes.remove(id) != null) {
+                descartados++;
+            }
+            if (enEscritura.remove(id) != null) {
+                sustituidas.add(id);
+                descartados++;
+            }
+        }
+        return descartados;
+    }
+
+    /**
+     * @param ids IDs de tareas extraídas con {@link #extraer(int)}
+     * @return Las que se descartaron mientras estaban en escritura
+     */
+    public synchronized Set<Long> sustituidas(Collection<Long> ids) {
+        Set<Long> encontradas = new HashSet<>();
+        if (sustituidas.isEmpty()) {
+            return encontradas;
+        }
+        for (Long id : ids) {
+            if (sustituidas.contains(id)) {
+                encontradas.add(id);
+            }
+        }
+        return encontradas;
+    }
+
+    /**
+     * Saca de la cola los cambios más antiguos. Quedan en escritura hasta
+     * {@link #confirmar(Collection)} o {@link #devolver(Map)}.
+     *
+     * @param maximo Número máximo de cambios a extraer
+     * @return Cambios extraídos (ID y estado) en orden de llegada
+     */
+    public synchronized Map<Long, Integer> extraer(int maximo) {
+        Map<Long, Integer> extraidos = new LinkedHashMap<>();
+        Iterator<Map.Entry<Long, Integer>> it = pendientes.entrySet().iterator();
+        while (it.hasNext() && extraidos.size() < maximo) {
+            Map.Entry<Long, Integer> cambio = it.next();
+            extraidos.put(cambio.getKey(), cambio.getValue());
+            it.remove();
+        }
+        enEscritura.putAll(extraidos);
+        return extraidos;
+    }
+
+    /**
+     * Da por escritos unos cambios extraídos con {@link #extraer(int)}.
+     *
+     * @param ids IDs de las tareas escritas
+     */
+    public synchronized void confirmar(Collection<Long> ids) {
+        for (Long id : ids) {
+            enEscritura.remove(id);
+            sustituidas.remove(id);
+        }
+    }
+
+    /**
+     * Vuelve a encolar cambios cuya escritura ha fallado. Si una tarea recibió
+     * un cambio más reciente mientras tanto, se conserva el reciente, y si se
+     * descartó por una escritura directa, no se reencola. Se admiten
+     * aunque se supere la capacidad, para no perder cambios ya aceptados.
+     *
+     * @param cambios Cambios extraídos con {@link #extraer(int)}
+     */
+    public synchronized void devolver(Map<Long, Integer> cambios) {
+        for (Map.Entry<Long, Integer> cambio : cambios.entrySet()) {
+            enEscritura.remove(cambio.getKey());
+            if (!sustituidas.remove(cambio.getKey())) {
+                pendientes.putIfAbsent(cambio.getKey(), cambio.getValue());
+            }
+        }
+    }
+
+    /**
+     * @return Número de tareas con un cambio pendiente
+     */
+    public synchronized int getPendientes() {
+        return pendientes.size();
+    }
+
+    /**
+     * @return Cambios absorbidos por otro posterior de la misma tarea
+     */
+    public synchronized long getCombinados() {
+        return combinados;
+    }
+}
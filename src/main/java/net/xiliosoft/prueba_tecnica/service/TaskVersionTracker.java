@@ -0,0 +1,123 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Versiones en memoria de la tabla de tareas y de cada tarea, para responder
+ * a peticiones condicionales (ETag / Last-Modified) sin consultar la base de datos.
+ *
+ * Cada {@link TaskEvent} confirmado avanza un contador y lo asigna a la tabla
+ * y a las tareas afectadas. Las tareas que no han cambiado desde el arranque
+ * comparten la versión base, que se toma del reloj al iniciar para que las
+ * versiones de una ejecución no se repitan en la siguiente.
+ *
+ * Solo ve los cambios hechos a través de esta instancia de la aplicación,
+ * igual que los índices en memoria.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@ApplicationScoped
+public class TaskVersionTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskVersionTracker.class);
+
+    /**
+     * Número máximo de tareas con versión propia. Al superarse se olvidan y
+     * la versión base pasa a ser la actual, lo que solo provoca una respuesta
+     * completa de más para cada cliente.
+     */
+    public static final int MAX_TAREAS_CON_VERSION = 100_000;
+
+    private final LongSupplier reloj;
+    private final AtomicLong contador;
+    private final ConcurrentHashMap<Long, Version> tareas = new ConcurrentHashMap<>();
+
+    private volatile Version base;
+    private volatile Version tabla;
+
+    public TaskVersionTracker() {
+        this(System::currentTimeMillis);
+    }
+
+    TaskVersionTracker(LongSupplier reloj) {
+        this.reloj = reloj;
+        long inicio = reloj.getAsLong();
+        this.contador = new AtomicLong(inicio);
+        this.base = new Version(inicio, inicio);
+        this.tabla = base;
+    }
+
+    /**
+     * @return Versión de la tabla completa; cambia con cualquier modificación
+     */
+    public Version deTabla() {
+        return tabla;
+    }
+
+    /**
+     * @param id ID de la tarea
+     * @return Versión de la tarea; cambia cuando se modifica o se elimina
+     */
+    public Version deTarea(Long id) {
+        Version version = tareas.get(id);
+        return version != null ? version : base;
+    }
+
+    void alCambiar(@Observes(during = TransactionPhase.AFTER_SUCCESS) TaskEvent evento) {
+        aplicar(evento);
+    }
+
+    /**
+     * Registra un cambio confirmado.
+     *
+     * @param evento Cambio emitido por TaskService
+     */
+    public void aplicar(TaskEvent evento) {
+        Version nueva = new Version(contador.incrementAndGet(), reloj.getAsLong());
+        if (tareas.size() + evento.getIds().size() > MAX_TAREAS_CON_VERSION) {
+            logger.debug("Se alcanzó el máximo de versiones por tarea, se reinicia la versión base");
+            base = nueva;
+            tareas.clear();
+        }
+        for (Long id : evento.getIds()) {
+            tareas.put(id, nueva);
+        }
+        tabla = nueva;
+    }
+
+    /**
+     * Versión inmutable: número creciente y momento del cambio.
+     */
+    public static final class Version {
+
+        private final long numero;
+        private final long modificada;
+
+        Version(long numero, long modificada) {
+            this.numero = numero;
+            this.modificada = modificada;
+        }
+
+        public long getNumero() { return numero; }
+
+        /**
+         * @return Momento del último cambio (o del arranque si no hubo ninguno)
+         */
+        public Date getModificada() { return new Date(modificada); }
+
+        @Override
+        public String toString() {
+            return Long.toString(numero, Character.MAX_RADIX);
+        }
+    }
+}
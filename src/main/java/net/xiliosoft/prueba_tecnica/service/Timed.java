@@ -0,0 +1,20 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import javax.interceptor.InterceptorBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Mide la duración de los métodos anotados (o de todos los de la clase) en
+ * un histograma de {@link LatencyMetrics}. Ver {@link TimedInterceptor}.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Timed {
+}
@@ -0,0 +1,39 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import javax.inject.Inject;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InvocationContext;
+import java.io.Serializable;
+
+/**
+ * Registra la duración y el resultado (correcto o con excepción) de los
+ * métodos anotados con {@link Timed}. Se activa en beans.xml, antes que
+ * {@link ReplicaReadInterceptor} para que la medida incluya el enrutado.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+@Timed
+@Interceptor
+public class TimedInterceptor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Inject
+    private LatencyMetrics metricas;
+
+    @AroundInvoke
+    public Object medir(InvocationContext contexto) throws Exception {
+        LatencyHistogram histograma = metricas.de(contexto.getMethod());
+        long inicio = System.nanoTime();
+        boolean error = true;
+        try {
+            Object resultado = contexto.proceed();
+            error = false;
+            return resultado;
+        } finally {
+            histograma.registrar(System.nanoTime() - inicio, error);
+        }
+    }
+}
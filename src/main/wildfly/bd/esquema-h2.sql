@@ -0,0 +1,37 @@
+-- Esquema de TASKS y TASKS_ARCHIVE para la base de datos H2 en memoria del servidor embebido
+-- (modo Oracle). Equivale a docs/scripts/CREATE_TABLE_TASKS.sql, donde se
+-- indica qué consultas sirve cada índice, sin los índices sobre UPPER(TITLE),
+-- que H2 no admite. Se ejecuta al abrir cada conexión (INIT de la URL), por
+-- eso usa IF NOT EXISTS.
+
+CREATE SEQUENCE IF NOT EXISTS TASKS_SEQ START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS TASKS (
+    ID NUMBER PRIMARY KEY,
+    TITLE VARCHAR2(100) NOT NULL,
+    DESCRIPTION VARCHAR2(500),
+    DUE_DATE DATE,
+    COMPLETED NUMBER(1) DEFAULT 0,
+    CREATED_AT TIMESTAMP DEFAULT SYSTIMESTAMP,
+    COMPLETED_AT TIMESTAMP,
+    VERSION NUMBER(19) DEFAULT 0 NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS IDX_TASKS_CREATED_ID ON TASKS(CREATED_AT DESC, ID DESC);
+CREATE INDEX IF NOT EXISTS IDX_TASKS_DUE_DATE ON TASKS(DUE_DATE);
+CREATE INDEX IF NOT EXISTS IDX_TASKS_PENDING_ORDER ON TASKS(COMPLETED, DUE_DATE, CREATED_AT DESC, ID DESC);
+CREATE INDEX IF NOT EXISTS IDX_TASKS_COMPLETED_CREATED ON TASKS(COMPLETED, CREATED_AT);
+CREATE INDEX IF NOT EXISTS IDX_TASKS_COMPLETED_AT ON TASKS(COMPLETED, COMPLETED_AT);
+
+CREATE TABLE IF NOT EXISTS TASKS_ARCHIVE (
+    ID NUMBER PRIMARY KEY,
+    TITLE VARCHAR2(100) NOT NULL,
+    DESCRIPTION VARCHAR2(500),
+    DUE_DATE DATE,
+    CREATED_AT TIMESTAMP,
+    COMPLETED_AT TIMESTAMP,
+    VERSION NUMBER(19) NOT NULL,
+    ARCHIVED_AT TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS IDX_TASKS_ARCHIVE_CREATED_ID ON TASKS_ARCHIVE(CREATED_AT DESC, ID DESC);
@@ -2,8 +2,29 @@ package net.xiliosoft.prueba_tecnica;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
+import net.xiliosoft.prueba_tecnica.controller.ViewWarmupTest;
+import net.xiliosoft.prueba_tecnica.model.TaskCursorTest;
 import net.xiliosoft.prueba_tecnica.model.TaskTest;
+import net.xiliosoft.prueba_tecnica.repository.ReadReplicaRouterTest;
+import net.xiliosoft.prueba_tecnica.repository.SqlSamplingInspectorTest;
+import net.xiliosoft.prueba_tecnica.repository.TaskRepositoryArchiveTest;
+import net.xiliosoft.prueba_tecnica.repository.TaskRepositoryFilterTest;
+import net.xiliosoft.prueba_tecnica.repository.TaskRepositoryLazyLoadTest;
+import net.xiliosoft.prueba_tecnica.repository.TaskRepositoryPurgeTest;
+import net.xiliosoft.prueba_tecnica.repository.TaskRepositoryStatusCacheTest;
+import net.xiliosoft.prueba_tecnica.repository.TaskRepositoryVersionTest;
+import net.xiliosoft.prueba_tecnica.service.DatabaseHealthMonitorTest;
+import net.xiliosoft.prueba_tecnica.service.LatencyHistogramTest;
+import net.xiliosoft.prueba_tecnica.service.TaskConflictRetryTest;
+import net.xiliosoft.prueba_tecnica.service.TaskCountersCacheTest;
+import net.xiliosoft.prueba_tecnica.service.TaskExportWriterTest;
+import net.xiliosoft.prueba_tecnica.service.TaskImportReaderTest;
+import net.xiliosoft.prueba_tecnica.service.TaskSearchIndexTest;
 import net.xiliosoft.prueba_tecnica.service.TaskServiceTest;
+import net.xiliosoft.prueba_tecnica.service.TaskStatusIndexTest;
+import net.xiliosoft.prueba_tecnica.service.TaskStatusWriteBehindTest;
+import net.xiliosoft.prueba_tecnica.service.TaskStatusWriteBufferTest;
+import net.xiliosoft.prueba_tecnica.service.TaskVersionTrackerTest;
 
 /**
  * Suite de pruebas que ejecuta todas las pruebas unitarias del proyecto.
@@ -23,8 +44,28 @@ public class AllTests extends TestSuite {
         
         // Agregar todas las suites de pruebas
         suite.addTest(TaskTest.suite());
+        suite.addTest(TaskCursorTest.suite());
         suite.addTest(TaskServiceTest.suite());
-        suite.addTest(AppTest.suite());
+        suite.addTest(TaskImportReaderTest.suite());
+        suite.addTest(TaskExportWriterTest.suite());
+        suite.addTest(TaskStatusIndexTest.suite());
+        suite.addTest(TaskCountersCacheTest.suite());
+        suite.addTest(TaskStatusWriteBufferTest.suite());
+        suite.addTest(TaskStatusWriteBehindTest.suite());
+        suite.addTest(TaskConflictRetryTest.suite());
+        suite.addTest(TaskSearchIndexTest.suite());
+        suite.addTest(TaskVersionTrackerTest.suite());
+        suite.addTest(ReadReplicaRouterTest.suite());
+        suite.addTest(TaskRepositoryFilterTest.suite());
+        suite.addTest(TaskRepositoryVersionTest.suite());
+        suite.addTest(TaskRepositoryLazyLoadTest.suite());
+        suite.addTest(TaskRepositoryArchiveTest.suite());
+        suite.addTest(TaskRepositoryPurgeTest.suite());
+        suite.addTest(TaskRepositoryStatusCacheTest.suite());
+        suite.addTest(SqlSamplingInspectorTest.suite());
+        suite.addTest(LatencyHistogramTest.suite());
+        suite.addTest(DatabaseHealthMonitorTest.suite());
+        suite.addTest(ViewWarmupTest.suite());
         
         return suite;
     }
@@ -0,0 +1,128 @@
+package net.xiliosoft.prueba_tecnica;
+
+import net.xiliosoft.prueba_tecnica.repository.ReadReplicaRouter;
+import net.xiliosoft.prueba_tecnica.repository.TaskRepository;
+import net.xiliosoft.prueba_tecnica.service.TaskEvent;
+
+import javax.enterprise.event.Event;
+import javax.enterprise.event.NotificationOptions;
+import javax.enterprise.util.TypeLiteral;
+import javax.persistence.EntityManager;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Utilidades comunes de las pruebas: montan a mano lo que el contenedor
+ * inyectaría, sobre las bases de datos H2 de src/test/resources/META-INF/persistence.xml.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public final class H2TestSupport {
+
+    /**
+     * Unidad de persistencia de la base de datos principal de las pruebas.
+     */
+    public static final String PRINCIPAL = "test-principal";
+
+    /**
+     * Unidad de persistencia de la réplica de las pruebas.
+     */
+    public static final String REPLICA = "test-replica";
+
+    private H2TestSupport() {
+    }
+
+    /**
+     * Crea un repositorio que lee y escribe siempre en el EntityManager indicado.
+     *
+     * @param em EntityManager de la base de datos principal
+     * @return Repositorio listo para usar
+     */
+    public static TaskRepository crearRepositorio(EntityManager em) {
+        return crearRepositorio(em, em, new ReadReplicaRouter());
+    }
+
+    /**
+     * Crea un repositorio con base de datos principal, réplica y enrutador propios.
+     *
+     * @param em EntityManager de la base de datos principal
+     * @param emReplica EntityManager de la réplica
+     * @param router Enrutador de las lecturas
+     * @return Repositorio listo para usar
+     */
+    public static TaskRepository crearRepositorio(EntityManager em, EntityManager emReplica, ReadReplicaRouter router) {
+        TaskRepository repository = new TaskRepository();
+        asignar(repository, "em", em);
+        asignar(repository, "emReplica", emReplica);
+        asignar(repository, "replicaRouter", router);
+        return repository;
+    }
+
+    /**
+     * Asigna por reflexión un campo privado, en lugar de la inyección del contenedor.
+     *
+     * @param destino Objeto a modificar
+     * @param campo Nombre del campo declarado en la clase del objeto o en una superclase
+     * @param valor Valor a asignar
+     */
+    public static void asignar(Object destino, String campo, Object valor) {
+        for (Class<?> clase = destino.getClass(); clase != null; clase = clase.getSuperclass()) {
+            try {
+                Field field = clase.getDeclaredField(campo);
+                field.setAccessible(true);
+                field.set(destino, valor);
+                return;
+            } catch (NoSuchFieldException e) {
+                // Se busca en la superclase (subclases anónimas de las pruebas)
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("No se puede asignar " + campo, e);
+            }
+        }
+        throw new IllegalStateException("No existe el campo " + campo);
+    }
+
+    /**
+     * Event que acumula los eventos lanzados, para entregarlos a mano después de confirmar.
+     */
+    public static class EventosAcumulados implements Event<TaskEvent> {
+
+        private final List<TaskEvent> eventos;
+
+        public EventosAcumulados(List<TaskEvent> eventos) {
+            this.eventos = eventos;
+        }
+
+        @Override
+        public void fire(TaskEvent evento) {
+            eventos.add(evento);
+        }
+
+        @Override
+        public <U extends TaskEvent> CompletionStage<U> fireAsync(U evento) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <U extends TaskEvent> CompletionStage<U> fireAsync(U evento, NotificationOptions opciones) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Event<TaskEvent> select(Annotation... calificadores) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <U extends TaskEvent> Event<U> select(Class<U> subtipo, Annotation... calificadores) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <U extends TaskEvent> Event<U> select(TypeLiteral<U> subtipo, Annotation... calificadores) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package net.xiliosoft.prueba_tecnica.controller;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.DynamicMBean;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pruebas de la URL base del precalentamiento de vistas, con un servidor JMX
+ * propio que publica el socket binding http como lo hace WildFly.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class ViewWarmupTest extends TestCase {
+
+    private MBeanServer servidor;
+    private final Map<String, Object> atributos = new HashMap<>();
+
+    public ViewWarmupTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(ViewWarmupTest.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        servidor = MBeanServerFactory.newMBeanServer();
+        System.clearProperty(ViewWarmup.PROPIEDAD_URL_BASE);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        System.clearProperty(ViewWarmup.PROPIEDAD_URL_BASE);
+    }
+
+    /**
+     * Prueba que se usan la dirección y el puerto en los que escucha el servidor.
+     */
+    public void testUrlDelSocketBinding() throws Exception {
+        registrar("192.168.1.20", 8180);
+        assertEquals("http://192.168.1.20:8180/app/", ViewWarmup.urlBase(servidor, "/app"));
+    }
+
+    /**
+     * Prueba que si el servidor escucha en todas las interfaces se usa la de loopback.
+     */
+    public void testTodasLasInterfacesUsaLoopback() throws Exception {
+        registrar("0.0.0.0", 8080);
+        assertEquals("http://127.0.0.1:8080/", ViewWarmup.urlBase(servidor, ""));
+    }
+
+    /**
+     * Prueba que sin socket binding, o con el listener sin activar, no hay URL
+     * y que la propiedad del sistema tiene prioridad.
+     */
+    public void testSinServidorOConfigurada() throws Exception {
+        assertNull("Sin socket binding", ViewWarmup.urlBase(servidor, "/app"));
+        registrar(null, null);
+        assertNull("Listener sin activar", ViewWarmup.urlBase(servidor, "/app"));
+
+        System.setProperty(ViewWarmup.PROPIEDAD_URL_BASE, "https://tareas.example.com/app");
+        assertEquals("https://tareas.example.com/app/", ViewWarmup.urlBase(servidor, "/app"));
+    }
+
+    private void registrar(String direccion, Integer puerto) throws Exception {
+        atributos.put("boundAddress", direccion);
+        atributos.put("boundPort", puerto);
+        servidor.registerMBean(new DynamicMBean() {
+            @Override
+            public Object getAttribute(String nombre) {
+                return atributos.get(nombre);
+            }
+
+            @Override
+            public void setAttribute(Attribute atributo) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public AttributeList getAttributes(String[] nombres) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public AttributeList setAttributes(AttributeList lista) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Object invoke(String operacion, Object[] parametros, String[] firma) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public MBeanInfo getMBeanInfo() {
+                return new MBeanInfo(getClass().getName(), "socket binding", null, null, null, null);
+            }
+        }, new ObjectName(ViewWarmup.SOCKET_BINDING_HTTP));
+    }
+}
@@ -0,0 +1,85 @@
+package net.xiliosoft.prueba_tecnica.model;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.Date;
+
+/**
+ * Pruebas unitarias para el cursor de paginación por clave.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskCursorTest extends TestCase {
+
+    public TaskCursorTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TaskCursorTest.class);
+    }
+
+    private TaskSummary crearTarea(Long id, Date dueDate, Date createdAt) {
+        return new TaskSummary(id, "Tarea " + id, null, dueDate, 0, createdAt);
+    }
+
+    /**
+     * Prueba que el token conserva la posición del orden de creación.
+     */
+    public void testTokenCreacionIdaYVuelta() {
+        Date creada = new Date(1700000000123L);
+        TaskSummary task = crearTarea(42L, new Date(1800000000000L), creada);
+
+        String token = TaskCursor.despuesDe(TaskCursor.Orden.CREACION, task).toToken();
+        TaskCursor cursor = TaskCursor.desdeToken(token, TaskCursor.Orden.CREACION);
+
+        assertEquals("El ID debe conservarse", Long.valueOf(42L), cursor.getId());
+        assertEquals("La fecha de creación debe conservarse", creada, cursor.getCreatedAt());
+        assertNull("El orden de creación no usa la fecha límite", cursor.getDueDate());
+    }
+
+    /**
+     * Prueba que el token de pendientes conserva la fecha límite, incluso nula.
+     */
+    public void testTokenPendientesIdaYVuelta() {
+        Date limite = new Date(1800000000000L);
+        TaskCursor conFecha = TaskCursor.desdeToken(
+                TaskCursor.despuesDe(TaskCursor.Orden.PENDIENTES, crearTarea(7L, limite, new Date())).toToken(),
+                TaskCursor.Orden.PENDIENTES);
+        assertEquals("La fecha límite debe conservarse", limite, conFecha.getDueDate());
+
+        TaskCursor sinFecha = TaskCursor.desdeToken(
+                TaskCursor.despuesDe(TaskCursor.Orden.PENDIENTES, crearTarea(8L, null, new Date())).toToken(),
+                TaskCursor.Orden.PENDIENTES);
+        assertNull("La fecha límite nula debe conservarse", sinFecha.getDueDate());
+    }
+
+    /**
+     * Prueba que un token de un orden no se acepta en otro.
+     */
+    public void testTokenDeOtroOrden() {
+        String token = TaskCursor.despuesDe(TaskCursor.Orden.CREACION,
+                crearTarea(1L, null, new Date())).toToken();
+        try {
+            TaskCursor.desdeToken(token, TaskCursor.Orden.PENDIENTES);
+            fail("Debe rechazar un cursor de otro orden");
+        } catch (IllegalArgumentException e) {
+            assertTrue(true);
+        }
+    }
+
+    /**
+     * Prueba que un token manipulado se rechaza.
+     */
+    public void testTokenNoValido() {
+        try {
+            TaskCursor.desdeToken("no-es-un-cursor", TaskCursor.Orden.CREACION);
+            fail("Debe rechazar un cursor no válido");
+        } catch (IllegalArgumentException e) {
+            assertTrue(true);
+        }
+    }
+}
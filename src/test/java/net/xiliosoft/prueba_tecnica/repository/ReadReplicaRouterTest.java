@@ -0,0 +1,221 @@
+package net.xiliosoft.prueba_tecnica.repository;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import net.xiliosoft.prueba_tecnica.H2TestSupport;
+import net.xiliosoft.prueba_tecnica.model.Task;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.PersistenceException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import java.lang.reflect.Proxy;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pruebas del enrutado de lecturas a la réplica.
+ * La última prueba usa dos bases de datos H2 en memoria como principal y réplica
+ * (unidades de persistencia de src/test/resources/META-INF/persistence.xml).
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class ReadReplicaRouterTest extends TestCase {
+
+    private final AtomicLong reloj = new AtomicLong(1_000_000L);
+
+    /**
+     * Petición HTTP en curso y transacción del hilo, que en el servidor darían el contenedor.
+     */
+    private HttpServletRequest peticionEnCurso;
+    private boolean enTransaccion;
+
+    private final ReadReplicaRouter router = new ReadReplicaRouter(reloj::get) {
+        @Override
+        HttpServletRequest peticionActual() {
+            return peticionEnCurso;
+        }
+
+        @Override
+        boolean isTransaccionActiva() {
+            return enTransaccion;
+        }
+    };
+
+    public ReadReplicaRouterTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(ReadReplicaRouterTest.class);
+    }
+
+    /**
+     * Prueba que sin escrituras recientes la lectura va a la réplica.
+     */
+    public void testLecturaEnReplica() throws Exception {
+        assertTrue("Debe leerse de la réplica", router.leer(router::isLecturaEnReplica));
+        assertFalse("Fuera de la lectura no hay enrutado", router.isLecturaEnReplica());
+    }
+
+    /**
+     * Prueba que tras una escritura el mismo usuario lee de la principal durante
+     * la ventana, y que los demás usuarios siguen leyendo de la réplica.
+     */
+    public void testLecturaPropiaTrasEscritura() throws Exception {
+        HttpSession sesion = sesion();
+        peticionEnCurso = peticion(sesion);
+        router.registrarEscritura();
+        assertFalse("Tras escribir debe leerse de la principal", router.leer(router::isLecturaEnReplica));
+
+        peticionEnCurso = peticion(sesion);
+        assertFalse("La siguiente petición de la misma sesión también", router.leer(router::isLecturaEnReplica));
+
+        peticionEnCurso = peticion(sesion());
+        assertTrue("Otra sesión sigue en la réplica", router.leer(router::isLecturaEnReplica));
+        peticionEnCurso = null;
+        assertTrue("Sin petición (segundo plano) se usa la réplica", router.leer(router::isLecturaEnReplica));
+
+        peticionEnCurso = peticion(sesion);
+        reloj.addAndGet(ReadReplicaRouter.VENTANA_LECTURA_PROPIA_MILISEGUNDOS);
+        assertTrue("Pasada la ventana se vuelve a la réplica", router.leer(router::isLecturaEnReplica));
+    }
+
+    /**
+     * Prueba que sin sesión la ventana de lectura propia dura solo la petición.
+     */
+    public void testLecturaPropiaSinSesion() throws Exception {
+        peticionEnCurso = peticion(null);
+        router.registrarEscritura();
+        assertFalse("En la misma petición se lee de la principal", router.leer(router::isLecturaEnReplica));
+
+        peticionEnCurso = peticion(null);
+        assertTrue("Otra petición sin sesión usa la réplica", router.leer(router::isLecturaEnReplica));
+    }
+
+    /**
+     * Prueba que dentro de una transacción nunca se lee de la réplica.
+     */
+    public void testTransaccionActivaLeeDeLaPrincipal() throws Exception {
+        enTransaccion = true;
+        assertFalse("Una transacción no usa las dos bases de datos", router.leer(router::isLecturaEnReplica));
+    }
+
+    /**
+     * Prueba que un fallo en la réplica repite la lectura en la principal
+     * y deja de usar la réplica durante la espera.
+     */
+    public void testFallbackTrasFallo() throws Exception {
+        AtomicInteger llamadas = new AtomicInteger();
+        String resultado = router.leer(() -> {
+            llamadas.incrementAndGet();
+            if (router.isLecturaEnReplica()) {
+                throw new PersistenceException("Réplica no disponible");
+            }
+            return "principal";
+        });
+
+        assertEquals("Debe responder la principal", "principal", resultado);
+        assertEquals("Debe repetirse la lectura una vez", 2, llamadas.get());
+        assertFalse("La réplica debe quedar fuera de uso", router.isReplicaDisponible());
+
+        reloj.addAndGet(ReadReplicaRouter.ESPERA_TRAS_FALLO_MILISEGUNDOS);
+        assertTrue("Pasada la espera se vuelve a la réplica", router.isReplicaDisponible());
+    }
+
+    /**
+     * Prueba el repositorio con dos bases de datos: lectura propia, retraso de
+     * la réplica y caída de la réplica.
+     */
+    public void testRepositorioConDosBasesDeDatos() throws Exception {
+        EntityManagerFactory principal = Persistence.createEntityManagerFactory(H2TestSupport.PRINCIPAL);
+        EntityManagerFactory replica = Persistence.createEntityManagerFactory(H2TestSupport.REPLICA);
+        EntityManager emPrincipal = principal.createEntityManager();
+        EntityManager emReplica = replica.createEntityManager();
+        try {
+            TaskRepository repository = H2TestSupport.crearRepositorio(emPrincipal, emReplica, router);
+            peticionEnCurso = peticion(sesion());
+
+            Task task = new Task();
+            task.setTitle("Nueva");
+            task.setCreatedAt(new Date());
+            emPrincipal.getTransaction().begin();
+            repository.crear(task);
+            emPrincipal.getTransaction().commit();
+            // Lo que hace el observador tras confirmar
+            router.registrarEscritura();
+            emPrincipal.clear();
+            Long id = task.getId();
+
+            assertNotNull("Justo después de crearla debe leerse de la principal",
+                    router.leer(() -> repository.buscarPorId(id)));
+
+            reloj.addAndGet(ReadReplicaRouter.VENTANA_LECTURA_PROPIA_MILISEGUNDOS);
+            assertNull("La réplica aún no tiene la tarea", router.leer(() -> repository.buscarPorId(id)));
+
+            emReplica.getTransaction().begin();
+            emReplica.createNativeQuery("INSERT INTO TASKS (ID, TITLE, COMPLETED, CREATED_AT, VERSION) VALUES (?, ?, 0, ?, 0)")
+                    .setParameter(1, id)
+                    .setParameter(2, "Nueva")
+                    .setParameter(3, new Date())
+                    .executeUpdate();
+            emReplica.getTransaction().commit();
+            assertEquals("Tras replicarse debe leerse de la réplica", 1,
+                    router.leer(repository::buscarTodas).size());
+
+            emReplica.getTransaction().begin();
+            emReplica.createNativeQuery("DROP TABLE TASKS").executeUpdate();
+            emReplica.getTransaction().commit();
+            emReplica.clear();
+            assertNotNull("Con la réplica caída debe responder la principal",
+                    router.leer(() -> repository.buscarPorId(id)));
+            assertFalse("La réplica debe quedar fuera de uso", router.isReplicaDisponible());
+        } finally {
+            emPrincipal.close();
+            emReplica.close();
+            principal.close();
+            replica.close();
+        }
+    }
+
+    private static HttpSession sesion() {
+        Map<String, Object> atributos = new HashMap<>();
+        return (HttpSession) Proxy.newProxyInstance(HttpSession.class.getClassLoader(),
+                new Class<?>[] {HttpSession.class}, (proxy, metodo, argumentos) -> {
+                    switch (metodo.getName()) {
+                        case "getAttribute":
+                            return atributos.get(argumentos[0]);
+                        case "setAttribute":
+                            atributos.put((String) argumentos[0], argumentos[1]);
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(metodo.getName());
+                    }
+                });
+    }
+
+    private static HttpServletRequest peticion(HttpSession sesion) {
+        Map<String, Object> atributos = new HashMap<>();
+        return (HttpServletRequest) Proxy.newProxyInstance(HttpServletRequest.class.getClassLoader(),
+                new Class<?>[] {HttpServletRequest.class}, (proxy, metodo, argumentos) -> {
+                    switch (metodo.getName()) {
+                        case "getSession":
+                            return sesion;
+                        case "getAttribute":
+                            return atributos.get(argumentos[0]);
+                        case "setAttribute":
+                            atributos.put((String) argumentos[0], argumentos[1]);
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(metodo.getName());
+                    }
+                });
+    }
+}
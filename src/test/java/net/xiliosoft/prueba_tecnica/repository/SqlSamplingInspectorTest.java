@@ -0,0 +1,46 @@
+package net.xiliosoft.prueba_tecnica.repository;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Pruebas unitarias del muestreo de sentencias SQL.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class SqlSamplingInspectorTest extends TestCase {
+
+    public SqlSamplingInspectorTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(SqlSamplingInspectorTest.class);
+    }
+
+    /**
+     * Prueba que solo se registran las sentencias que entran en la proporción
+     * y que la sentencia se devuelve sin cambios.
+     */
+    public void testMuestreo() {
+        assertFalse("Proporción 0", new SqlSamplingInspector(0, () -> 0.0).debeRegistrar());
+        assertTrue("Proporción 1", new SqlSamplingInspector(1, () -> 0.99).debeRegistrar());
+        assertTrue("Dentro de la muestra", new SqlSamplingInspector(0.1, () -> 0.05).debeRegistrar());
+        assertFalse("Fuera de la muestra", new SqlSamplingInspector(0.1, () -> 0.5).debeRegistrar());
+
+        String sql = "select t.ID from TASKS t";
+        assertSame("La sentencia no se modifica", sql, new SqlSamplingInspector(0, () -> 0.0).inspect(sql));
+    }
+
+    /**
+     * Prueba la lectura de la propiedad de sistema.
+     */
+    public void testLeerProporcion() {
+        assertEquals("Sin definir", 0.0, SqlSamplingInspector.leerProporcion(null));
+        assertEquals("Valor válido", 0.25, SqlSamplingInspector.leerProporcion(" 0.25 "));
+        assertEquals("Se limita a 1", 1.0, SqlSamplingInspector.leerProporcion("5"));
+        assertEquals("No numérico", 0.0, SqlSamplingInspector.leerProporcion("mucho"));
+    }
+}
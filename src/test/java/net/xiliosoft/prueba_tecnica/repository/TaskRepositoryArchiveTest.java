@@ -0,0 +1,217 @@
+package net.xiliosoft.prueba_tecnica.repository;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import net.xiliosoft.prueba_tecnica.H2TestSupport;
+import net.xiliosoft.prueba_tecnica.model.ArchivedTask;
+import net.xiliosoft.prueba_tecnica.model.Task;
+import net.xiliosoft.prueba_tecnica.model.TaskSummary;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pruebas del archivo de tareas completadas en TASKS_ARCHIVE, contra una base
+ * de datos H2 en memoria (unidad de persistencia test-principal).
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskRepositoryArchiveTest extends TestCase {
+
+    private static final long DIA = TimeUnit.DAYS.toMillis(1);
+
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private TaskRepository repository;
+
+    private Long antigua;
+    private Long reciente;
+    private Long pendiente;
+
+    /**
+     * Acción que se ejecuta una vez, justo antes de lanzar el siguiente DELETE sobre TASKS.
+     */
+    private volatile Runnable antesDeBorrar;
+
+    public TaskRepositoryArchiveTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TaskRepositoryArchiveTest.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        Map<String, Object> propiedades = new HashMap<>();
+        propiedades.put("hibernate.session_factory.statement_inspector", (StatementInspector) sql -> {
+            Runnable accion = antesDeBorrar;
+            if (accion != null && sql.toLowerCase().startsWith("delete from tasks ")) {
+                antesDeBorrar = null;
+                accion.run();
+            }
+            return sql;
+        });
+        emf = Persistence.createEntityManagerFactory(H2TestSupport.PRINCIPAL, propiedades);
+        em = emf.createEntityManager();
+        repository = H2TestSupport.crearRepositorio(em);
+
+        Date ahora = new Date();
+        em.getTransaction().begin();
+        antigua = crear("Informe anual", 1, new Date(ahora.getTime() - 100 * DIA));
+        reciente = crear("Informe semanal", 1, new Date(ahora.getTime() - DIA));
+        pendiente = crear("Informe mensual", 0, null);
+        em.getTransaction().commit();
+        em.clear();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        em.close();
+        emf.close();
+    }
+
+    /**
+     * Prueba que solo se archivan las completadas antes del límite y que la
+     * fila archivada conserva los datos de la tarea.
+     */
+    public void testArchivarCompletadasAntiguas() {
+        List<Long> ids = repository.buscarIdsParaArchivar(limite(), 10);
+        assertEquals(Arrays.asList(antigua), ids);
+
+        em.getTransaction().begin();
+        assertEquals(ids, repository.archivar(ids, limite(), new Date()));
+        em.getTransaction().commit();
+        em.clear();
+
+        assertNull("Fuera de la tabla de tareas", em.find(Task.class, antigua));
+        assertNotNull(em.find(Task.class, reciente));
+        assertNotNull(em.find(Task.class, pendiente));
+        ArchivedTask archivada = em.find(ArchivedTask.class, antigua);
+        assertEquals("Informe anual", archivada.getTitle());
+        assertEquals("Descripción de Informe anual", archivada.getDescription());
+        assertNotNull(archivada.getCompletedAt());
+        assertNotNull(archivada.getArchivedAt());
+        assertEquals(1, repository.contarArchivadas());
+    }
+
+    /**
+     * Prueba que las consultas normales no ven las archivadas y las variantes
+     * "incluyendo archivo" sí.
+     */
+    public void testConsultasIncluyendoArchivo() {
+        em.getTransaction().begin();
+        repository.archivar(Arrays.asList(antigua), limite(), new Date());
+        em.getTransaction().commit();
+        em.clear();
+
+        assertEquals(2, repository.buscarPorTexto("informe", 10).size());
+        List<TaskSummary> todas = repository.buscarPorTextoIncluyendoArchivo("informe", 10);
+        assertEquals(3, todas.size());
+        assertEquals("Las archivadas al final", antigua, todas.get(2).getId());
+        assertEquals(1, repository.buscarPorTextoIncluyendoArchivo("anual", 10).size());
+
+        assertNull(repository.buscarPorId(antigua));
+        TaskSummary archivada = repository.buscarPorIdIncluyendoArchivo(antigua);
+        assertEquals("Informe anual", archivada.getTitle());
+        assertEquals(Integer.valueOf(1), archivada.getCompleted());
+        assertEquals(pendiente, repository.buscarPorIdIncluyendoArchivo(pendiente).getId());
+        assertNull(repository.buscarPorIdIncluyendoArchivo(-1L));
+    }
+
+    /**
+     * Prueba que no se archivan pendientes ni completadas después del límite
+     * aunque se pidan sus IDs.
+     */
+    public void testNoArchivaPendientesNiRecientes() {
+        em.getTransaction().begin();
+        assertTrue(repository.archivar(Arrays.asList(pendiente, reciente), limite(), new Date()).isEmpty());
+        em.getTransaction().commit();
+
+        assertEquals(0, repository.contarArchivadas());
+    }
+
+    /**
+     * Prueba que si otra transacción reabre una tarea entre la copia y el
+     * borrado, esa tarea se salta: sigue en TASKS, reabierta, sin copia en el
+     * archivo, y el resto del bloque se archiva.
+     */
+    public void testReabiertaDuranteElArchivoSeSalta() {
+        em.getTransaction().begin();
+        Long otraAntigua = crear("Informe trimestral", 1, new Date(System.currentTimeMillis() - 100 * DIA));
+        em.getTransaction().commit();
+        em.clear();
+        antesDeBorrar = () -> reabrirEnOtraTransaccion(antigua);
+
+        em.getTransaction().begin();
+        List<Long> archivadas = repository.archivar(Arrays.asList(antigua, otraAntigua), limite(), new Date());
+        em.getTransaction().commit();
+        em.clear();
+
+        assertEquals("Solo la que no cambió", Arrays.asList(otraAntigua), archivadas);
+        Task task = em.find(Task.class, antigua);
+        assertNotNull("Sigue en la tabla de tareas", task);
+        assertEquals("Reabierta", Integer.valueOf(0), task.getCompleted());
+        assertNull("Sin copia en el archivo", em.find(ArchivedTask.class, antigua));
+        assertNull(em.find(Task.class, otraAntigua));
+        assertNotNull(em.find(ArchivedTask.class, otraAntigua));
+        assertEquals(1, repository.contarArchivadas());
+    }
+
+    /**
+     * Prueba que el cambio de estado anota y borra el momento de compleción.
+     */
+    public void testCambioEstadoAnotaCompletedAt() {
+        em.getTransaction().begin();
+        repository.actualizarEstado(Arrays.asList(pendiente), 1);
+        repository.actualizarEstado(Arrays.asList(reciente), 0);
+        em.getTransaction().commit();
+        em.clear();
+
+        Date completada = em.find(Task.class, pendiente).getCompletedAt();
+        assertNotNull(completada);
+        assertTrue(System.currentTimeMillis() - completada.getTime() < DIA);
+        assertNull(em.find(Task.class, reciente).getCompletedAt());
+    }
+
+    private static Date limite() {
+        return new Date(System.currentTimeMillis() - 90 * DIA);
+    }
+
+    private void reabrirEnOtraTransaccion(Long id) {
+        EntityManager otra = emf.createEntityManager();
+        try {
+            otra.getTransaction().begin();
+            otra.createQuery("UPDATE Task t SET t.completed = 0, t.completedAt = NULL WHERE t.id = :id")
+                    .setParameter("id", id)
+                    .executeUpdate();
+            otra.getTransaction().commit();
+        } finally {
+            otra.close();
+        }
+    }
+
+    private Long crear(String titulo, int completed, Date completedAt) {
+        Task task = new Task();
+        task.setTitle(titulo);
+        task.setDescription("Descripción de " + titulo);
+        task.setCompleted(completed);
+        task.setCompletedAt(completedAt);
+        task.setCreatedAt(new Date());
+        List<Task> tareas = new ArrayList<>();
+        tareas.add(task);
+        repository.crearLote(tareas);
+        return task.getId();
+    }
+}
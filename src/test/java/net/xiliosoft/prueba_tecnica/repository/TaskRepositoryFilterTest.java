@@ -0,0 +1,177 @@
+package net.xiliosoft.prueba_tecnica.repository;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import net.xiliosoft.prueba_tecnica.H2TestSupport;
+import net.xiliosoft.prueba_tecnica.model.Task;
+import net.xiliosoft.prueba_tecnica.model.TaskCursor;
+import net.xiliosoft.prueba_tecnica.model.TaskFilter;
+import net.xiliosoft.prueba_tecnica.model.TaskSummary;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pruebas del filtrado y la ordenación del listado paginado contra una base
+ * de datos H2 en memoria (unidad de persistencia test-principal).
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskRepositoryFilterTest extends TestCase {
+
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private TaskRepository repository;
+
+    public TaskRepositoryFilterTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TaskRepositoryFilterTest.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        emf = Persistence.createEntityManagerFactory(H2TestSupport.PRINCIPAL);
+        em = emf.createEntityManager();
+        repository = H2TestSupport.crearRepositorio(em);
+
+        em.getTransaction().begin();
+        em.createQuery("DELETE FROM Task").executeUpdate();
+        repository.crear(tarea("Informe anual", 0, dia(10), dia(1)));
+        repository.crear(tarea("informe mensual", 1, dia(12), dia(2)));
+        repository.crear(tarea("Llamar 100%_info", 0, null, dia(3)));
+        repository.crear(tarea("Revisar informe", 0, dia(20), dia(4)));
+        em.getTransaction().commit();
+        em.clear();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        em.close();
+        emf.close();
+    }
+
+    /**
+     * Prueba el filtro de título por prefijo sin distinguir mayúsculas,
+     * con los comodines de LIKE tratados como texto.
+     */
+    public void testPrefijoTitulo() {
+        TaskFilter filtro = new TaskFilter();
+        filtro.setPrefijoTitulo("INFORME");
+        assertEquals("Solo las que empiezan por el prefijo",
+                Arrays.asList("Informe anual", "informe mensual"), titulos(filtro, "title", true));
+        assertEquals("El recuento usa el mismo filtro", 2L, repository.contar(filtro));
+
+        filtro.setPrefijoTitulo("Llamar 100%_");
+        assertEquals("Los comodines no se interpretan", 1L, repository.contar(filtro));
+        filtro.setPrefijoTitulo("Llamar 1_0");
+        assertEquals("El guion bajo no es comodín", 0L, repository.contar(filtro));
+    }
+
+    /**
+     * Prueba los filtros de columna combinados con los rangos de fechas, que
+     * incluyen el día completo de ambos extremos.
+     */
+    public void testEstadoYRangosDeFechas() {
+        TaskFilter base = new TaskFilter();
+        base.setVenceDesde(dia(10));
+        base.setVenceHasta(dia(12));
+
+        Map<String, Object> filtrosTabla = new HashMap<>();
+        filtrosTabla.put(TaskFilter.FILTRO_ESTADO, "0");
+        TaskFilter filtro = base.conFiltrosDeTabla(filtrosTabla);
+        assertEquals("Pendientes que vencen en el rango",
+                Collections.singletonList("Informe anual"), titulos(filtro, null, true));
+        assertNull("El filtro base no se modifica", base.getEstado());
+
+        TaskFilter creadas = new TaskFilter();
+        creadas.setCreadaDesde(dia(2));
+        creadas.setCreadaHasta(dia(3));
+        assertEquals("Creadas en el rango, más recientes primero",
+                Arrays.asList("Llamar 100%_info", "informe mensual"), titulos(creadas, null, true));
+    }
+
+    /**
+     * Prueba que solo se ordena por columnas permitidas y que la paginación es estable.
+     */
+    public void testOrdenacionYPaginacion() {
+        TaskFilter todas = new TaskFilter();
+        assertEquals("Por fecha límite descendente", "Revisar informe",
+                titulos(todas, "dueDate", false).get(0));
+        assertEquals("El título se ordena sin distinguir mayúsculas",
+                Arrays.asList("Informe anual", "informe mensual", "Llamar 100%_info", "Revisar informe"),
+                titulos(todas, "title", true));
+        assertEquals("Una columna no permitida usa el orden por defecto",
+                titulos(todas, null, true), titulos(todas, "description", true));
+
+        List<TaskSummary> pagina = repository.buscarPagina(todas, 2, 2, "createdAt", true);
+        assertEquals("Segunda página", 2, pagina.size());
+        assertEquals("Tercera por antigüedad", "Llamar 100%_info", pagina.get(0).getTitle());
+    }
+
+    /**
+     * Prueba que el cursor de completadas recorre solo las completadas, de la
+     * más reciente a la más antigua, sin repetir ni saltarse ninguna.
+     */
+    public void testCompletadasPorCursor() {
+        em.getTransaction().begin();
+        repository.crear(tarea("Enviar factura", 1, null, dia(5)));
+        repository.crear(tarea("Pagar nómina", 1, null, dia(5)));
+        em.getTransaction().commit();
+        em.clear();
+
+        List<String> titulos = new ArrayList<>();
+        TaskCursor cursor = null;
+        List<TaskSummary> pagina;
+        do {
+            pagina = repository.buscarCompletadasDespuesDe(cursor, 2);
+            for (TaskSummary resumen : pagina) {
+                titulos.add(resumen.getTitle());
+                cursor = TaskCursor.despuesDe(TaskCursor.Orden.COMPLETADAS, resumen);
+            }
+        } while (pagina.size() == 2);
+
+        assertEquals("Misma fecha de creación: desempata el ID descendente",
+                Arrays.asList("Pagar nómina", "Enviar factura", "informe mensual"), titulos);
+    }
+
+    private List<String> titulos(TaskFilter filtro, String campoOrden, boolean ascendente) {
+        List<String> titulos = new ArrayList<>();
+        for (TaskSummary resumen : repository.buscarPagina(filtro, 0, 10, campoOrden, ascendente)) {
+            titulos.add(resumen.getTitle());
+        }
+        return titulos;
+    }
+
+    private static Task tarea(String titulo, int estado, Date vence, Date creada) {
+        Task task = new Task();
+        task.setTitle(titulo);
+        task.setCompleted(estado);
+        task.setDueDate(vence);
+        task.setCreatedAt(creada);
+        return task;
+    }
+
+    /**
+     * Día del mes de enero de 2030 a las 15:30, para comprobar que los rangos cubren el día completo.
+     */
+    private static Date dia(int dia) {
+        Calendar calendario = Calendar.getInstance();
+        calendario.clear();
+        calendario.set(2030, Calendar.JANUARY, dia, 15, 30);
+        return calendario.getTime();
+    }
+}
@@ -0,0 +1,244 @@
+package net.xiliosoft.prueba_tecnica.repository;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import net.xiliosoft.prueba_tecnica.H2TestSupport;
+import net.xiliosoft.prueba_tecnica.model.Task;
+import net.xiliosoft.prueba_tecnica.model.TaskSummary;
+import org.hibernate.CustomEntityDirtinessStrategy;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pruebas de la descripción perezosa de {@link Task} (mejora de bytecode) y
+ * de las proyecciones de los listados, que no la leen, contra una base de
+ * datos H2 en memoria (unidad de persistencia test-principal). Se registran
+ * las sentencias SQL que lanza Hibernate para comprobar qué columnas se leen.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskRepositoryLazyLoadTest extends TestCase {
+
+    private static final int TAREAS = 500;
+
+    private final List<String> sentencias = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Entidades que el flush tuvo que comparar campo a campo con su estado cargado.
+     */
+    private final AtomicInteger comparaciones = new AtomicInteger();
+
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private TaskRepository repository;
+    private Long id;
+
+    public TaskRepositoryLazyLoadTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TaskRepositoryLazyLoadTest.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        Map<String, Object> propiedades = new HashMap<>();
+        propiedades.put("hibernate.session_factory.statement_inspector", (StatementInspector) sql -> {
+            sentencias.add(sql.toUpperCase());
+            return sql;
+        });
+        propiedades.put("hibernate.entity_dirtiness_strategy", new ComparacionesContadas());
+        propiedades.put("hibernate.generate_statistics", "true");
+        emf = Persistence.createEntityManagerFactory(H2TestSupport.PRINCIPAL, propiedades);
+        em = emf.createEntityManager();
+        repository = H2TestSupport.crearRepositorio(em);
+
+        List<Task> tareas = new ArrayList<>();
+        for (int i = 0; i < TAREAS; i++) {
+            Task task = new Task();
+            task.setTitle("Tarea " + i);
+            task.setDescription("Descripción de la tarea " + i);
+            task.setCreatedAt(new Date());
+            tareas.add(task);
+        }
+        em.getTransaction().begin();
+        repository.crearLote(tareas);
+        em.getTransaction().commit();
+        em.clear();
+        id = tareas.get(0).getId();
+        sentencias.clear();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        em.close();
+        emf.close();
+    }
+
+    /**
+     * Prueba que la clase está mejorada (el plugin se ejecutó al compilar).
+     */
+    public void testEntidadMejorada() {
+        assertTrue("Seguimiento de cambios en línea", SelfDirtinessTracker.class.isAssignableFrom(Task.class));
+    }
+
+    /**
+     * Prueba que cargar entidades no lee la descripción hasta que se usa.
+     */
+    public void testCargaSinDescripcion() {
+        List<Task> tareas = em.createQuery("SELECT t FROM Task t", Task.class).getResultList();
+
+        assertEquals("Una consulta", 1, sentencias.size());
+        assertFalse("La consulta no lee DESCRIPTION", sentencias.get(0).contains("DESCRIPTION"));
+        Task task = tareas.get(0);
+        assertFalse("Descripción sin cargar", Hibernate.isPropertyInitialized(task, "description"));
+
+        assertTrue(task.getDescription().startsWith("Descripción"));
+        assertEquals("Se carga con una consulta aparte", 2, sentencias.size());
+        assertTrue(sentencias.get(1).contains("DESCRIPTION"));
+    }
+
+    /**
+     * Prueba que la tarea completa trae la descripción en la misma consulta y
+     * que se puede leer con la entidad ya separada del contexto.
+     */
+    public void testBuscarPorIdCargaDescripcion() {
+        Task task = repository.buscarPorId(id);
+        em.clear();
+
+        assertEquals("Una consulta", 1, sentencias.size());
+        assertTrue(Hibernate.isPropertyInitialized(task, "description"));
+        assertEquals("Descripción de la tarea 0", task.getDescription());
+    }
+
+    /**
+     * Prueba que editar una tarea no lee la descripción anterior.
+     */
+    public void testEdicionNoLeeDescripcion() {
+        Task editada = new Task();
+        editada.setId(id);
+        editada.setTitle("Editada");
+        editada.setDescription("Nueva descripción");
+        editada.setVersion(0L);
+
+        em.getTransaction().begin();
+        repository.actualizar(editada);
+        em.getTransaction().commit();
+        em.clear();
+
+        for (String sql : sentencias) {
+            assertFalse("Ninguna lectura de DESCRIPTION: " + sql, sql.startsWith("SELECT") && sql.contains("DESCRIPTION"));
+        }
+        assertEquals("Nueva descripción", repository.buscarPorId(id).getDescription());
+    }
+
+    /**
+     * Prueba que el flush no compara campo a campo las entidades del contexto.
+     * Sin la mejora, Hibernate compara cada entidad cargada con la copia de su
+     * estado en cada flush, así que el coste crece con el tamaño del contexto
+     * aunque solo cambie una; con el seguimiento de cambios en línea solo
+     * consulta los atributos que se marcaron como modificados.
+     */
+    public void testFlushConContextoGrande() {
+        Statistics estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        em.getTransaction().begin();
+        List<Task> tareas = em.createQuery("SELECT t FROM Task t", Task.class).getResultList();
+        tareas.get(0).setTitle("Modificada");
+        comparaciones.set(0);
+        estadisticas.clear();
+        em.flush();
+        em.getTransaction().commit();
+
+        assertEquals("Contexto con todas las tareas", TAREAS, tareas.size());
+        assertEquals("Ninguna entidad se compara campo a campo", 0, comparaciones.get());
+        assertEquals("Solo se actualiza la modificada", 1, estadisticas.getEntityUpdateCount());
+    }
+
+    /**
+     * Prueba que los listados completos no leen la descripción, que la página
+     * de la tabla la lee solo para sus filas y que la búsqueda, la consulta
+     * por ID y la exportación también la traen.
+     */
+    public void testListadosNoLeenDescripcion() {
+        List<TaskSummary> pagina = repository.buscarPagina(null, 0, 10, "title", true);
+        assertEquals("Una consulta para la página", 1, sentencias.size());
+        assertTrue("La página lee DESCRIPTION", sentencias.get(0).contains("DESCRIPTION"));
+        assertEquals(10, pagina.size());
+        assertTrue(pagina.get(0).getDescription().startsWith("Descripción"));
+        sentencias.clear();
+
+        repository.buscarTodas();
+        repository.buscarPendientes();
+        repository.buscarCompletadas();
+        repository.buscarDespuesDe(null, 10);
+        repository.buscarPendientesDespuesDe(null, 10);
+        repository.buscarCompletadasDespuesDe(null, 10);
+        em.getTransaction().begin();
+        List<TaskSummary> recorridas = new ArrayList<>();
+        repository.recorrerTodas(100, recorridas::add);
+        em.getTransaction().commit();
+
+        assertFalse("Se lanzan consultas", sentencias.isEmpty());
+        for (String sql : sentencias) {
+            assertFalse("Listado sin DESCRIPTION: " + sql, sql.contains("DESCRIPTION"));
+        }
+        assertEquals(TAREAS, recorridas.size());
+        assertNull("Proyección sin descripción", recorridas.get(0).getDescription());
+
+        sentencias.clear();
+        assertEquals("Descripción de la tarea 0",
+                repository.buscarPorIds(Collections.singletonList(id)).get(0).getDescription());
+        assertTrue(sentencias.get(0).contains("DESCRIPTION"));
+        em.getTransaction().begin();
+        List<TaskSummary> exportadas = new ArrayList<>();
+        repository.recorrerTodasConDescripcion(100, exportadas::add);
+        em.getTransaction().commit();
+        assertNotNull("La exportación trae la descripción", exportadas.get(0).getDescription());
+    }
+
+    /**
+     * Cuenta las entidades que Hibernate no puede comprobar con el seguimiento
+     * de cambios de la mejora; solo a esas les pregunta, y después las compara
+     * campo a campo.
+     */
+    private final class ComparacionesContadas implements CustomEntityDirtinessStrategy {
+
+        @Override
+        public boolean canDirtyCheck(Object entity, EntityPersister persister, Session session) {
+            comparaciones.incrementAndGet();
+            return false;
+        }
+
+        @Override
+        public boolean isDirty(Object entity, EntityPersister persister, Session session) {
+            return false;
+        }
+
+        @Override
+        public void resetDirty(Object entity, EntityPersister persister, Session session) {
+        }
+
+        @Override
+        public void findDirty(Object entity, EntityPersister persister, Session session, DirtyCheckContext dirtyCheckContext) {
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package net.xiliosoft.prueba_tecnica.repository;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import net.xiliosoft.prueba_tecnica.H2TestSupport;
+import net.xiliosoft.prueba_tecnica.model.Task;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pruebas de la purga de tareas completadas contra una base de datos H2 en
+ * memoria (unidad de persistencia test-principal).
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskRepositoryPurgeTest extends TestCase {
+
+    private static final long DIA = TimeUnit.DAYS.toMillis(1);
+
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private TaskRepository repository;
+
+    private Date limite;
+    private Long primera;
+    private Long segunda;
+    private Long reciente;
+
+    public TaskRepositoryPurgeTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TaskRepositoryPurgeTest.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        emf = Persistence.createEntityManagerFactory(H2TestSupport.PRINCIPAL);
+        em = emf.createEntityManager();
+        repository = H2TestSupport.crearRepositorio(em);
+
+        long ahora = System.currentTimeMillis();
+        limite = new Date(ahora - 30 * DIA);
+        em.getTransaction().begin();
+        primera = crear("Antigua 1", new Date(ahora - 60 * DIA));
+        segunda = crear("Antigua 2", new Date(ahora - 50 * DIA));
+        reciente = crear("Reciente", new Date(ahora - DIA));
+        em.getTransaction().commit();
+        em.clear();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        em.close();
+        emf.close();
+    }
+
+    /**
+     * Prueba que se eliminan las completadas antes del límite y se devuelven sus IDs.
+     */
+    public void testEliminarCompletadasAntesDe() {
+        List<Long> ids = repository.buscarIdsCompletadasAntesDe(limite, 10);
+        assertEquals(2, ids.size());
+
+        em.getTransaction().begin();
+        List<Long> eliminadas = repository.eliminarCompletadasAntesDe(ids, limite);
+        em.getTransaction().commit();
+        em.clear();
+
+        assertEquals(2, eliminadas.size());
+        assertTrue(eliminadas.containsAll(Arrays.asList(primera, segunda)));
+        assertNull(em.find(Task.class, primera));
+        assertNotNull("Creada después del límite", em.find(Task.class, reciente));
+    }
+
+    /**
+     * Prueba que una tarea reabierta por otra transacción después de
+     * seleccionar su ID no se elimina ni se informa como eliminada.
+     */
+    public void testReabiertaTrasSeleccionarSobrevive() {
+        List<Long> ids = repository.buscarIdsCompletadasAntesDe(limite, 10);
+        assertTrue(ids.contains(primera));
+
+        EntityManager otra = emf.createEntityManager();
+        try {
+            otra.getTransaction().begin();
+            otra.createQuery("UPDATE Task t SET t.completed = 0 WHERE t.id = :id")
+                    .setParameter("id", primera)
+                    .executeUpdate();
+            otra.getTransaction().commit();
+        } finally {
+            otra.close();
+        }
+
+        em.getTransaction().begin();
+        List<Long> eliminadas = repository.eliminarCompletadasAntesDe(ids, limite);
+        em.getTransaction().commit();
+        em.clear();
+
+        assertEquals("Solo la que sigue completada", Arrays.asList(segunda), eliminadas);
+        Task reabierta = em.find(Task.class, primera);
+        assertNotNull("La reabierta sobrevive", reabierta);
+        assertEquals(Integer.valueOf(0), reabierta.getCompleted());
+        assertNull(em.find(Task.class, segunda));
+        assertTrue("No queda nada por purgar", repository.buscarIdsCompletadasAntesDe(limite, 10).isEmpty());
+    }
+
+    private Long crear(String titulo, Date creada) {
+        Task task = new Task();
+        task.setTitle(titulo);
+        task.setCompleted(1);
+        task.setCreatedAt(creada);
+        List<Task> tareas = new ArrayList<>();
+        tareas.add(task);
+        repository.crearLote(tareas);
+        return task.getId();
+    }
+}
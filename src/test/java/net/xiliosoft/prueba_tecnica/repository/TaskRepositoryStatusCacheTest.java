@@ -0,0 +1,157 @@
+package net.xiliosoft.prueba_tecnica.repository;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import net.xiliosoft.prueba_tecnica.H2TestSupport;
+import net.xiliosoft.prueba_tecnica.model.Task;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pruebas de los cambios de estado masivos y los borrados con la caché de
+ * segundo nivel y la caché de consultas activadas, sobre la unidad de
+ * persistencia test-principal.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskRepositoryStatusCacheTest extends TestCase {
+
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private TaskRepository repository;
+    private Statistics estadisticas;
+
+    private Long pendiente;
+    private Long otraPendiente;
+    private Long completada;
+
+    public TaskRepositoryStatusCacheTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TaskRepositoryStatusCacheTest.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        Map<String, Object> cache = new HashMap<>();
+        cache.put("javax.persistence.sharedCache.mode", "ENABLE_SELECTIVE");
+        cache.put("hibernate.cache.use_second_level_cache", "true");
+        cache.put("hibernate.cache.use_query_cache", "true");
+        cache.put("hibernate.cache.region.factory_class", "jcache");
+        cache.put("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+        cache.put("hibernate.javax.cache.missing_cache_strategy", "create");
+        cache.put("hibernate.generate_statistics", "true");
+        emf = Persistence.createEntityManagerFactory(H2TestSupport.PRINCIPAL, cache);
+        em = emf.createEntityManager();
+        repository = H2TestSupport.crearRepositorio(em);
+        estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+
+        em.getTransaction().begin();
+        pendiente = crear("Pendiente", 0);
+        otraPendiente = crear("Otra pendiente", 0);
+        completada = crear("Completada", 1);
+        em.getTransaction().commit();
+        reabrir();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        em.close();
+        emf.close();
+    }
+
+    /**
+     * Prueba que el UPDATE condicional solo modifica las tareas que no tenían
+     * el estado y que solo se quitan de la caché las tareas indicadas; el
+     * resto de la región de Task sigue en caché.
+     */
+    public void testSoloSeInvalidanLasTareasIndicadas() {
+        for (Long id : Arrays.asList(pendiente, otraPendiente, completada)) {
+            em.find(Task.class, id);
+        }
+        em.clear();
+
+        em.getTransaction().begin();
+        int modificadas = repository.actualizarEstado(Arrays.asList(pendiente, completada), 1);
+        em.getTransaction().commit();
+        em.clear();
+
+        assertEquals("Solo la que no estaba completada", 1, modificadas);
+
+        estadisticas.clear();
+        assertEquals(Integer.valueOf(1), em.find(Task.class, pendiente).getCompleted());
+        assertEquals("La modificada se lee de la base de datos", 0, estadisticas.getSecondLevelCacheHitCount());
+
+        em.find(Task.class, otraPendiente);
+        assertEquals("La no indicada sigue en caché", 1, estadisticas.getSecondLevelCacheHitCount());
+    }
+
+    /**
+     * Prueba que los listados cacheados no devuelven el estado anterior al cambio.
+     */
+    public void testSeInvalidanLosListadosCacheados() {
+        assertEquals(2, repository.buscarPendientes().size());
+        estadisticas.clear();
+        assertEquals(2, repository.buscarPendientes().size());
+        assertEquals("Listado en caché", 1, estadisticas.getQueryCacheHitCount());
+
+        em.getTransaction().begin();
+        repository.actualizarEstado(Arrays.asList(pendiente), 1);
+        em.getTransaction().commit();
+        reabrir();
+
+        estadisticas.clear();
+        assertEquals(1, repository.buscarPendientes().size());
+        assertEquals("El listado se vuelve a consultar", 0, estadisticas.getQueryCacheHitCount());
+    }
+
+    /**
+     * Prueba que el borrado por ID solo quita de la caché la tarea eliminada.
+     */
+    public void testEliminarSoloInvalidaLaTareaEliminada() {
+        for (Long id : Arrays.asList(pendiente, otraPendiente)) {
+            em.find(Task.class, id);
+        }
+        em.clear();
+
+        em.getTransaction().begin();
+        assertTrue(repository.eliminar(pendiente));
+        em.getTransaction().commit();
+        em.clear();
+
+        estadisticas.clear();
+        assertNull(em.find(Task.class, pendiente));
+        em.find(Task.class, otraPendiente);
+        assertEquals("La no eliminada sigue en caché", 1, estadisticas.getSecondLevelCacheHitCount());
+    }
+
+    /**
+     * Abre un EntityManager nuevo: la caché de consultas compara sus resultados
+     * con el inicio de la sesión, no con el de la consulta.
+     */
+    private void reabrir() {
+        em.close();
+        em = emf.createEntityManager();
+        repository = H2TestSupport.crearRepositorio(em);
+    }
+
+    private Long crear(String titulo, int estado) {
+        Task task = new Task();
+        task.setTitle(titulo);
+        task.setCompleted(estado);
+        task.setCreatedAt(new Date());
+        return repository.crear(task).getId();
+    }
+}
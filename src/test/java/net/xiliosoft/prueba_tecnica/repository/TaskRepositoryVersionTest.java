@@ -0,0 +1,132 @@
+package net.xiliosoft.prueba_tecnica.repository;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import net.xiliosoft.prueba_tecnica.H2TestSupport;
+import net.xiliosoft.prueba_tecnica.model.Task;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.Persistence;
+import java.util.Collections;
+import java.util.Date;
+
+/**
+ * Pruebas del control de concurrencia optimista de las tareas contra una base
+ * de datos H2 en memoria (unidad de persistencia test-principal).
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskRepositoryVersionTest extends TestCase {
+
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private TaskRepository repository;
+    private Long id;
+
+    public TaskRepositoryVersionTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TaskRepositoryVersionTest.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        emf = Persistence.createEntityManagerFactory(H2TestSupport.PRINCIPAL);
+        em = emf.createEntityManager();
+        repository = H2TestSupport.crearRepositorio(em);
+
+        Task task = new Task();
+        task.setTitle("Original");
+        task.setCompleted(1);
+        task.setCreatedAt(new Date());
+        em.getTransaction().begin();
+        repository.crear(task);
+        em.getTransaction().commit();
+        em.clear();
+        id = task.getId();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        em.close();
+        emf.close();
+    }
+
+    /**
+     * Prueba que una edición con la versión leída se aplica, incrementa la versión
+     * y no toca los campos que no son editables.
+     */
+    public void testEdicionConVersionVigente() {
+        Task editada = edicion("Editada", 0L);
+
+        em.getTransaction().begin();
+        Task actualizada = repository.actualizar(editada);
+        em.getTransaction().commit();
+        em.clear();
+
+        assertEquals("Nueva versión", Long.valueOf(1L), actualizada.getVersion());
+        Task leida = repository.buscarPorId(id);
+        assertEquals("Título editado", "Editada", leida.getTitle());
+        assertEquals("El estado no se toma del formulario", Integer.valueOf(1), leida.getCompleted());
+    }
+
+    /**
+     * Prueba que una edición sobre una versión antigua no pisa el cambio de otro usuario.
+     */
+    public void testEdicionConVersionAntigua() {
+        em.getTransaction().begin();
+        repository.actualizar(edicion("Primero", 0L));
+        em.getTransaction().commit();
+        em.clear();
+
+        em.getTransaction().begin();
+        try {
+            repository.actualizar(edicion("Segundo", 0L));
+            fail("Debe lanzar OptimisticLockException");
+        } catch (OptimisticLockException e) {
+            // esperado
+        } finally {
+            em.getTransaction().rollback();
+        }
+        em.clear();
+        assertEquals("Se conserva el primer cambio", "Primero", repository.buscarPorId(id).getTitle());
+    }
+
+    /**
+     * Prueba que los cambios de estado masivos incrementan la versión, de modo
+     * que una edición abierta antes detecta el cambio.
+     */
+    public void testCambioDeEstadoIncrementaVersion() {
+        em.getTransaction().begin();
+        assertEquals(1, repository.actualizarEstado(Collections.singletonList(id), 0));
+        em.getTransaction().commit();
+        em.clear();
+
+        assertEquals("Versión incrementada", Long.valueOf(1L), repository.buscarPorId(id).getVersion());
+        em.clear();
+        em.getTransaction().begin();
+        try {
+            repository.actualizar(edicion("Tarde", 0L));
+            fail("Debe lanzar OptimisticLockException");
+        } catch (OptimisticLockException e) {
+            // esperado
+        } finally {
+            em.getTransaction().rollback();
+        }
+    }
+
+    private Task edicion(String titulo, Long version) {
+        Task task = new Task();
+        task.setId(id);
+        task.setTitle(titulo);
+        task.setCompleted(0);
+        task.setVersion(version);
+        return task;
+    }
+}
@@ -0,0 +1,76 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import net.xiliosoft.prueba_tecnica.H2TestSupport;
+import org.h2.jdbcx.JdbcDataSource;
+
+import java.sql.SQLException;
+
+/**
+ * Pruebas de la comprobación periódica de las bases de datos, contra H2 en memoria.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class DatabaseHealthMonitorTest extends TestCase {
+
+    public DatabaseHealthMonitorTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(DatabaseHealthMonitorTest.class);
+    }
+
+    /**
+     * Prueba que una base de datos que responde deja la aplicación lista aunque falle la réplica.
+     */
+    public void testComprobar() throws Exception {
+        JdbcDataSource principal = new JdbcDataSource();
+        principal.setURL("jdbc:h2:mem:salud;DB_CLOSE_DELAY=-1");
+        JdbcDataSource replica = new JdbcDataSource();
+        replica.setURL("jdbc:h2:mem:replica;IFEXISTS=TRUE");
+
+        DatabaseHealthMonitor monitor = new DatabaseHealthMonitor();
+        H2TestSupport.asignar(monitor, "dataSourcePrincipal", principal);
+        H2TestSupport.asignar(monitor, "dataSourceReplica", replica);
+        assertFalse("Sin comprobar no está lista", monitor.isLista());
+
+        monitor.comprobar();
+
+        assertTrue("Principal disponible", monitor.getPrincipal().isDisponible());
+        assertTrue("Lista", monitor.isLista());
+        assertFalse("Réplica no disponible", monitor.getReplica().isDisponible());
+        assertNotNull("Se guarda el error", monitor.getReplica().getUltimoError());
+        assertEquals("Fallos consecutivos", 1, monitor.getReplica().getFallosConsecutivos());
+        assertNull("Sin servidor no hay estadísticas del pool", monitor.getPrincipal().getPool());
+    }
+
+    /**
+     * Prueba el historial circular de latencias y el último error.
+     */
+    public void testHistorial() {
+        DatabaseHealth salud = new DatabaseHealth("principal");
+        for (int i = 1; i <= DatabaseHealth.HISTORIAL + 2; i++) {
+            salud.registrarExito(i, i * 1_000_000L, null);
+        }
+        DatabaseHealth.Estado estado = salud.getEstado();
+        assertEquals("Tamaño del historial", DatabaseHealth.HISTORIAL, estado.getHistorial().size());
+        assertEquals("Más antigua conservada", 3.0, estado.getHistorial().get(0));
+        assertEquals("Más reciente al final", DatabaseHealth.HISTORIAL + 2.0,
+                estado.getHistorial().get(DatabaseHealth.HISTORIAL - 1));
+        assertEquals("Máxima", DatabaseHealth.HISTORIAL + 2.0, estado.getLatenciaMaxima());
+
+        salud.registrarFallo(100, 5_000_000L, new SQLException("ORA-12541"), null);
+        salud.registrarFallo(200, 5_000_000L, new SQLException("ORA-12541"), null);
+        assertFalse("No disponible", salud.getEstado().isDisponible());
+        assertEquals("Fallos seguidos", 2, salud.getEstado().getFallosConsecutivos());
+        assertEquals("Fecha del último error", 200L, salud.getEstado().getUltimoErrorFecha().getTime());
+
+        salud.registrarExito(300, 1_000_000L, null);
+        assertEquals("Se reinician los fallos", 0, salud.getEstado().getFallosConsecutivos());
+        assertEquals("Se conserva el último error", "SQLException: ORA-12541", salud.getEstado().getUltimoError());
+    }
+}
@@ -0,0 +1,80 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pruebas unitarias del histograma de latencias.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class LatencyHistogramTest extends TestCase {
+
+    public LatencyHistogramTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(LatencyHistogramTest.class);
+    }
+
+    /**
+     * Prueba que cada cubeta contiene su límite superior y que el error está acotado.
+     */
+    public void testCubetas() {
+        for (int i = 0; i < LatencyHistogram.CUBETAS; i++) {
+            assertEquals("Cubeta " + i, i, LatencyHistogram.indice(LatencyHistogram.limiteSuperior(i)));
+        }
+        for (long valor = 1; valor < 1L << 40; valor = valor * 3 + 1) {
+            long limite = LatencyHistogram.limiteSuperior(LatencyHistogram.indice(valor));
+            assertTrue("Límite de " + valor, limite >= valor && limite - valor <= valor / 8);
+        }
+        assertEquals("Valores enormes", LatencyHistogram.CUBETAS - 1, LatencyHistogram.indice(Long.MAX_VALUE));
+    }
+
+    /**
+     * Prueba los percentiles, el máximo y los errores con 1000 llamadas de 1 a 1000 ms.
+     */
+    public void testPercentiles() {
+        LatencyHistogram histograma = new LatencyHistogram("TaskService.crearTarea");
+        for (int ms = 1; ms <= 1000; ms++) {
+            histograma.registrar(ms * 1_000_000L, ms % 100 == 0);
+        }
+        LatencyHistogram.Snapshot instantanea = histograma.instantanea();
+
+        assertEquals("Llamadas", 1000, instantanea.getLlamadas());
+        assertEquals("Errores", 10, instantanea.getErrores());
+        assertEquals("Máximo", 1000.0, instantanea.getMaximo(), 0.001);
+        assertEquals("Media", 500.5, instantanea.getMedia(), 0.001);
+        assertEquals("p50", 500, instantanea.getP50(), 500 * 0.125);
+        assertEquals("p99", 990, instantanea.getP99(), 990 * 0.125);
+        assertTrue("p999 no supera el máximo", instantanea.getP999() <= instantanea.getMaximo());
+    }
+
+    /**
+     * Prueba que no se pierden llamadas registradas desde varios hilos a la vez.
+     */
+    public void testRegistroConcurrente() throws InterruptedException {
+        LatencyHistogram histograma = new LatencyHistogram("TaskRepository.buscarPorId");
+        List<Thread> hilos = new ArrayList<>();
+        for (int h = 0; h < 4; h++) {
+            Thread hilo = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histograma.registrar(i, false);
+                }
+            });
+            hilos.add(hilo);
+            hilo.start();
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+        assertEquals("Llamadas", 40_000, histograma.instantanea().getLlamadas());
+        assertEquals("Máximo", 9_999, histograma.instantanea().getMaximo() * 1_000_000, 0.5);
+    }
+}
@@ -0,0 +1,72 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import javax.persistence.PessimisticLockException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pruebas unitarias de los reintentos ante conflictos.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskConflictRetryTest extends TestCase {
+
+    public TaskConflictRetryTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TaskConflictRetryTest.class);
+    }
+
+    /**
+     * Prueba que un conflicto, aunque venga envuelto, se reintenta hasta tener éxito.
+     */
+    public void testReintentaConflictos() {
+        AtomicInteger intentos = new AtomicInteger();
+        boolean resultado = TaskConflictRetry.reintentar(() -> {
+            if (intentos.incrementAndGet() == 1) {
+                throw new RuntimeException("Rollback", new PessimisticLockException("Interbloqueo"));
+            }
+            return true;
+        });
+        assertTrue(resultado);
+        assertEquals("Un reintento", 2, intentos.get());
+    }
+
+    /**
+     * Prueba que se propaga el conflicto al agotar los intentos.
+     */
+    public void testAgotaIntentos() {
+        AtomicInteger intentos = new AtomicInteger();
+        try {
+            TaskConflictRetry.reintentar(() -> {
+                intentos.incrementAndGet();
+                throw new TaskConflictException(1L, false, "Conflicto", null);
+            }, 2);
+            fail("Debe propagar el conflicto");
+        } catch (TaskConflictException e) {
+            assertEquals("Número de intentos", 2, intentos.get());
+        }
+    }
+
+    /**
+     * Prueba que otros errores no se reintentan.
+     */
+    public void testNoReintentaOtrosErrores() {
+        AtomicInteger intentos = new AtomicInteger();
+        try {
+            TaskConflictRetry.reintentar(() -> {
+                intentos.incrementAndGet();
+                throw new IllegalStateException("Otro error");
+            });
+            fail("Debe propagar el error");
+        } catch (IllegalStateException e) {
+            assertEquals("Sin reintentos", 1, intentos.get());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import net.xiliosoft.prueba_tecnica.model.Task;
+import net.xiliosoft.prueba_tecnica.model.TaskStatusCounts;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Pruebas unitarias para la caché de contadores del resumen.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskCountersCacheTest extends TestCase {
+
+    private final AtomicLong reloj = new AtomicLong(1_000_000L);
+    private final AtomicInteger consultas = new AtomicInteger();
+    private final Supplier<TaskStatusCounts> consulta = () -> {
+        consultas.incrementAndGet();
+        return new TaskStatusCounts(5, 3, 1);
+    };
+
+    public TaskCountersCacheTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TaskCountersCacheTest.class);
+    }
+
+    private Task crearTarea(int completed, Long dueDate) {
+        Task task = new Task();
+        task.setId(1L);
+        task.setCompleted(completed);
+        task.setDueDate(dueDate != null ? new Date(dueDate) : null);
+        return task;
+    }
+
+    /**
+     * Prueba que los contadores se reutilizan hasta que expira el TTL.
+     */
+    public void testCacheHastaExpirar() {
+        TaskCountersCache cache = new TaskCountersCache(reloj::get);
+
+        cache.obtener(consulta);
+        cache.obtener(consulta);
+        assertEquals("Solo debe consultarse una vez", 1, consultas.get());
+
+        reloj.addAndGet(TaskCountersCache.TTL_MILISEGUNDOS);
+        cache.obtener(consulta);
+        assertEquals("Debe volver a consultarse al expirar", 2, consultas.get());
+    }
+
+    /**
+     * Prueba que las altas se suman sin volver a consultar.
+     */
+    public void testAltasEnElSitio() {
+        TaskCountersCache cache = new TaskCountersCache(reloj::get);
+        cache.obtener(consulta);
+
+        cache.aplicar(TaskEvent.creadas(Arrays.asList(
+                crearTarea(0, reloj.get() - 1),
+                crearTarea(0, null),
+                crearTarea(1, null))));
+        TaskStatusCounts contadores = cache.obtener(consulta);
+
+        assertEquals("No debe volver a consultarse", 1, consultas.get());
+        assertEquals("Pendientes incrementadas", 7, contadores.getPendientes());
+        assertEquals("Completadas incrementadas", 4, contadores.getCompletadas());
+        assertEquals("Vencidas incrementadas", 2, contadores.getVencidas());
+    }
+
+    /**
+     * Prueba que los cambios de estado pasan las tareas de un contador a otro
+     * sin volver a consultar.
+     */
+    public void testCambiosDeEstadoEnElSitio() {
+        TaskCountersCache cache = new TaskCountersCache(reloj::get);
+        cache.obtener(consulta);
+
+        Map<Long, Date> completadas = new LinkedHashMap<>();
+        completadas.put(1L, new Date(reloj.get() - 1));
+        completadas.put(2L, null);
+        cache.aplicar(TaskEvent.estadoCambiado(completadas, 1));
+        TaskStatusCounts contadores = cache.obtener(consulta);
+        assertEquals("Pendientes decrementadas", 3, contadores.getPendientes());
+        assertEquals("Completadas incrementadas", 5, contadores.getCompletadas());
+        assertEquals("La vencida deja de contar", 0, contadores.getVencidas());
+
+        cache.aplicar(TaskEvent.estadoCambiado(Collections.singletonMap(1L, new Date(reloj.get() - 1)), 0));
+        contadores = cache.obtener(consulta);
+        assertEquals("No debe volver a consultarse", 1, consultas.get());
+        assertEquals("Pendientes tras reabrir", 4, contadores.getPendientes());
+        assertEquals("Completadas tras reabrir", 4, contadores.getCompletadas());
+        assertEquals("Vuelve a estar vencida", 1, contadores.getVencidas());
+    }
+
+    /**
+     * Prueba que los cambios sin estado previo invalidan los contadores.
+     */
+    public void testOtrosCambiosInvalidan() {
+        TaskCountersCache cache = new TaskCountersCache(reloj::get);
+        cache.obtener(consulta);
+
+        cache.aplicar(TaskEvent.eliminadas(Collections.singletonList(1L)));
+        cache.obtener(consulta);
+        assertEquals("Debe volver a consultarse tras el borrado", 2, consultas.get());
+
+        cache.aplicar(TaskEvent.estadoCambiado(Collections.singletonList(1L), 1));
+        cache.obtener(consulta);
+        assertEquals("Un cambio de estado sin fechas límite también invalida", 3, consultas.get());
+    }
+}
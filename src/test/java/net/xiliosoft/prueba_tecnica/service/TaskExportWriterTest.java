@@ -0,0 +1,79 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import net.xiliosoft.prueba_tecnica.model.Task;
+import net.xiliosoft.prueba_tecnica.model.TaskSummary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * Pruebas unitarias para el escritor de exportación.
+ * Verifican que lo exportado se puede volver a importar.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskExportWriterTest extends TestCase {
+
+    public TaskExportWriterTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TaskExportWriterTest.class);
+    }
+
+    private TaskSummary crearTarea(long id, String titulo) {
+        return new TaskSummary(id, titulo, "Descripción, con \"comillas\"", new Date(1893456000000L), 1,
+                new Date(1700000000123L));
+    }
+
+    private void comprobarIdaYVuelta(TaskImportReader.Formato formato) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (TaskExportWriter writer = new TaskExportWriter(salida, formato)) {
+            writer.escribir(crearTarea(1L, "Primera"));
+            writer.escribir(crearTarea(2L, "Segunda"));
+            assertEquals("Deben contarse las tareas escritas", 2, writer.getEscritas());
+        }
+
+        try (TaskImportReader reader = new TaskImportReader(new ByteArrayInputStream(salida.toByteArray()), formato)) {
+            Task leida = reader.next();
+            assertEquals("Título correcto", "Primera", leida.getTitle());
+            assertEquals("Descripción correcta", "Descripción, con \"comillas\"", leida.getDescription());
+            assertEquals("Estado correcto", Integer.valueOf(1), leida.getCompleted());
+            assertEquals("Fecha límite correcta", 1893456000000L, leida.getDueDate().getTime());
+            assertEquals("Fecha de creación correcta", 1700000000123L, leida.getCreatedAt().getTime());
+            assertEquals("Segunda tarea", "Segunda", reader.next().getTitle());
+            assertFalse("No debe haber más tareas", reader.hasNext());
+        }
+    }
+
+    /**
+     * Prueba que un JSON exportado se vuelve a importar sin pérdidas.
+     */
+    public void testJsonIdaYVuelta() throws IOException {
+        comprobarIdaYVuelta(TaskImportReader.Formato.JSON);
+    }
+
+    /**
+     * Prueba que un CSV exportado se vuelve a importar sin pérdidas.
+     */
+    public void testCsvIdaYVuelta() throws IOException {
+        comprobarIdaYVuelta(TaskImportReader.Formato.CSV);
+    }
+
+    /**
+     * Prueba que una exportación vacía produce un documento válido.
+     */
+    public void testExportacionVacia() throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        new TaskExportWriter(salida, TaskImportReader.Formato.JSON).close();
+        assertEquals("Debe escribirse un array vacío", "[]", new String(salida.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,144 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import net.xiliosoft.prueba_tecnica.model.Task;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pruebas unitarias para el lector de importación masiva.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskImportReaderTest extends TestCase {
+
+    public TaskImportReaderTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TaskImportReaderTest.class);
+    }
+
+    private List<Task> leer(String contenido, TaskImportReader.Formato formato, long[] contadores) throws IOException {
+        InputStream entrada = new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+        List<Task> tareas = new ArrayList<>();
+        try (TaskImportReader reader = new TaskImportReader(entrada, formato)) {
+            while (reader.hasNext()) {
+                tareas.add(reader.next());
+            }
+            contadores[0] = reader.getLeidas();
+            contadores[1] = reader.getRechazadas();
+        }
+        return tareas;
+    }
+
+    /**
+     * Prueba la lectura de un CSV con cabecera y columnas opcionales vacías.
+     */
+    public void testLeerCsv() throws IOException {
+        String csv = "title,description,dueDate,completed\n"
+                + "Primera,Descripción,2030-01-15,1\n"
+                + "Segunda,,,\n";
+        long[] contadores = new long[2];
+        List<Task> tareas = leer(csv, TaskImportReader.Formato.CSV, contadores);
+
+        assertEquals("Deben leerse dos tareas", 2, tareas.size());
+        assertEquals("Título correcto", "Primera", tareas.get(0).getTitle());
+        assertEquals("Estado correcto", Integer.valueOf(1), tareas.get(0).getCompleted());
+        assertNotNull("La fecha límite debe leerse", tareas.get(0).getDueDate());
+        assertNull("La fecha límite vacía debe ser null", tareas.get(1).getDueDate());
+        assertEquals("El estado vacío debe quedar pendiente", Integer.valueOf(0), tareas.get(1).getCompleted());
+        assertNotNull("Debe asignarse fecha de creación", tareas.get(1).getCreatedAt());
+    }
+
+    /**
+     * Prueba la lectura de un array JSON ignorando el ID y propiedades desconocidas.
+     */
+    public void testLeerJson() throws IOException {
+        String json = "[{\"id\": 99, \"title\": \"Json\", \"otra\": true, \"createdAt\": 1700000000000},"
+                + " {\"title\": \"Json 2\", \"completed\": 0}]";
+        long[] contadores = new long[2];
+        List<Task> tareas = leer(json, TaskImportReader.Formato.JSON, contadores);
+
+        assertEquals("Deben leerse dos tareas", 2, tareas.size());
+        assertNull("El ID del fichero no debe usarse", tareas.get(0).getId());
+        assertEquals("La fecha de creación debe respetarse", 1700000000000L, tareas.get(0).getCreatedAt().getTime());
+    }
+
+    /**
+     * Prueba que las filas que no cumplen las restricciones se descartan.
+     */
+    public void testFilasRechazadas() throws IOException {
+        StringBuilder largo = new StringBuilder();
+        for (int i = 0; i < 101; i++) {
+            largo.append('x');
+        }
+        String csv = "title,completed\n"
+                + ",0\n"
+                + largo + ",0\n"
+                + "Estado inválido,5\n"
+                + "Válida,0\n";
+        long[] contadores = new long[2];
+        List<Task> tareas = leer(csv, TaskImportReader.Formato.CSV, contadores);
+
+        assertEquals("Solo una fila es válida", 1, tareas.size());
+        assertEquals("Deben contarse todas las filas leídas", 4, contadores[0]);
+        assertEquals("Deben contarse las filas rechazadas", 3, contadores[1]);
+    }
+
+    /**
+     * Prueba que una fila que no se puede convertir en medio del fichero se
+     * rechaza con su línea y motivo y la lectura sigue con las siguientes.
+     */
+    public void testFilaErroneaEnMedio() throws IOException {
+        String csv = "title,dueDate,completed\n"
+                + "Primera,2030-01-15,0\n"
+                + "Segunda,no es una fecha,0\n"
+                + "Tercera,,1\n"
+                + ",,0\n"
+                + "Cuarta,,0\n";
+        List<String> titulos = new ArrayList<>();
+        InputStream entrada = new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+        try (TaskImportReader reader = new TaskImportReader(entrada, TaskImportReader.Formato.CSV)) {
+            while (reader.hasNext()) {
+                titulos.add(reader.next().getTitle());
+            }
+            assertEquals("Siguen las filas posteriores", Arrays.asList("Primera", "Tercera", "Cuarta"), titulos);
+            assertEquals("Se cuentan todas las filas", 5, reader.getLeidas());
+            assertEquals("Dos rechazadas", 2, reader.getRechazadas());
+
+            List<ImportRowError> errores = reader.getErrores();
+            assertEquals(2, errores.size());
+            assertEquals("Línea de la fecha errónea", 3, errores.get(0).getLinea());
+            assertTrue("El motivo indica la columna: " + errores.get(0).getMotivo(),
+                    errores.get(0).getMotivo().contains("dueDate"));
+            assertEquals("Línea sin título", 5, errores.get(1).getLinea());
+            assertEquals("El título es obligatorio", errores.get(1).getMotivo());
+        }
+    }
+
+    /**
+     * Prueba lo mismo con un elemento erróneo en medio de un array JSON.
+     */
+    public void testElementoErroneoEnMedioJson() throws IOException {
+        String json = "[{\"title\": \"Primera\"},\n"
+                + "{\"title\": \"Segunda\", \"completed\": \"sí\"},\n"
+                + "{\"title\": \"Tercera\"}]";
+        long[] contadores = new long[2];
+        List<Task> tareas = leer(json, TaskImportReader.Formato.JSON, contadores);
+
+        assertEquals("Se leen la primera y la tercera", 2, tareas.size());
+        assertEquals("Tercera", tareas.get(1).getTitle());
+        assertEquals("Una rechazada", 1, contadores[1]);
+    }
+}
@@ -0,0 +1,173 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import net.xiliosoft.prueba_tecnica.model.Task;
+import net.xiliosoft.prueba_tecnica.model.TaskSummary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Pruebas unitarias para el índice de búsqueda en memoria.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskSearchIndexTest extends TestCase {
+
+    public TaskSearchIndexTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TaskSearchIndexTest.class);
+    }
+
+    private TaskSummary resumen(long id, String titulo, String descripcion) {
+        return new TaskSummary(id, titulo, descripcion, null, 0, new Date(id));
+    }
+
+    private TaskSearchIndex crearIndice(TaskSummary... tareas) {
+        TaskSearchIndex index = new TaskSearchIndex();
+        List<TaskSummary> origen = Arrays.asList(tareas);
+        index.reconstruir(consumidor -> origen.forEach(consumidor));
+        return index;
+    }
+
+    /**
+     * Prueba la normalización de términos: minúsculas, sin tildes ni palabras vacías.
+     */
+    public void testTokenizar() {
+        assertEquals("Términos normalizados", Arrays.asList("reunion", "equipo", "q3"),
+                TaskSearchIndex.tokenizar("Reunión del EQUIPO, Q3 a"));
+        assertTrue("Texto nulo sin términos", TaskSearchIndex.tokenizar(null).isEmpty());
+    }
+
+    /**
+     * Prueba que los términos se buscan como prefijo y el título pesa más que la descripción.
+     */
+    public void testPrefijoYRelevancia() {
+        TaskSearchIndex index = crearIndice(
+                resumen(1, "Comprar pan", "Pasar por la panadería"),
+                resumen(2, "Llamar a Ana", "Preguntar por el presupuesto"),
+                resumen(3, "Presupuesto anual", null));
+
+        assertEquals("El título debe puntuar más", Arrays.asList(3L, 2L), index.buscar("presup", 10));
+        assertEquals("Prefijo sin tildes", Collections.singletonList(1L), index.buscar("PANADER", 10));
+
+        TaskSearchIndex completos = crearIndice(resumen(1, "Pan", null), resumen(2, "Panes", null));
+        assertEquals("El término completo puntúa más que el prefijo", Arrays.asList(1L, 2L),
+                completos.buscar("pan", 10));
+    }
+
+    /**
+     * Prueba que deben aparecer todos los términos y que se respeta el límite.
+     */
+    public void testTodosLosTerminosYLimite() {
+        TaskSearchIndex index = crearIndice(
+                resumen(1, "Informe mensual", "ventas"),
+                resumen(2, "Informe anual", "ventas"),
+                resumen(3, "Informe anual", "gastos"));
+
+        assertEquals("Solo las que tienen ambos términos", Arrays.asList(2L, 1L), index.buscar("informe ventas", 10));
+        assertEquals("A igual puntuación, la más reciente primero", Collections.singletonList(3L),
+                index.buscar("informe", 1));
+        assertTrue("Sin coincidencias", index.buscar("informe viajes", 10).isEmpty());
+    }
+
+    /**
+     * Prueba que el índice se mantiene con las altas, ediciones y borrados.
+     */
+    public void testCambiosIncrementales() {
+        TaskSearchIndex index = crearIndice(resumen(1, "Revisar contrato", null));
+
+        Task nueva = new Task();
+        nueva.setId(2L);
+        nueva.setTitle("Firmar contrato");
+        index.aplicar(TaskEvent.creadas(Collections.singletonList(nueva)));
+        assertEquals("Alta indexada", Arrays.asList(2L, 1L), index.buscar("contrato", 10));
+
+        Task editada = new Task();
+        editada.setId(1L);
+        editada.setTitle("Revisar factura");
+        index.aplicar(TaskEvent.actualizadas(Collections.singletonList(editada)));
+        assertEquals("Los términos anteriores se quitan", Collections.singletonList(2L), index.buscar("contrato", 10));
+        assertEquals("Los términos nuevos se añaden", Collections.singletonList(1L), index.buscar("factura", 10));
+
+        index.aplicar(TaskEvent.eliminadas(Collections.singletonList(2L)));
+        assertTrue("Borrado quitado del índice", index.buscar("contrato", 10).isEmpty());
+    }
+
+    /**
+     * Prueba las listas de términos con muchas altas, ediciones, borrados
+     * (que acaban compactando la lista) y un ID anterior a los indexados.
+     */
+    public void testListasConAltasYBorrados() {
+        TaskSearchIndex index = crearIndice(resumen(100, "Informe inicial", null));
+        List<Task> altas = new ArrayList<>();
+        for (long id = 101; id <= 140; id++) {
+            altas.add(tarea(id, "Informe " + id));
+        }
+        index.aplicar(TaskEvent.creadas(altas));
+        assertEquals("Altas al final de la lista", 41, index.buscar("informe", 100).size());
+
+        index.aplicar(TaskEvent.actualizadas(Collections.singletonList(tarea(120, "Informe revisado"))));
+        index.aplicar(TaskEvent.actualizadas(Collections.singletonList(tarea(120, "Informe final"))));
+        assertEquals("La edición reutiliza la entrada", 41, index.buscar("informe", 100).size());
+        assertEquals(Collections.singletonList(120L), index.buscar("informe final", 10));
+
+        List<Long> borradas = new ArrayList<>();
+        for (long id = 101; id <= 135; id++) {
+            borradas.add(id);
+        }
+        index.aplicar(TaskEvent.eliminadas(borradas));
+        assertEquals("Tras compactar", Arrays.asList(140L, 139L, 138L, 137L, 136L, 100L),
+                index.buscar("informe", 100));
+
+        index.aplicar(TaskEvent.creadas(Collections.singletonList(tarea(50, "Informe antiguo"))));
+        assertEquals("ID intermedio en su sitio", Arrays.asList(140L, 139L, 138L, 137L, 136L, 100L, 50L),
+                index.buscar("informe", 100));
+    }
+
+    /**
+     * Prueba que un prefijo se expande como mucho a MAX_EXPANSIONES términos.
+     */
+    public void testLimiteDeExpansiones() {
+        TaskSummary[] tareas = new TaskSummary[TaskSearchIndex.MAX_EXPANSIONES + 8];
+        for (int i = 0; i < tareas.length; i++) {
+            tareas[i] = resumen(i + 1, "Clave" + (char) ('a' + i / 26) + (char) ('a' + i % 26), null);
+        }
+        TaskSearchIndex index = crearIndice(tareas);
+
+        assertEquals("Solo los primeros términos del prefijo", TaskSearchIndex.MAX_EXPANSIONES,
+                index.buscar("clave", 100).size());
+        assertEquals("Un prefijo más largo los encuentra", Collections.singletonList((long) tareas.length),
+                index.buscar("claveb" + (char) ('a' + (tareas.length - 1) % 26), 100));
+    }
+
+    private Task tarea(long id, String titulo) {
+        Task task = new Task();
+        task.setId(id);
+        task.setTitle(titulo);
+        return task;
+    }
+
+    /**
+     * Prueba que sin cargar el índice no se responden búsquedas.
+     */
+    public void testIndiceNoCargado() {
+        TaskSearchIndex index = new TaskSearchIndex();
+        assertFalse("El índice no debe estar cargado", index.isCargado());
+        try {
+            index.buscar("algo", 10);
+            fail("Debe lanzar IllegalStateException");
+        } catch (IllegalStateException e) {
+            // esperado
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import junit.framework.TestCase;
+import net.xiliosoft.prueba_tecnica.H2TestSupport;
+import net.xiliosoft.prueba_tecnica.model.Task;
+import net.xiliosoft.prueba_tecnica.model.TaskFilter;
+import net.xiliosoft.prueba_tecnica.repository.ReadReplicaRouter;
+import net.xiliosoft.prueba_tecnica.repository.TaskRepository;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Prueba de carga de {@link TaskService}: arranca la unidad de persistencia
+ * real (prueba-tecnica, con su caché y ajustes de Hibernate) sobre H2 en
+ * memoria en modo Oracle, la llena con tareas generadas y la usa desde varios
+ * hilos con una mezcla de lecturas y escrituras parecida a la de la pantalla
+ * de tareas. Informa del rendimiento y de los percentiles de latencia por
+ * operación, y falla si se supera alguno de los presupuestos de
+ * carga-presupuestos.properties.
+ *
+ * No se ejecuta con los tests unitarios; se lanza con el perfil carga:
+ * <pre>
+ * mvn -P carga verify -Dcarga.tareas=100000 -Dcarga.hilos=32 -Dcarga.segundos=60
+ * </pre>
+ * Cada presupuesto se puede cambiar en la línea de comandos, por ejemplo
+ * -Dcarga.PAGINA_PRINCIPAL.p99=80.
+ *
+ * Sin contenedor, cada hilo tiene su propio TaskService con su
+ * EntityManager (como una petición), las operaciones se hacen en una
+ * transacción por llamada y los eventos se entregan a los índices y cachés
+ * compartidos después de confirmar, como los observadores AFTER_SUCCESS.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskServiceLoadIT extends TestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskServiceLoadIT.class);
+
+    private static final int TAREAS = Integer.getInteger("carga.tareas", 10_000);
+    private static final int HILOS = Integer.getInteger("carga.hilos",
+            2 * Runtime.getRuntime().availableProcessors());
+    private static final int SEGUNDOS = Integer.getInteger("carga.segundos", 30);
+    private static final int CALENTAMIENTO = Integer.getInteger("carga.calentamiento", 5);
+
+    private static final int TAMANO_LOTE_CARGA = 1000;
+    private static final int TAMANO_PAGINA = 10;
+    private static final String[] PALABRAS = {"informe", "reunión", "presupuesto", "cliente", "revisar",
+        "llamar", "enviar", "factura", "proyecto", "equipo", "entrega", "pedido"};
+
+    /**
+     * Operaciones de la mezcla, con su peso sobre 100.
+     */
+    enum Operacion {
+        /** Resumen, recuento y primera página, como al abrir la pantalla de tareas. */
+        PAGINA_PRINCIPAL(35),
+        /** Página filtrada por estado y prefijo del título. */
+        PAGINA_FILTRADA(10),
+        BUSCAR_POR_ID(15),
+        BUSCAR_TEXTO(10),
+        CAMBIAR_ESTADO(12),
+        CREAR(10),
+        EDITAR(5),
+        ELIMINAR(3);
+
+        private final int peso;
+
+        Operacion(int peso) {
+            this.peso = peso;
+        }
+    }
+
+    private JdbcConnectionPool pool;
+    private EntityManagerFactory emf;
+    private final ReadReplicaRouter router = new ReadReplicaRouter();
+    private final TaskStatusIndex statusIndex = new TaskStatusIndex();
+    private final TaskSearchIndex searchIndex = new TaskSearchIndex();
+    private final TaskCountersCache countersCache = new TaskCountersCache();
+    private final TaskStatusWriteBehind writeBehind = new TaskStatusWriteBehind();
+
+    private final AtomicLong ultimoId = new AtomicLong();
+    private long primerId;
+
+    private volatile Map<Operacion, LatencyHistogram> latencias;
+    private volatile boolean terminar;
+
+    /** Primer error de cada operación, para el mensaje de la aserción. */
+    private final Map<Operacion, RuntimeException> primerosErrores = new ConcurrentHashMap<>();
+
+    @Override
+    protected void setUp() throws Exception {
+        pool = JdbcConnectionPool.create("jdbc:h2:mem:carga;MODE=Oracle;DB_CLOSE_DELAY=-1", "sa", "");
+        pool.setMaxConnections(HILOS + 2);
+        Map<String, Object> propiedades = new HashMap<>();
+        propiedades.put("javax.persistence.transactionType", "RESOURCE_LOCAL");
+        propiedades.put("javax.persistence.nonJtaDataSource", pool);
+        propiedades.put("javax.persistence.schema-generation.database.action", "create");
+        emf = Persistence.createEntityManagerFactory("prueba-tecnica", propiedades);
+
+        Contexto contexto = new Contexto();
+        long inicio = System.currentTimeMillis();
+        Random aleatorio = new Random(42);
+        for (int cargadas = 0; cargadas < TAREAS; cargadas += TAMANO_LOTE_CARGA) {
+            List<Task> lote = new ArrayList<>();
+            for (int i = cargadas; i < Math.min(TAREAS, cargadas + TAMANO_LOTE_CARGA); i++) {
+                lote.add(tarea(aleatorio, i));
+            }
+            contexto.ejecutar(() -> {
+                contexto.repository.crearLote(lote);
+                return null;
+            });
+        }
+        primerId = contexto.em.createQuery("SELECT MIN(t.id) FROM Task t", Long.class).getSingleResult();
+        ultimoId.set(contexto.em.createQuery("SELECT MAX(t.id) FROM Task t", Long.class).getSingleResult());
+
+        statusIndex.reconstruir(consumidor -> contexto.ejecutar(() -> {
+            contexto.repository.recorrerTodas(TAMANO_LOTE_CARGA, consumidor);
+            return null;
+        }));
+        searchIndex.reconstruir(consumidor -> contexto.ejecutar(() -> {
+            contexto.repository.recorrerTodas(TAMANO_LOTE_CARGA, consumidor);
+            return null;
+        }));
+        contexto.cerrar();
+        logger.info("Carga inicial: {} tareas en {} ms", TAREAS, System.currentTimeMillis() - inicio);
+    }
+
+    @Override
+    protected void tearDown() {
+        emf.close();
+        pool.dispose();
+    }
+
+    /**
+     * Ejecuta la mezcla de operaciones y comprueba los presupuestos.
+     */
+    public void testCargaMixta() throws Exception {
+        latencias = nuevasLatencias();
+        List<Thread> trabajadores = new ArrayList<>();
+        for (int i = 0; i < HILOS; i++) {
+            Thread trabajador = new Thread(this::trabajar, "carga-" + i);
+            trabajadores.add(trabajador);
+            trabajador.start();
+        }
+
+        TimeUnit.SECONDS.sleep(CALENTAMIENTO);
+        latencias = nuevasLatencias();
+        long inicio = System.nanoTime();
+        TimeUnit.SECONDS.sleep(SEGUNDOS);
+        Map<Operacion, LatencyHistogram> medidas = latencias;
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        terminar = true;
+        for (Thread trabajador : trabajadores) {
+            trabajador.join();
+        }
+
+        Map<Operacion, LatencyHistogram.Snapshot> resultado = new EnumMap<>(Operacion.class);
+        medidas.forEach((operacion, histograma) -> resultado.put(operacion, histograma.instantanea()));
+        informar(resultado, segundos);
+        comprobarPresupuestos(resultado, segundos);
+    }
+
+    private void trabajar() {
+        Contexto contexto = new Contexto();
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        try {
+            while (!terminar) {
+                Operacion operacion = elegir(aleatorio.nextInt(100));
+                LatencyHistogram histograma = latencias.get(operacion);
+                long inicio = System.nanoTime();
+                boolean error = false;
+                try {
+                    ejecutar(contexto, operacion, aleatorio);
+                } catch (TaskConflictException e) {
+                    // Otro hilo cambió o eliminó la tarea: es un resultado esperado, no un error
+                } catch (RuntimeException e) {
+                    error = true;
+                    if (primerosErrores.putIfAbsent(operacion, e) == null) {
+                        logger.error("Primer error en {}", operacion, e);
+                    }
+                }
+                histograma.registrar(System.nanoTime() - inicio, error);
+            }
+        } finally {
+            contexto.cerrar();
+        }
+    }
+
+    private void ejecutar(Contexto contexto, Operacion operacion, ThreadLocalRandom aleatorio) {
+        TaskService service = contexto.service;
+        switch (operacion) {
+            case PAGINA_PRINCIPAL:
+                contexto.ejecutar(() -> {
+                    service.obtenerResumen();
+                    TaskFilter filtro = new TaskFilter();
+                    service.contarTareas(filtro);
+                    return service.buscarTareasPaginadas(filtro, 0, TAMANO_PAGINA, null, true);
+                });
+                break;
+            case PAGINA_FILTRADA:
+                contexto.ejecutar(() -> {
+                    TaskFilter filtro = new TaskFilter();
+                    filtro.setEstado(aleatorio.nextInt(2));
+                    filtro.setPrefijoTitulo(PALABRAS[aleatorio.nextInt(PALABRAS.length)].substring(0, 3));
+                    service.contarTareas(filtro);
+                    return service.buscarTareasPaginadas(filtro, TAMANO_PAGINA * aleatorio.nextInt(5),
+                            TAMANO_PAGINA, "title", true);
+                });
+                break;
+            case BUSCAR_POR_ID:
+                contexto.ejecutar(() -> service.buscarTareaPorId(idAleatorio(aleatorio)));
+                break;
+            case BUSCAR_TEXTO:
+                contexto.ejecutar(() -> service.buscar(PALABRAS[aleatorio.nextInt(PALABRAS.length)], 20));
+                break;
+            case CAMBIAR_ESTADO:
+                Long id = idAleatorio(aleatorio);
+                contexto.ejecutar(() -> aleatorio.nextBoolean()
+                        ? service.marcarComoCompletada(id) : service.marcarComoPendiente(id));
+                break;
+            case CREAR:
+                Task creada = contexto.ejecutar(() -> service.crearTarea(tarea(aleatorio, aleatorio.nextInt())));
+                ultimoId.accumulateAndGet(creada.getId(), Math::max);
+                break;
+            case EDITAR:
+                Task task = contexto.ejecutar(() -> service.buscarTareaParaEditar(idAleatorio(aleatorio)));
+                if (task != null) {
+                    task.setDescription("Editada " + System.nanoTime());
+                    contexto.ejecutar(() -> service.actualizarTarea(task));
+                }
+                break;
+            case ELIMINAR:
+                contexto.ejecutar(() -> service.eliminarTarea(idAleatorio(aleatorio)));
+                break;
+            default:
+                throw new IllegalStateException(operacion.name());
+        }
+    }
+
+    private static Operacion elegir(int valor) {
+        int acumulado = 0;
+        for (Operacion operacion : Operacion.values()) {
+            acumulado += operacion.peso;
+            if (valor < acumulado) {
+                return operacion;
+            }
+        }
+        return Operacion.PAGINA_PRINCIPAL;
+    }
+
+    private long idAleatorio(ThreadLocalRandom aleatorio) {
+        return aleatorio.nextLong(primerId, ultimoId.get() + 1);
+    }
+
+    private static Map<Operacion, LatencyHistogram> nuevasLatencias() {
+        Map<Operacion, LatencyHistogram> mapa = new EnumMap<>(Operacion.class);
+        for (Operacion operacion : Operacion.values()) {
+            mapa.put(operacion, new LatencyHistogram(operacion.name()));
+        }
+        return mapa;
+    }
+
+    private static void informar(Map<Operacion, LatencyHistogram.Snapshot> resultado, double segundos) {
+        StringBuilder informe = new StringBuilder();
+        informe.append(String.format("Carga mixta: %d tareas, %d hilos, %.1f s%n", TAREAS, HILOS, segundos));
+        informe.append(String.format("%-18s %10s %10s %9s %9s %9s %9s %8s%n",
+                "Operación", "Llamadas", "Op/s", "p50 ms", "p99 ms", "p999 ms", "Máx ms", "Errores"));
+        long total = 0;
+        for (LatencyHistogram.Snapshot s : resultado.values()) {
+            total += s.getLlamadas();
+            informe.append(String.format("%-18s %10d %10.1f %9.2f %9.2f %9.2f %9.2f %8d%n", s.getOperacion(),
+                    s.getLlamadas(), s.getLlamadas() / segundos, s.getP50(), s.getP99(), s.getP999(),
+                    s.getMaximo(), s.getErrores()));
+        }
+        informe.append(String.format("%-18s %10d %10.1f", "TOTAL", total, total / segundos));
+        logger.info("{}", informe);
+    }
+
+    private void comprobarPresupuestos(Map<Operacion, LatencyHistogram.Snapshot> resultado,
+                                              double segundos) throws IOException {
+        Properties presupuestos = new Properties();
+        try (InputStream entrada = TaskServiceLoadIT.class.getResourceAsStream("/carga-presupuestos.properties")) {
+            presupuestos.load(entrada);
+        }
+        List<String> superados = new ArrayList<>();
+        long total = 0;
+        long errores = 0;
+        for (LatencyHistogram.Snapshot s : resultado.values()) {
+            total += s.getLlamadas();
+            errores += s.getErrores();
+            String p99 = presupuesto(presupuestos, s.getOperacion() + ".p99");
+            if (p99 != null && s.getP99() > Double.parseDouble(p99)) {
+                superados.add(String.format("%s: p99 %.2f ms > %s ms", s.getOperacion(), s.getP99(), p99));
+            }
+        }
+        double minimo = Double.parseDouble(presupuesto(presupuestos, "rendimiento.minimo"));
+        if (total / segundos < minimo) {
+            superados.add(String.format("Rendimiento %.1f op/s < %.0f op/s", total / segundos, minimo));
+        }
+        long maximoErrores = Long.parseLong(presupuesto(presupuestos, "errores.maximo"));
+        if (errores > maximoErrores) {
+            superados.add("Errores " + errores + " > " + maximoErrores);
+            primerosErrores.forEach((operacion, e) -> superados.add("  primer error en " + operacion + ": " + e));
+        }
+        assertTrue("Presupuestos superados:\n" + String.join("\n", superados), superados.isEmpty());
+    }
+
+    private static String presupuesto(Properties presupuestos, String clave) {
+        return System.getProperty("carga." + clave, presupuestos.getProperty(clave));
+    }
+
+    private static Task tarea(Random aleatorio, int numero) {
+        Task task = new Task();
+        task.setTitle(PALABRAS[aleatorio.nextInt(PALABRAS.length)] + " " + PALABRAS[aleatorio.nextInt(PALABRAS.length)]
+                + " " + numero);
+        task.setDescription("Tarea generada para la prueba de carga: " + PALABRAS[aleatorio.nextInt(PALABRAS.length)]);
+        task.setDueDate(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(aleatorio.nextInt(60) - 30)));
+        task.setCompleted(aleatorio.nextInt(3) == 0 ? 1 : 0);
+        task.setCreatedAt(new Date(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(aleatorio.nextInt(100_000))));
+        return task;
+    }
+
+    /**
+     * Lo que el contenedor daría a una petición: un EntityManager propio, el
+     * grafo de beans @Dependent y la entrega de eventos tras confirmar.
+     */
+    private class Contexto {
+
+        private final EntityManager em = emf.createEntityManager();
+        private final List<TaskEvent> eventos = new ArrayList<>();
+        private final TaskRepository repository = H2TestSupport.crearRepositorio(em, em, router);
+        private final TaskService service = new TaskService();
+
+        Contexto() {
+            H2TestSupport.EventosAcumulados emisor = new H2TestSupport.EventosAcumulados(eventos);
+            TaskBatchOperations batchOperations = new TaskBatchOperations();
+            H2TestSupport.asignar(batchOperations, "taskRepository", repository);
+            H2TestSupport.asignar(batchOperations, "eventos", emisor);
+            H2TestSupport.asignar(service, "taskRepository", repository);
+            H2TestSupport.asignar(service, "batchOperations", batchOperations);
+            H2TestSupport.asignar(service, "statusIndex", statusIndex);
+            H2TestSupport.asignar(service, "countersCache", countersCache);
+            H2TestSupport.asignar(service, "searchIndex", searchIndex);
+            H2TestSupport.asignar(service, "writeBehind", writeBehind);
+            H2TestSupport.asignar(service, "eventos", emisor);
+        }
+
+        <T> T ejecutar(Supplier<T> operacion) {
+            em.getTransaction().begin();
+            try {
+                T resultado = operacion.get();
+                em.getTransaction().commit();
+                for (TaskEvent evento : eventos) {
+                    statusIndex.aplicar(evento);
+                    searchIndex.aplicar(evento);
+                    countersCache.aplicar(evento);
+                }
+                return resultado;
+            } finally {
+                if (em.getTransaction().isActive()) {
+                    em.getTransaction().rollback();
+                }
+                eventos.clear();
+                em.clear();
+            }
+        }
+
+        void cerrar() {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import net.xiliosoft.prueba_tecnica.model.Task;
+import net.xiliosoft.prueba_tecnica.model.TaskSummary;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Pruebas unitarias para el índice de estados en memoria.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskStatusIndexTest extends TestCase {
+
+    public TaskStatusIndexTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TaskStatusIndexTest.class);
+    }
+
+    private Task crearTarea(long id, Long dueDate, long createdAt, int completed) {
+        Task task = new Task();
+        task.setId(id);
+        task.setTitle("Tarea " + id);
+        task.setDueDate(dueDate != null ? new Date(dueDate) : null);
+        task.setCreatedAt(new Date(createdAt));
+        task.setCompleted(completed);
+        return task;
+    }
+
+    private TaskStatusIndex crearIndice(Task... tareas) {
+        TaskStatusIndex index = new TaskStatusIndex();
+        List<Task> origen = Arrays.asList(tareas);
+        index.reconstruir(consumidor -> origen.forEach(task -> consumidor.accept(TaskSummary.de(task))));
+        return index;
+    }
+
+    private long[] ids(Collection<TaskSummary> tareas) {
+        long[] ids = new long[tareas.size()];
+        int i = 0;
+        for (TaskSummary task : tareas) {
+            ids[i++] = task.getId();
+        }
+        return ids;
+    }
+
+    /**
+     * Prueba que las particiones respetan el orden de las consultas JPQL.
+     */
+    public void testOrdenDeParticiones() {
+        TaskStatusIndex index = crearIndice(
+                crearTarea(1, 3000L, 100, 0),
+                crearTarea(2, null, 200, 0),
+                crearTarea(3, 1000L, 100, 0),
+                crearTarea(4, 1000L, 300, 0),
+                crearTarea(5, null, 100, 1),
+                crearTarea(6, null, 500, 1));
+
+        assertTrue("El índice debe estar cargado", index.isCargado());
+        assertTrue("Pendientes: dueDate ASC, createdAt DESC, nulos al final",
+                Arrays.equals(new long[]{4, 3, 1, 2}, ids(index.pendientes())));
+        assertTrue("Completadas: createdAt DESC",
+                Arrays.equals(new long[]{6, 5}, ids(index.completadas())));
+    }
+
+    /**
+     * Prueba que los eventos mueven, añaden y quitan tareas de las particiones.
+     */
+    public void testAplicarEventos() {
+        TaskStatusIndex index = crearIndice(crearTarea(1, null, 100, 0), crearTarea(2, null, 200, 0));
+
+        index.aplicar(TaskEvent.estadoCambiado(Collections.singletonList(1L), 1));
+        assertTrue("La tarea 1 pasa a completadas", Arrays.equals(new long[]{1}, ids(index.completadas())));
+        assertTrue("Solo queda la tarea 2 pendiente", Arrays.equals(new long[]{2}, ids(index.pendientes())));
+
+        index.aplicar(TaskEvent.creadas(Collections.singletonList(crearTarea(3, 50L, 300, 0))));
+        assertTrue("La nueva tarea se ordena por fecha límite",
+                Arrays.equals(new long[]{3, 2}, ids(index.pendientes())));
+
+        Task actualizada = crearTarea(2, 10L, 200, 0);
+        index.aplicar(TaskEvent.actualizadas(Collections.singletonList(actualizada)));
+        assertTrue("La tarea actualizada se reordena",
+                Arrays.equals(new long[]{2, 3}, ids(index.pendientes())));
+
+        index.aplicar(TaskEvent.eliminadas(Arrays.asList(2L, 1L)));
+        assertTrue("Solo queda la tarea 3", Arrays.equals(new long[]{3}, ids(index.pendientes())));
+        assertEquals("No quedan completadas", 0, index.completadas().size());
+    }
+
+    /**
+     * Prueba que lo devuelto es una vista no modificable que no permite
+     * alterar el índice y que refleja los cambios posteriores sin volver a pedirla.
+     */
+    public void testLecturasNoAlteranElIndice() {
+        TaskStatusIndex index = crearIndice(crearTarea(1, null, 100, 0));
+
+        Collection<TaskSummary> pendientes = index.pendientes();
+        pendientes.iterator().next().getCreatedAt().setTime(999);
+        try {
+            pendientes.clear();
+            fail("La vista no debe ser modificable");
+        } catch (UnsupportedOperationException e) {
+            assertTrue(true);
+        }
+
+        assertEquals("El índice no debe cambiar", 1, index.pendientes().size());
+        assertEquals("La fecha indexada no debe cambiar", 100,
+                index.pendientes().iterator().next().getCreatedAt().getTime());
+
+        index.aplicar(TaskEvent.creadas(Collections.singletonList(crearTarea(2, null, 200, 0))));
+        assertEquals("La vista refleja el cambio", 2, pendientes.size());
+    }
+
+    /**
+     * Prueba que sin cargar el índice no se responden consultas.
+     */
+    public void testIndiceNoCargado() {
+        TaskStatusIndex index = new TaskStatusIndex();
+        assertFalse("El índice no debe estar cargado", index.isCargado());
+        try {
+            index.pendientes();
+            fail("Debe fallar si el índice no está cargado");
+        } catch (IllegalStateException e) {
+            assertTrue(true);
+        }
+    }
+}
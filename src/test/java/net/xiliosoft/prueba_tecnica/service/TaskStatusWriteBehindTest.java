@@ -0,0 +1,184 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import net.xiliosoft.prueba_tecnica.H2TestSupport;
+import net.xiliosoft.prueba_tecnica.model.Task;
+import net.xiliosoft.prueba_tecnica.repository.TaskRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Pruebas del orden entre la escritura diferida de estados y las escrituras
+ * directas, contra una base de datos H2 en memoria (unidad de persistencia
+ * test-principal).
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskStatusWriteBehindTest extends TestCase {
+
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private TaskRepository repository;
+    private TaskService service;
+    private TaskStatusWriteBehind writeBehind;
+    private final List<Long> escritas = new ArrayList<>();
+
+    /**
+     * Acción que se ejecuta una vez dentro de la transacción del vaciado, antes de su UPDATE.
+     */
+    private Runnable duranteElVaciado;
+
+    public TaskStatusWriteBehindTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TaskStatusWriteBehindTest.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        emf = Persistence.createEntityManagerFactory(H2TestSupport.PRINCIPAL);
+        em = emf.createEntityManager();
+        repository = H2TestSupport.crearRepositorio(em);
+
+        // Sin contenedor: el vaciado abre su propia transacción, como haría @Transactional
+        service = new TaskService() {
+            @Override
+            public int aplicarEstadosEncolados(Collection<Long> ids, int estado) {
+                escritas.addAll(ids);
+                return enTransaccion(() -> {
+                    Runnable accion = duranteElVaciado;
+                    duranteElVaciado = null;
+                    if (accion != null) {
+                        accion.run();
+                    }
+                    return super.aplicarEstadosEncolados(ids, estado);
+                });
+            }
+        };
+        writeBehind = new TaskStatusWriteBehind();
+        H2TestSupport.asignar(writeBehind, "taskService", service);
+        H2TestSupport.asignar(writeBehind, "activa", true);
+        H2TestSupport.asignar(service, "taskRepository", repository);
+        H2TestSupport.asignar(service, "writeBehind", writeBehind);
+        H2TestSupport.asignar(service, "statusIndex", new TaskStatusIndex());
+        H2TestSupport.asignar(service, "eventos", new H2TestSupport.EventosAcumulados(new ArrayList<>()));
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        em.close();
+        emf.close();
+    }
+
+    /**
+     * Prueba que un cambio encolado no se escribe encima de una escritura
+     * directa posterior de la misma tarea.
+     */
+    public void testEscrituraDirectaDescartaElCambioEncolado() {
+        Long id = enTransaccion(() -> crear("Encolada y escrita"));
+
+        assertTrue("Cambio encolado", writeBehind.encolar(id, 1));
+        assertEquals(Integer.valueOf(1), writeBehind.estadoPendiente(id));
+
+        // Escritura directa posterior (REST o la escritura con la cola llena)
+        enTransaccion(() -> service.marcarComoCompletada(id));
+        enTransaccion(() -> service.marcarComoPendiente(id));
+        assertNull("La escritura directa descarta el cambio encolado", writeBehind.estadoPendiente(id));
+
+        assertEquals("No queda nada por vaciar", 0, writeBehind.vaciar());
+        assertTrue("El vaciado no escribe la tarea", escritas.isEmpty());
+        em.clear();
+        assertEquals("Gana la escritura directa", Integer.valueOf(0), em.find(Task.class, id).getCompleted());
+    }
+
+    /**
+     * Prueba que el vaciado escribe los cambios encolados de otras tareas y
+     * que tras confirmar ya no se muestran como pendientes.
+     */
+    public void testVaciadoEscribeLosCambiosEncolados() {
+        Long encolada = enTransaccion(() -> crear("Solo encolada"));
+        Long directa = enTransaccion(() -> crear("Escrita en el momento"));
+
+        writeBehind.encolar(encolada, 1);
+        writeBehind.encolar(directa, 1);
+        enTransaccion(() -> service.marcarVariasComoPendientes(Collections.singletonList(directa)));
+
+        assertEquals("Solo queda la encolada", 1, writeBehind.vaciar());
+        assertEquals(Collections.singletonList(encolada), escritas);
+        assertNull("Confirmada", writeBehind.estadoPendiente(encolada));
+        em.clear();
+        assertEquals(Integer.valueOf(1), em.find(Task.class, encolada).getCompleted());
+        assertEquals(Integer.valueOf(0), em.find(Task.class, directa).getCompleted());
+    }
+
+    /**
+     * Prueba que una escritura directa durante un vaciado no espera a que
+     * termine: marca el cambio como sustituido, el vaciado deshace su bloque
+     * y lo repite sin esa tarea, y no se cuenta como fallo.
+     */
+    public void testDescartarDuranteElVaciadoNoEspera() {
+        Long sustituida = enTransaccion(() -> crear("Sustituida"));
+        Long encolada = enTransaccion(() -> crear("Encolada"));
+        writeBehind.encolar(sustituida, 1);
+        writeBehind.encolar(encolada, 1);
+
+        // Otro hilo: si descartar esperase al vaciado, no terminaría mientras este sigue en curso
+        duranteElVaciado = () -> {
+            Thread directa = new Thread(() -> writeBehind.descartar(Collections.singletonList(sustituida)));
+            directa.start();
+            try {
+                directa.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            assertFalse("descartar no espera al vaciado", directa.isAlive());
+        };
+
+        assertEquals(2, writeBehind.vaciar());
+        assertEquals("Se repite sin la sustituida", Arrays.asList(sustituida, encolada, encolada), escritas);
+        assertEquals(0, writeBehind.getVaciadosFallidos());
+        assertNull(writeBehind.estadoPendiente(sustituida));
+        assertEquals("No se reencola", 0, writeBehind.getProfundidadCola());
+        em.clear();
+        assertEquals("El vaciado no la escribe", Integer.valueOf(0), em.find(Task.class, sustituida).getCompleted());
+        assertEquals(Integer.valueOf(1), em.find(Task.class, encolada).getCompleted());
+    }
+
+    private Long crear(String titulo) {
+        Task task = new Task();
+        task.setTitle(titulo);
+        task.setCompleted(0);
+        task.setCreatedAt(new Date());
+        List<Task> tareas = new ArrayList<>();
+        tareas.add(task);
+        repository.crearLote(tareas);
+        return task.getId();
+    }
+
+    private <T> T enTransaccion(Supplier<T> operacion) {
+        em.getTransaction().begin();
+        try {
+            T resultado = operacion.get();
+            em.getTransaction().commit();
+            return resultado;
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+        }
+    }
+}
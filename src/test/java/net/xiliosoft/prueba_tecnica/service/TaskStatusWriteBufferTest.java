@@ -0,0 +1,120 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Pruebas unitarias de la cola de cambios de estado de la escritura diferida.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskStatusWriteBufferTest extends TestCase {
+
+    public TaskStatusWriteBufferTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TaskStatusWriteBufferTest.class);
+    }
+
+    /**
+     * Prueba que los cambios repetidos de una tarea se combinan en el último
+     * y que la tarea conserva su turno.
+     */
+    public void testCombinaCambiosDeLaMismaTarea() {
+        TaskStatusWriteBuffer buffer = new TaskStatusWriteBuffer(10);
+        buffer.encolar(1L, 1);
+        buffer.encolar(2L, 1);
+        buffer.encolar(1L, 0);
+        buffer.encolar(1L, 1);
+
+        assertEquals("Una entrada por tarea", 2, buffer.getPendientes());
+        assertEquals("Cambios combinados", 2L, buffer.getCombinados());
+        assertEquals("Estado pendiente", Integer.valueOf(1), buffer.estadoPendiente(1L));
+
+        Map<Long, Integer> cambios = buffer.extraer(10);
+        assertEquals("Orden de llegada", Arrays.asList(1L, 2L), new ArrayList<>(cambios.keySet()));
+        assertEquals("Gana el último estado", Integer.valueOf(1), cambios.get(1L));
+        assertEquals("La cola queda vacía", 0, buffer.getPendientes());
+        assertEquals("Visible mientras se escribe", Integer.valueOf(1), buffer.estadoPendiente(1L));
+
+        buffer.confirmar(cambios.keySet());
+        assertNull("Sin estado pendiente tras confirmar", buffer.estadoPendiente(1L));
+    }
+
+    /**
+     * Prueba que con la cola llena se rechazan tareas nuevas pero se siguen
+     * combinando las que ya están.
+     */
+    public void testCapacidad() {
+        TaskStatusWriteBuffer buffer = new TaskStatusWriteBuffer(2);
+        assertTrue(buffer.encolar(1L, 1));
+        assertTrue(buffer.encolar(2L, 1));
+        assertFalse("Cola llena", buffer.encolar(3L, 1));
+        assertTrue("Una tarea encolada se puede combinar", buffer.encolar(1L, 0));
+
+        assertEquals("Extracción parcial", Collections.singleton(1L), buffer.extraer(1).keySet());
+        assertTrue("Hay sitio tras extraer", buffer.encolar(3L, 1));
+    }
+
+    /**
+     * Prueba que al devolver cambios fallidos no se pisan los más recientes.
+     */
+    public void testDevolverConservaCambiosRecientes() {
+        TaskStatusWriteBuffer buffer = new TaskStatusWriteBuffer(10);
+        buffer.encolar(1L, 1);
+        buffer.encolar(2L, 1);
+        Map<Long, Integer> fallidos = buffer.extraer(10);
+
+        buffer.encolar(1L, 0);
+        buffer.devolver(fallidos);
+
+        assertEquals("Se reencolan ambas tareas", 2, buffer.getPendientes());
+        assertEquals("Se conserva el cambio reciente", Integer.valueOf(0), buffer.estadoPendiente(1L));
+        assertEquals("Se reencola el cambio fallido", Integer.valueOf(1), buffer.estadoPendiente(2L));
+    }
+
+    /**
+     * Prueba que descartar quita los cambios encolados de las tareas indicadas
+     * y deja los demás.
+     */
+    public void testDescartar() {
+        TaskStatusWriteBuffer buffer = new TaskStatusWriteBuffer(10);
+        buffer.encolar(1L, 1);
+        buffer.encolar(2L, 1);
+
+        assertTrue(buffer.contieneAlguna(Arrays.asList(1L, 3L)));
+        assertEquals("Un cambio descartado", 1, buffer.descartar(Arrays.asList(1L, 3L)));
+        assertNull("Descartado", buffer.estadoPendiente(1L));
+        assertFalse(buffer.contieneAlguna(Collections.singleton(1L)));
+        assertEquals("Se conserva el resto", Integer.valueOf(1), buffer.estadoPendiente(2L));
+    }
+
+    /**
+     * Prueba que un cambio descartado mientras está en escritura queda marcado
+     * como sustituido y no se reencola al devolverlo.
+     */
+    public void testDescartarEnEscrituraLoMarcaComoSustituido() {
+        TaskStatusWriteBuffer buffer = new TaskStatusWriteBuffer(10);
+        buffer.encolar(1L, 1);
+        buffer.encolar(2L, 1);
+        Map<Long, Integer> enEscritura = buffer.extraer(10);
+
+        assertEquals(1, buffer.descartar(Collections.singleton(1L)));
+        assertNull("Ya no se muestra como pendiente", buffer.estadoPendiente(1L));
+        assertEquals(Collections.singleton(1L), buffer.sustituidas(enEscritura.keySet()));
+
+        buffer.devolver(enEscritura);
+        assertNull("No se reencola", buffer.estadoPendiente(1L));
+        assertEquals("El resto sí", Integer.valueOf(1), buffer.estadoPendiente(2L));
+        assertTrue("La marca se consume", buffer.sustituidas(enEscritura.keySet()).isEmpty());
+    }
+}
@@ -0,0 +1,70 @@
+package net.xiliosoft.prueba_tecnica.service;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pruebas unitarias de las versiones en memoria usadas para los ETag de la API REST.
+ *
+ * @author Christian Domenech
+ * @version 1.0
+ */
+public class TaskVersionTrackerTest extends TestCase {
+
+    private final AtomicLong reloj = new AtomicLong(1_000_000L);
+    private final TaskVersionTracker tracker = new TaskVersionTracker(reloj::get);
+
+    public TaskVersionTrackerTest(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TaskVersionTrackerTest.class);
+    }
+
+    /**
+     * Prueba que un cambio avanza la versión de la tabla y solo la de las tareas afectadas.
+     */
+    public void testCambioAvanzaVersiones() {
+        TaskVersionTracker.Version tablaInicial = tracker.deTabla();
+        TaskVersionTracker.Version tareaInicial = tracker.deTarea(1L);
+        assertEquals("Sin cambios la tarea tiene la versión base",
+                tablaInicial.getNumero(), tareaInicial.getNumero());
+
+        reloj.addAndGet(5_000L);
+        tracker.aplicar(TaskEvent.estadoCambiado(Arrays.asList(1L, 2L), 1));
+
+        assertTrue("La tabla debe cambiar de versión", tracker.deTabla().getNumero() > tablaInicial.getNumero());
+        assertEquals("La tarea cambiada debe tener la versión del cambio",
+                tracker.deTabla().getNumero(), tracker.deTarea(1L).getNumero());
+        assertEquals("Fecha de la modificación", 1_005_000L, tracker.deTarea(2L).getModificada().getTime());
+        assertEquals("Una tarea no afectada conserva la versión base",
+                tareaInicial.getNumero(), tracker.deTarea(3L).getNumero());
+    }
+
+    /**
+     * Prueba que un borrado cambia la versión de la tarea para que no se responda 304.
+     */
+    public void testBorradoCambiaVersion() {
+        TaskVersionTracker.Version antes = tracker.deTarea(7L);
+        tracker.aplicar(TaskEvent.eliminadas(Collections.singletonList(7L)));
+        assertFalse("La versión de la tarea borrada debe cambiar",
+                antes.getNumero() == tracker.deTarea(7L).getNumero());
+    }
+
+    /**
+     * Prueba que las versiones de una nueva instancia no repiten las de la anterior.
+     */
+    public void testVersionesNoSeRepitenTrasReiniciar() {
+        tracker.aplicar(TaskEvent.eliminadas(Collections.singletonList(1L)));
+        reloj.addAndGet(1_000L);
+        TaskVersionTracker reiniciado = new TaskVersionTracker(reloj::get);
+        assertTrue("La versión base debe ser posterior",
+                reiniciado.deTarea(2L).getNumero() > tracker.deTarea(1L).getNumero());
+    }
+}